@@ -0,0 +1,81 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Control;
+import regions.Station;
+import regions.Train;
+
+/**
+ * General description: Benchmark of the alighting handshake of a Train: in
+ * each group, Pawns on board wait for their stop (Train.waitForStop) while a
+ * Conductor keeps reaching it and letting them off
+ * (Train.letPassengersOffTheTrain). Each operation of a Pawn is one handoff,
+ * so its throughput is the number of handoffs per microsecond and its sampled
+ * time how long it waited to be let off. An operation of the Conductor is one
+ * stop, whether anybody got off or not.
+ *
+ * Contention grows with the number of Pawns per Conductor (-tg 1,N).
+ *
+ * @author Tiago Madeira 76321
+ */
+@BenchmarkMode(
+{
+    Mode.Throughput, Mode.SampleTime
+})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AlightingBenchmark
+{
+
+    /**
+     * The train of a group and the station its passengers get off at
+     */
+    @State(Scope.Group)
+    public static class Ride
+    {
+
+        Station station;
+        Train train;
+
+        @Setup
+        public void setup(Fixture fixture)
+        {
+            station = fixture.getTrack().getStations().getLast();
+            train = fixture.newTrain();
+        }
+    }
+
+    @Benchmark
+    @Group("alighting")
+    @GroupThreads(1)
+    public void conductor(Ride ride)
+    {
+        ride.train.letPassengersOffTheTrain(ride.station);
+    }
+
+    @Benchmark
+    @Group("alighting")
+    @GroupThreads(4)
+    public void passenger(Ride ride, Control control)
+    {
+        // The Conductor is only called until everybody's measurement is over
+        if (!control.stopMeasurement)
+        {
+            ride.train.waitForStop(ride.station);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Control;
+import regions.Station;
+import regions.Train;
+
+/**
+ * General description: Benchmark of the boarding handshake of a Station:
+ * in each group, Pawns wait on the platform for a train (Station.waitForTrain)
+ * while a Conductor keeps calling them into it (Station.letPassengersIntoTrain).
+ * Each operation of a Pawn is one handoff, so its throughput is the number of
+ * handoffs per microsecond and its sampled time how long it waited to be
+ * called. An operation of the Conductor is one stop, whether anybody was on
+ * the platform or not.
+ *
+ * Contention grows with the number of Pawns per Conductor (-tg 1,N).
+ *
+ * @author Tiago Madeira 76321
+ */
+@BenchmarkMode(
+{
+    Mode.Throughput, Mode.SampleTime
+})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardingBenchmark
+{
+
+    /**
+     * The station and train of a group
+     */
+    @State(Scope.Group)
+    public static class Platform
+    {
+
+        Station station;
+        Train train;
+
+        @Setup
+        public void setup(Fixture fixture)
+        {
+            // A station of its own, so that groups don't share the platform
+            Station first = fixture.getTrack().getStations().getFirst();
+            station = new Station(first.getLocation(), first.getTrackSymbol());
+            train = fixture.newTrain();
+        }
+    }
+
+    @Benchmark
+    @Group("boarding")
+    @GroupThreads(1)
+    public void conductor(Platform platform)
+    {
+        platform.station.letPassengersIntoTrain(platform.train);
+    }
+
+    @Benchmark
+    @Group("boarding")
+    @GroupThreads(4)
+    public Train passenger(Platform platform, Control control)
+    {
+        // The Conductor is only called until everybody's measurement is over
+        return control.stopMeasurement ? null : platform.station.waitForTrain();
+    }
+}
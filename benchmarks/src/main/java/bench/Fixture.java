@@ -0,0 +1,79 @@
+package bench;
+
+import entities.Pawn;
+import log.EventLog;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import regions.MetroMap;
+import regions.Track;
+import regions.Train;
+import render.HeadlessRenderer;
+
+/**
+ * General description: The world the monitor benchmarks run in: a small
+ * generated map, its first track and the MetroMap Pawns are created with.
+ * Nothing is drawn and the events of the simulation aren't logged.
+ *
+ * @author Tiago Madeira 76321
+ */
+@State(Scope.Benchmark)
+public class Fixture
+{
+
+    /**
+     * Number of lines and columns of the map
+     */
+    private static final int SIZE = 64;
+
+    /**
+     * Internal data
+     */
+    private SyntheticMap map;
+    private MetroMap metroMap;
+    private Track track;
+
+    @Setup
+    public void setup()
+    {
+        EventLog.off();
+
+        map = new SyntheticMap(SIZE);
+        Track[] tracks = map.createTracks();
+        track = tracks[0];
+        metroMap = new MetroMap(map.getGrid(), tracks);
+    }
+
+    /**
+     * Returns the track the benchmarks run on
+     *
+     * @return the first Track of the map
+     */
+    Track getTrack()
+    {
+        return track;
+    }
+
+    /**
+     * Creates a train at the start of the track, with no Conductor.
+     *
+     * @return the new Train
+     */
+    Train newTrain()
+    {
+        return new Train(map.getGrid(), new HeadlessRenderer(), track, map.getStartPositions()[0], 0, SyntheticMap.N,
+                2);
+    }
+
+    /**
+     * Creates a Pawn, not yet on its way.
+     *
+     * @param name Pawn name
+     *
+     * @return the new Pawn
+     */
+    Pawn newPawn(String name)
+    {
+        return new Pawn(name, new HeadlessRenderer(), metroMap, map.getGrid(), SyntheticMap.N, 1);
+    }
+}
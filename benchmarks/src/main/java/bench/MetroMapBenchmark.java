@@ -0,0 +1,88 @@
+package bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pt.ua.gboard.basic.Position;
+import regions.MetroMap;
+import regions.Station;
+
+/**
+ * General description: Benchmarks of the questions Pawns ask the MetroMap:
+ * the nearest station to where they are and the stations to travel between.
+ * The positions asked about are walkable cells picked at random, the same
+ * ones on every run.
+ *
+ * @author Tiago Madeira 76321
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetroMapBenchmark
+{
+
+    /**
+     * Number of positions asked about, a power of two
+     */
+    private static final int POSITIONS = 1024;
+
+    /**
+     * Number of lines and columns of the map
+     */
+    @Param(
+    {
+        "64", "128", "256"
+    })
+    public int size;
+
+    /**
+     * Internal data
+     */
+    private MetroMap metroMap;
+    private Position[] positions;
+    private int next = 0;
+
+    @Setup
+    public void setup()
+    {
+        SyntheticMap map = new SyntheticMap(size);
+        metroMap = new MetroMap(map.getGrid(), map.createTracks());
+
+        Position[] walkable = metroMap.getSpawningPositions();
+        Random random = new Random(42);
+        positions = new Position[POSITIONS];
+        for (int i = 0; i < POSITIONS; i++)
+        {
+            positions[i] = walkable[random.nextInt(walkable.length)];
+        }
+    }
+
+    @Benchmark
+    public Station getNearestStation()
+    {
+        int i = next;
+        next = (i + 1) & (POSITIONS - 1);
+        return metroMap.getNearestStation(positions[i]);
+    }
+
+    @Benchmark
+    public Station[] getPathStations()
+    {
+        int i = next;
+        next = (i + 2) & (POSITIONS - 1);
+        return metroMap.getPathStations(positions[i], positions[i + 1]);
+    }
+}
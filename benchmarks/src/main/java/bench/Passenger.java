@@ -0,0 +1,33 @@
+package bench;
+
+import entities.Pawn;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * General description: The Pawn each benchmark thread plays.
+ *
+ * @author Tiago Madeira 76321
+ */
+@State(Scope.Thread)
+public class Passenger
+{
+
+    /**
+     * Number of Pawns created so far, to name them
+     */
+    private static final AtomicInteger count = new AtomicInteger();
+
+    /**
+     * Internal data
+     */
+    Pawn pawn;
+
+    @Setup
+    public void setup(Fixture fixture)
+    {
+        pawn = fixture.newPawn("Pawn_" + count.getAndIncrement());
+    }
+}
@@ -0,0 +1,183 @@
+package bench;
+
+import grid.MapIndex;
+import grid.TextGrid;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import pt.ua.gboard.basic.Position;
+import regions.Track;
+
+/**
+ * General description: Square map generated for the benchmarks, so the hot
+ * paths can be measured on maps of increasing size. The map is split into
+ * horizontal bands, one per track, and each track snakes across its band from
+ * the top left to the bottom, with a station every few cells of its straight
+ * stretches and at both ends.
+ *
+ * @author Tiago Madeira 76321
+ */
+public class SyntheticMap
+{
+
+    /**
+     * Symbols of each track and of its stations, as in the map files
+     */
+    private static final char[] TRACK_SYMBOLS =
+    {
+        'G', 'R', 'P', 'B'
+    };
+    private static final char[] STATION_SYMBOLS =
+    {
+        'g', 'r', 'p', 'b'
+    };
+
+    /**
+     * Lines between two stretches of a track
+     */
+    private static final int STRETCH_GAP = 6;
+
+    /**
+     * Cells of track between two stations
+     */
+    private static final int STATION_GAP = 8;
+
+    /**
+     * Cell size used by the simulation
+     */
+    public static final int N = 4;
+
+    /**
+     * Internal data
+     */
+    private final TextGrid grid;
+    private final Position[] startPositions;
+    private final Position[] endPositions;
+
+    /**
+     * Constructor
+     *
+     * @param size number of lines and columns of the map
+     */
+    public SyntheticMap(int size)
+    {
+        assert size >= 4 * (STRETCH_GAP + 2) + 2;
+
+        char[][] cells = new char[size][size];
+        for (char[] line : cells)
+        {
+            Arrays.fill(line, ' ');
+        }
+        for (int i = 0; i < size; i++)
+        {
+            cells[0][i] = '#';
+            cells[size - 1][i] = '#';
+            cells[i][0] = '#';
+            cells[i][size - 1] = '#';
+        }
+
+        int nrTracks = TRACK_SYMBOLS.length;
+        int bandHeight = (size - 2) / nrTracks;
+        startPositions = new Position[nrTracks];
+        endPositions = new Position[nrTracks];
+
+        for (int t = 0; t < nrTracks; t++)
+        {
+            List<Position> path = snake(1 + t * bandHeight + 1, bandHeight - 2, 2, size - 3);
+            for (int i = 0; i < path.size(); i++)
+            {
+                Position pos = path.get(i);
+                boolean station = i == 0 || i == path.size() - 1
+                        || i % STATION_GAP == 0 && !isCorner(path, i);
+                cells[pos.line()][pos.column()] = station ? STATION_SYMBOLS[t] : TRACK_SYMBOLS[t];
+            }
+            startPositions[t] = path.get(0);
+            endPositions[t] = path.get(path.size() - 1);
+        }
+
+        String[] lines = new String[size];
+        for (int l = 0; l < size; l++)
+        {
+            lines[l] = new String(cells[l]);
+        }
+        grid = new TextGrid(lines);
+    }
+
+    /**
+     * Returns the map Grid
+     *
+     * @return the TextGrid holding the map
+     */
+    public TextGrid getGrid()
+    {
+        return grid;
+    }
+
+    /**
+     * Creates the tracks of the map, without any ticket booth.
+     *
+     * @return an array with the Tracks of the map
+     */
+    public Track[] createTracks()
+    {
+        Track[] tracks = new Track[TRACK_SYMBOLS.length];
+        MapIndex index = new MapIndex(grid);
+        for (int t = 0; t < tracks.length; t++)
+        {
+            tracks[t] = new Track(grid, index, startPositions[t], endPositions[t], TRACK_SYMBOLS[t],
+                    STATION_SYMBOLS[t], N, 0, Integer.MAX_VALUE);
+        }
+        return tracks;
+    }
+
+    /**
+     * Returns the position where each track begins
+     *
+     * @return an array with a Position for each track
+     */
+    public Position[] getStartPositions()
+    {
+        return startPositions.clone();
+    }
+
+    /**
+     * Cells of a track going right and left across a band, one stretch every
+     * STRETCH_GAP lines, joined at alternating ends
+     */
+    private static List<Position> snake(int top, int height, int left, int right)
+    {
+        List<Position> path = new ArrayList<>();
+        boolean rightwards = true;
+
+        for (int l = top; l < top + height; l += STRETCH_GAP)
+        {
+            for (int i = 0; i <= right - left; i++)
+            {
+                path.add(new Position(l, rightwards ? left + i : right - i));
+            }
+
+            if (l + STRETCH_GAP >= top + height)
+            {
+                break;
+            }
+            int end = rightwards ? right : left;
+            for (int d = 1; d < STRETCH_GAP; d++)
+            {
+                path.add(new Position(l + d, end));
+            }
+            rightwards = !rightwards;
+        }
+
+        return path;
+    }
+
+    /**
+     * Checks whether the track turns at a cell of the path
+     */
+    private static boolean isCorner(List<Position> path, int i)
+    {
+        Position prev = path.get(i - 1);
+        Position next = path.get(i + 1);
+        return prev.line() != next.line() && prev.column() != next.column();
+    }
+}
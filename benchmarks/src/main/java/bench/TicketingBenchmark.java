@@ -0,0 +1,76 @@
+package bench;
+
+import entities.Salesman;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import regions.Station;
+
+/**
+ * General description: Benchmark of the purchase handshake of a Station:
+ * every benchmark thread is a Pawn buying tickets (Station.buyTicket) from
+ * the Salesmen of the station's booths (Station.sellTickets). Each operation
+ * is one ticket handed over, so the throughput is the number of handoffs per
+ * microsecond and the sampled time is how long a Pawn waited for its ticket.
+ *
+ * Contention grows with the number of Pawns (-t) for a number of booths.
+ *
+ * @author Tiago Madeira 76321
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(
+{
+    Mode.Throughput, Mode.SampleTime
+})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class TicketingBenchmark
+{
+
+    /**
+     * Number of ticket booths at the station
+     */
+    @Param(
+    {
+        "1", "2", "4"
+    })
+    public int booths;
+
+    /**
+     * Internal data
+     */
+    private Station station;
+
+    @Setup
+    public void setup(Fixture fixture)
+    {
+        station = fixture.getTrack().getStations().getFirst();
+
+        // The Salesmen never stop selling; they go with the forked JVM
+        for (int b = 0; b < booths; b++)
+        {
+            Salesman salesman = new Salesman("Salesman_" + b, station);
+            salesman.setDaemon(true);
+            salesman.start();
+        }
+    }
+
+    @Benchmark
+    public void buyTicket(Passenger passenger)
+    {
+        station.buyTicket(passenger.pawn);
+    }
+}
@@ -0,0 +1,89 @@
+package bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import regions.Station;
+import regions.Track;
+
+/**
+ * General description: Benchmarks of the Track: working out the cycle of
+ * moves of every track of a map (determineTrack and addUTurn, along with the
+ * stop index) and finding the station at a location.
+ *
+ * @author Tiago Madeira 76321
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TrackBenchmark
+{
+
+    /**
+     * Number of lines and columns of the map
+     */
+    @Param(
+    {
+        "64", "128", "256"
+    })
+    public int size;
+
+    /**
+     * Internal data
+     */
+    private SyntheticMap map;
+    private Track track;
+    // Locations (times the cell size) looked up, stations and cells between
+    private int[] lookupL;
+    private int[] lookupC;
+    private int next = 0;
+
+    @Setup
+    public void setup()
+    {
+        map = new SyntheticMap(size);
+        track = map.createTracks()[0];
+
+        // Every station of the track, each followed by the cell after it
+        List<Station> stations = track.getStations();
+        lookupL = new int[2 * stations.size()];
+        lookupC = new int[2 * stations.size()];
+        int pt = 0;
+        for (Station station : stations)
+        {
+            lookupL[pt] = station.getLocation().line() * SyntheticMap.N;
+            lookupC[pt] = station.getLocation().column() * SyntheticMap.N;
+            lookupL[pt + 1] = lookupL[pt];
+            lookupC[pt + 1] = lookupC[pt] + SyntheticMap.N;
+            pt += 2;
+        }
+    }
+
+    @Benchmark
+    public Track[] construction()
+    {
+        return map.createTracks();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Station getStation()
+    {
+        int i = next;
+        next = i + 1 == lookupL.length ? 0 : i + 1;
+        return track.getStation(lookupL[i], lookupC[i]);
+    }
+}
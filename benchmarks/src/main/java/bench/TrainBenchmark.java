@@ -0,0 +1,66 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import regions.Station;
+import regions.Track;
+import regions.Train;
+import render.HeadlessRenderer;
+
+/**
+ * General description: Benchmark of a step of a Train: the move along its
+ * cycle and the look up of the station it reached, as done by the Conductor
+ * after every move. Drawn with the HeadlessRenderer, so only the logic is
+ * measured.
+ *
+ * @author Tiago Madeira 76321
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TrainBenchmark
+{
+
+    /**
+     * Number of lines and columns of the map
+     */
+    @Param(
+    {
+        "64", "128", "256"
+    })
+    public int size;
+
+    /**
+     * Internal data
+     */
+    private Train train;
+
+    @Setup
+    public void setup()
+    {
+        SyntheticMap map = new SyntheticMap(size);
+        Track track = map.createTracks()[0];
+        train = new Train(map.getGrid(), new HeadlessRenderer(), track, map.getStartPositions()[0], 0,
+                SyntheticMap.N, 2);
+    }
+
+    @Benchmark
+    public Station move()
+    {
+        train.move();
+        return train.getCurrentStation();
+    }
+}
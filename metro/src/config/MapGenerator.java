@@ -0,0 +1,379 @@
+package config;
+
+import grid.MapIndex;
+import grid.TextGrid;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import pt.ua.gboard.basic.Position;
+import pt.ua.gboard.games.Labyrinth;
+import regions.Track;
+
+/**
+ * General description: Generates maps of any size, with any number of lines,
+ * in the format of the map files, along with their network. The map is split
+ * into a rectangle per line, with a free cell all around, and each line snakes
+ * across its rectangle, going back and forth in stretches a few cells apart.
+ * Which way each line goes, and how far apart its stretches are, is drawn from
+ * a seed. Its stations are spread evenly along it, one at each terminal, and
+ * never at a turn.
+ *
+ * Lines are drawn with an uppercase letter and their stations with the
+ * lowercase one: A to Z first, then the letters of other alphabets. 'X' is
+ * left out as it marks destinations.
+ *
+ * @author Tiago Madeira 76321
+ */
+public class MapGenerator
+{
+
+    /**
+     * Least and most lines between two stretches of a line. Stretches two
+     * lines apart have a free line between them
+     */
+    private static final int MIN_GAP = 2;
+    private static final int MAX_GAP = 4;
+
+    /**
+     * Cell size the generated maps are checked with
+     */
+    private static final int N = 4;
+
+    /**
+     * Internal data
+     */
+    private final char[][] cells;
+    private final Network network;
+
+    /**
+     * Constructor
+     *
+     * @param lines    number of lines of the map
+     * @param columns  number of columns of the map
+     * @param nrLines  number of metro lines
+     * @param stations number of stations of each metro line, at least two
+     * @param length   number of cells of each metro line, stations included
+     * @param seed     the seed the layout of the lines is drawn from
+     *
+     * @throws IllegalArgumentException if the lines don't fit in the map or
+     *                                  their stations don't fit in them
+     */
+    public MapGenerator(int lines, int columns, int nrLines, int stations, int length, long seed)
+    {
+        if (nrLines <= 0 || stations < 2 || length < stations)
+        {
+            throw new IllegalArgumentException("at least one line, of at least two stations and as many cells as"
+                    + " stations, is required");
+        }
+
+        cells = new char[lines][columns];
+        for (char[] line : cells)
+        {
+            Arrays.fill(line, ' ');
+        }
+        for (int l = 0; l < lines; l++)
+        {
+            cells[l][0] = '#';
+            cells[l][columns - 1] = '#';
+        }
+        Arrays.fill(cells[0], '#');
+        Arrays.fill(cells[lines - 1], '#');
+
+        // As many rectangles across as down, in proportion to the map
+        int across = (int) Math.max(1, Math.min(nrLines, Math.round(Math.sqrt(nrLines * (double) columns / lines))));
+        int down = (nrLines + across - 1) / across;
+        int height = (lines - 2) / down;
+        int width = (columns - 2) / across;
+
+        char[] symbols = trackSymbols(nrLines);
+        Random random = new Random(seed);
+        List<Network.Line> networkLines = new ArrayList<>();
+        for (int i = 0; i < nrLines; i++)
+        {
+            // A free cell all around the line
+            int top = 1 + (i / across) * height + 1;
+            int left = 1 + (i % across) * width + 1;
+            List<Position> path = snake(random, top, left, height - 2, width - 2, length);
+
+            char symbol = symbols[i];
+            char stationSymbol = Character.toLowerCase(symbol);
+            for (Position pos : path)
+            {
+                cells[pos.line()][pos.column()] = symbol;
+            }
+            for (int s : stationIndices(path, stations))
+            {
+                Position pos = path.get(s);
+                cells[pos.line()][pos.column()] = stationSymbol;
+            }
+            networkLines.add(new Network.Line(symbol, stationSymbol, Network.defaultColour(i),
+                    Network.DEFAULT_TRAINS));
+        }
+
+        network = new Network(networkLines, 1000, 500, 2, 20);
+    }
+
+    /**
+     * Returns the symbols of the tracks of a number of lines
+     *
+     * @param nrLines the number of lines
+     *
+     * @return an array of uppercase letters, each one with a lowercase letter
+     *         of its own for the stations
+     *
+     * @throws IllegalArgumentException if there aren't enough letters
+     */
+    public static char[] trackSymbols(int nrLines)
+    {
+        char[] symbols = new char[nrLines];
+        int nrSymbols = 0;
+        for (char c = 'A'; nrSymbols < nrLines; c++)
+        {
+            if (c == Character.MAX_VALUE)
+            {
+                throw new IllegalArgumentException("there aren't letters for " + nrLines + " lines");
+            }
+            char lower = Character.toLowerCase(c);
+            if (c != 'X' && Character.isUpperCase(c) && lower != c && Character.toUpperCase(lower) == c)
+            {
+                symbols[nrSymbols] = c;
+                nrSymbols++;
+            }
+        }
+        return symbols;
+    }
+
+    /**
+     * Returns the map, a String per line.
+     *
+     * @return a new array with the lines of the map
+     */
+    public String[] getMap()
+    {
+        String[] map = new String[cells.length];
+        for (int l = 0; l < cells.length; l++)
+        {
+            map[l] = new String(cells[l]);
+        }
+        return map;
+    }
+
+    /**
+     * Returns the network of the map: its lines, each one with two trains.
+     *
+     * @return the Network
+     */
+    public Network getNetwork()
+    {
+        return network;
+    }
+
+    /**
+     * Writes the map to a file.
+     *
+     * @param file the file to write, replaced if it exists
+     *
+     * @throws IOException if the file can't be written
+     */
+    public void write(Path file) throws IOException
+    {
+        assert file != null;
+
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8))
+        {
+            for (String line : getMap())
+            {
+                out.write(line);
+                out.newLine();
+            }
+        }
+    }
+
+    /**
+     * Checks that a map file can be run with a network: that it's a valid map
+     * and a track can be determined for each one of the lines.
+     *
+     * @param file    the map file
+     * @param network the lines of the map
+     *
+     * @throws IOException              if the file can't be read
+     * @throws IllegalArgumentException if the map isn't valid
+     */
+    public static void check(Path file, Network network) throws IOException
+    {
+        assert file != null;
+        assert network != null;
+
+        if (!Labyrinth.validMapFile(file.toString()))
+        {
+            throw new IllegalArgumentException("invalid map file \"" + file + "\"");
+        }
+        TextGrid grid = TextGrid.load(file.toString());
+        MapIndex index = new MapIndex(grid);
+        for (Network.Line line : network.getLines())
+        {
+            new Track(grid, index, line.getSymbol(), line.getStationSymbol(), N, 0, Integer.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Cells of a line snaking across a rectangle, in order from one terminal
+     * to the other. The stretches are horizontal or vertical and the line may
+     * begin at any corner
+     */
+    private static List<Position> snake(Random random, int top, int left, int height, int width, int length)
+    {
+        // Ways the line fits: along the lines of the map or down the columns,
+        // with each gap between the stretches
+        List<int[]> fits = new ArrayList<>();
+        for (int vertical = 0; vertical < 2; vertical++)
+        {
+            int along = vertical == 0 ? width : height;
+            int across = vertical == 0 ? height : width;
+            for (int gap = MIN_GAP; gap <= MAX_GAP && along >= 2 && across >= 1; gap++)
+            {
+                int stretches = (across - 1) / gap + 1;
+                if (stretches * along + (stretches - 1) * (gap - 1) >= length)
+                {
+                    fits.add(new int[]
+                    {
+                        vertical, gap
+                    });
+                }
+            }
+        }
+        if (fits.isEmpty())
+        {
+            throw new IllegalArgumentException("a line of " + length + " cells doesn't fit in " + height + " by "
+                    + width + " cells");
+        }
+
+        int[] fit = fits.get(random.nextInt(fits.size()));
+        boolean vertical = fit[0] == 1;
+        int gap = fit[1];
+        int along = vertical ? height : width;
+        int across = vertical ? width : height;
+        boolean flipAlong = random.nextBoolean();
+        boolean flipAcross = random.nextBoolean();
+
+        List<Position> path = new ArrayList<>(length);
+        int a = 0;
+        int b = 0;
+        int direction = 1;
+        while (path.size() < length)
+        {
+            int pa = flipAlong ? along - 1 - a : a;
+            int pb = flipAcross ? across - 1 - b : b;
+            path.add(vertical ? new Position(top + pa, left + pb) : new Position(top + pb, left + pa));
+
+            // Along the stretch, then across to the next one at its end
+            boolean onStretch = b % gap == 0;
+            boolean atEnd = direction > 0 ? a == along - 1 : a == 0;
+            if (onStretch && !atEnd)
+            {
+                a += direction;
+            } else
+            {
+                b++;
+                if (b % gap == 0)
+                {
+                    direction = -direction;
+                }
+            }
+        }
+        return path;
+    }
+
+    /**
+     * Indices in a path of its stations: one at each end and the others
+     * spread evenly between them, moved off the turns
+     */
+    private static int[] stationIndices(List<Position> path, int stations)
+    {
+        int length = path.size();
+        boolean[] taken = new boolean[length];
+        int[] indices = new int[stations];
+        for (int s = 0; s < stations; s++)
+        {
+            int target = (int) Math.round(s * (length - 1) / (double) (stations - 1));
+            // Nearest cell that isn't a turn nor a station already
+            for (int d = 0;; d++)
+            {
+                int idx = target + ((d & 1) == 0 ? d / 2 : -(d / 2 + 1));
+                if (idx >= 0 && idx < length && !taken[idx] && !isTurn(path, idx))
+                {
+                    taken[idx] = true;
+                    indices[s] = idx;
+                    break;
+                }
+                if (d > 2 * length)
+                {
+                    throw new IllegalArgumentException(stations + " stations don't fit in a line of " + length
+                            + " cells");
+                }
+            }
+        }
+        return indices;
+    }
+
+    /**
+     * Checks whether the line turns at a cell of the path
+     */
+    private static boolean isTurn(List<Position> path, int i)
+    {
+        if (i == 0 || i == path.size() - 1)
+        {
+            return false;
+        }
+        Position prev = path.get(i - 1);
+        Position next = path.get(i + 1);
+        return prev.line() != next.line() && prev.column() != next.column();
+    }
+
+    /**
+     * Generates a map and its network and writes them to files.
+     *
+     * @param args number of lines and columns of the map, number of metro
+     *             lines, stations per line, cells per line, seed, map file to
+     *             write and network file to write
+     */
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length != 8)
+        {
+            System.out.println("Usage: MapGenerator <lines> <columns> <metro-lines> <stations> <line-length> <seed>"
+                    + " <map-file> <network-file>");
+            System.exit(1);
+        }
+
+        int lines = Integer.parseInt(args[0]);
+        int columns = Integer.parseInt(args[1]);
+        int nrLines = Integer.parseInt(args[2]);
+        int stations = Integer.parseInt(args[3]);
+        int length = Integer.parseInt(args[4]);
+        long seed = Long.parseLong(args[5]);
+        Path mapFile = Path.of(args[6]);
+        Path networkFile = Path.of(args[7]);
+
+        try
+        {
+            MapGenerator generator = new MapGenerator(lines, columns, nrLines, stations, length, seed);
+            generator.write(mapFile);
+            generator.getNetwork().write(networkFile, lines + " by " + columns + " map " + mapFile + ", "
+                    + nrLines + " lines of " + length + " cells and " + stations + " stations, seed " + seed);
+            check(mapFile, generator.getNetwork());
+        } catch (IllegalArgumentException e)
+        {
+            System.err.println("ERROR: " + e.getMessage());
+            System.exit(1);
+        }
+        System.out.println(lines + " by " + columns + " map with " + nrLines + " lines written to " + mapFile
+                + " and " + networkFile);
+    }
+}
@@ -0,0 +1,418 @@
+package config;
+
+import java.awt.Color;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * General description: The lines of a metro network and how the simulation of
+ * it is set up, as declared in a network file. Each line of the network is
+ * given by the symbols of its track and stations on the map, its colour and
+ * its number of trains; where the terminals are is found on the map.
+ *
+ * A network file has one setting per line and '#' comments:
+ *
+ * line G g colour 0x5db347 trains 2  (colour, as RGB, and trains optional)
+ * pawns 1000                         (number of Pawns to spawn)
+ * rate 500                           (time between Pawns, ms)
+ * booths 2                           (ticket booths at each station)
+ * capacity 20                        (most passengers boarding per stop)
+ *
+ * @author Tiago Madeira 76321
+ */
+public class Network
+{
+
+    /**
+     * Trains of a line unless told otherwise
+     */
+    public static final int DEFAULT_TRAINS = 2;
+
+    /**
+     * Internal data
+     */
+    private final List<Line> lines;
+    private final int pawns;
+    private final int rate;
+    private final int booths;
+    private final int capacity;
+
+    /**
+     * Constructor
+     *
+     * @param lines    the lines of the network, at least one
+     * @param pawns    the number of Pawns to spawn, unless replaying a trip
+     *                 file
+     * @param rate     the time between the spawning of two Pawns (ms), unless
+     *                 replaying a trip file
+     * @param booths   the number of ticket booths at each station
+     * @param capacity the most passengers that get into a train each time one
+     *                 stops at a station
+     *
+     * @throws IllegalArgumentException if a setting is out of range or two
+     *                                  lines share a symbol
+     */
+    public Network(List<Line> lines, int pawns, int rate, int booths, int capacity)
+    {
+        assert lines != null;
+
+        if (lines.isEmpty())
+        {
+            throw new IllegalArgumentException("at least one line is required");
+        }
+        if (pawns < 0 || rate < 0 || booths < 0 || capacity <= 0)
+        {
+            throw new IllegalArgumentException("pawns, rate and booths can't be negative, nor capacity less than one");
+        }
+        List<Character> symbols = new ArrayList<>();
+        for (Line line : lines)
+        {
+            for (char symbol : new char[]
+            {
+                line.getSymbol(), line.getStationSymbol()
+            })
+            {
+                if (symbol == 'X' || symbol == ' ' || symbol == '#')
+                {
+                    throw new IllegalArgumentException("symbol '" + symbol + "' isn't for lines");
+                }
+                if (symbols.contains(symbol))
+                {
+                    throw new IllegalArgumentException("symbol '" + symbol + "' used twice");
+                }
+                symbols.add(symbol);
+            }
+        }
+
+        this.lines = Collections.unmodifiableList(new ArrayList<>(lines));
+        this.pawns = pawns;
+        this.rate = rate;
+        this.booths = booths;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns the network of map0.txt: four lines of two trains each.
+     *
+     * @return a new Network
+     */
+    public static Network standard()
+    {
+        List<Line> lines = new ArrayList<>();
+        lines.add(new Line('G', 'g', Color.getHSBColor(5.30f, 0.60f, 0.70f), DEFAULT_TRAINS));
+        lines.add(new Line('R', 'r', Color.getHSBColor(0.02f, 0.90f, 0.90f), DEFAULT_TRAINS));
+        lines.add(new Line('P', 'p', Color.getHSBColor(4.90f, 0.80f, 0.80f), DEFAULT_TRAINS));
+        lines.add(new Line('B', 'b', Color.getHSBColor(3.55f, 0.90f, 0.80f), DEFAULT_TRAINS));
+        return new Network(lines, 1000, 500, 2, 20);
+    }
+
+    /**
+     * Reads a network file. Lines declared without a colour get one of their
+     * own.
+     *
+     * @param file the network file
+     *
+     * @return a new Network
+     *
+     * @throws IOException if the file can't be read or isn't valid
+     */
+    public static Network load(Path file) throws IOException
+    {
+        assert file != null;
+
+        List<Line> lines = new ArrayList<>();
+        int pawns = 1000;
+        int rate = 500;
+        int booths = 2;
+        int capacity = 20;
+
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8))
+        {
+            String line;
+            int lineNumber = 0;
+            while ((line = in.readLine()) != null)
+            {
+                lineNumber++;
+                int comment = line.indexOf('#');
+                String[] fields = (comment >= 0 ? line.substring(0, comment) : line).trim().split("\\s+");
+                if (fields[0].isEmpty())
+                {
+                    continue;
+                }
+
+                try
+                {
+                    switch (fields[0] + "/" + fields.length)
+                    {
+                        case "pawns/2":
+                            pawns = Integer.parseInt(fields[1]);
+                            break;
+                        case "rate/2":
+                            rate = Integer.parseInt(fields[1]);
+                            break;
+                        case "booths/2":
+                            booths = Integer.parseInt(fields[1]);
+                            break;
+                        case "capacity/2":
+                            capacity = Integer.parseInt(fields[1]);
+                            break;
+                        default:
+                            if (!fields[0].equals("line"))
+                            {
+                                throw new IOException(file + ":" + lineNumber + ": invalid setting \"" + line.trim()
+                                        + "\"");
+                            }
+                            lines.add(parseLine(file, lineNumber, fields, lines.size()));
+                    }
+                } catch (NumberFormatException e)
+                {
+                    throw new IOException(file + ":" + lineNumber + ": invalid number (" + e.getMessage() + ")");
+                }
+            }
+        }
+
+        try
+        {
+            return new Network(lines, pawns, rate, booths, capacity);
+        } catch (IllegalArgumentException e)
+        {
+            throw new IOException(file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the colour of a line declared without one: the hues of such
+     * lines are spread around the colour wheel.
+     *
+     * @param nrLine the position of the line in the network, from 0
+     *
+     * @return a Color
+     */
+    public static Color defaultColour(int nrLine)
+    {
+        return Color.getHSBColor(nrLine * 0.618034f, 0.80f, 0.80f);
+    }
+
+    /**
+     * Writes the network to a file, which load() reads back.
+     *
+     * @param file   the file to write, replaced if it exists
+     * @param header a comment to start the file with, may be null
+     *
+     * @throws IOException if the file can't be written
+     */
+    public void write(Path file, String header) throws IOException
+    {
+        assert file != null;
+
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8))
+        {
+            if (header != null)
+            {
+                out.write("# " + header);
+                out.newLine();
+            }
+            for (Line line : lines)
+            {
+                out.write(String.format("line %c %c colour 0x%06x trains %d", line.getSymbol(), line.getStationSymbol(),
+                        line.getColour().getRGB() & 0xffffff, line.getTrains()));
+                out.newLine();
+            }
+            out.write("pawns " + pawns);
+            out.newLine();
+            out.write("rate " + rate);
+            out.newLine();
+            out.write("booths " + booths);
+            out.newLine();
+            out.write("capacity " + capacity);
+            out.newLine();
+        }
+    }
+
+    /**
+     * Reads the declaration of a line: its symbols, then optionally its colour
+     * and number of trains
+     */
+    private static Line parseLine(Path file, int lineNumber, String[] fields, int nrLine) throws IOException
+    {
+        if (fields.length < 3 || fields.length % 2 == 0 || fields[1].length() != 1 || fields[2].length() != 1
+                || fields[1].equals(fields[2]))
+        {
+            throw new IOException(file + ":" + lineNumber + ": a line needs a track and a different station symbol");
+        }
+
+        Color colour = defaultColour(nrLine);
+        int trains = DEFAULT_TRAINS;
+        for (int f = 3; f < fields.length; f += 2)
+        {
+            switch (fields[f])
+            {
+                case "colour":
+                    colour = Color.decode(fields[f + 1]);
+                    break;
+                case "trains":
+                    trains = Integer.parseInt(fields[f + 1]);
+                    if (trains <= 0)
+                    {
+                        throw new IOException(file + ":" + lineNumber + ": a line needs at least one train");
+                    }
+                    break;
+                default:
+                    throw new IOException(file + ":" + lineNumber + ": invalid line setting \"" + fields[f] + "\"");
+            }
+        }
+        return new Line(fields[1].charAt(0), fields[2].charAt(0), colour, trains);
+    }
+
+    /**
+     * Returns the symbols of the map that are roads: those of every track and
+     * station, and the 'X' marking destinations.
+     *
+     * @return a new array of symbols
+     */
+    public char[] getRoadSymbols()
+    {
+        char[] symbols = new char[lines.size() * 2 + 1];
+        for (int i = 0; i < lines.size(); i++)
+        {
+            symbols[i * 2] = lines.get(i).getSymbol();
+            symbols[i * 2 + 1] = lines.get(i).getStationSymbol();
+        }
+        symbols[symbols.length - 1] = 'X';
+        return symbols;
+    }
+
+    /**
+     * Returns the lines of the network.
+     *
+     * @return a read-only List of the Lines, in the order they were declared
+     */
+    public List<Line> getLines()
+    {
+        return lines;
+    }
+
+    /**
+     * Returns the number of Pawns to spawn, unless replaying a trip file.
+     *
+     * @return the number of Pawns
+     */
+    public int getPawns()
+    {
+        return pawns;
+    }
+
+    /**
+     * Returns the time between the spawning of two Pawns, unless replaying a
+     * trip file.
+     *
+     * @return the time in milliseconds
+     */
+    public int getRate()
+    {
+        return rate;
+    }
+
+    /**
+     * Returns the number of ticket booths at each station.
+     *
+     * @return the number of booths
+     */
+    public int getBooths()
+    {
+        return booths;
+    }
+
+    /**
+     * Returns the most passengers that get into a train each time one stops
+     * at a station.
+     *
+     * @return the boarding capacity of the platforms
+     */
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    /**
+     * General description: A line of the network.
+     */
+    public static class Line
+    {
+
+        /**
+         * Internal data
+         */
+        private final char symbol;
+        private final char stationSymbol;
+        private final Color colour;
+        private final int trains;
+
+        /**
+         * Constructor
+         *
+         * @param symbol        the symbol of the track of the line on the map
+         * @param stationSymbol the symbol of the stations of the line
+         * @param colour        the colour the line is drawn with
+         * @param trains        the number of trains running on the line
+         */
+        public Line(char symbol, char stationSymbol, Color colour, int trains)
+        {
+            assert colour != null;
+            assert trains > 0;
+            assert symbol != stationSymbol;
+
+            this.symbol = symbol;
+            this.stationSymbol = stationSymbol;
+            this.colour = colour;
+            this.trains = trains;
+        }
+
+        /**
+         * Returns the symbol of the track of the line.
+         *
+         * @return a char representing the symbol of the track
+         */
+        public char getSymbol()
+        {
+            return symbol;
+        }
+
+        /**
+         * Returns the symbol of the stations of the line.
+         *
+         * @return a char representing the symbol of the stations
+         */
+        public char getStationSymbol()
+        {
+            return stationSymbol;
+        }
+
+        /**
+         * Returns the colour the line is drawn with.
+         *
+         * @return the Color of the line
+         */
+        public Color getColour()
+        {
+            return colour;
+        }
+
+        /**
+         * Returns the number of trains running on the line.
+         *
+         * @return the number of trains
+         */
+        public int getTrains()
+        {
+            return trains;
+        }
+    }
+}
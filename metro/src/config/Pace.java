@@ -0,0 +1,35 @@
+package config;
+
+/**
+ * General description: The pace of the simulation, how long trains and Pawns
+ * take to do things. The threads sleep for these times and the event-driven
+ * simulation schedules its events after them, so both run at the same pace,
+ * which is also the one journeys are planned with.
+ *
+ * @author Tiago Madeira 76321
+ */
+public final class Pace
+{
+
+    /**
+     * Time between two moves of a train (ms)
+     */
+    public static final long TRAIN_STEP_TIME = 100;
+
+    /**
+     * Time a train stays at a station (ms)
+     */
+    public static final long DWELL_TIME = 200;
+
+    /**
+     * Time between two steps of a walking Pawn (ms)
+     */
+    public static final long WALK_STEP_TIME = 100;
+
+    /**
+     * Not meant to be instantiated
+     */
+    private Pace()
+    {
+    }
+}
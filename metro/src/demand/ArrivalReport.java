@@ -0,0 +1,83 @@
+package demand;
+
+import java.io.PrintStream;
+
+/**
+ * General description: Compares when Pawns actually showed up with when their
+ * trips asked them to, and with the demand requested of the trip source. When
+ * the simulation can't keep up, Pawns show up late and the achieved rate
+ * falls below the requested one.
+ *
+ * Not thread safe: every spawn must be recorded by the same thread.
+ *
+ * @author Tiago Madeira 76321
+ */
+public class ArrivalReport
+{
+
+    /**
+     * Internal data
+     */
+    private long spawned = 0;
+    private long lastScheduled = 0;
+    private long lastActual = 0;
+    private long totalLag = 0;
+    private long maxLag = 0;
+
+    /**
+     * Records that the Pawn of a trip showed up.
+     *
+     * @param trip       the Trip
+     * @param actualTime when the Pawn showed up, since the start of the
+     *                   simulation (ms)
+     */
+    public void record(Trip trip, long actualTime)
+    {
+        assert trip != null;
+
+        long lag = Math.max(0, actualTime - trip.getSpawnTime());
+        spawned++;
+        lastScheduled = trip.getSpawnTime();
+        lastActual = actualTime;
+        totalLag += lag;
+        maxLag = Math.max(maxLag, lag);
+    }
+
+    /**
+     * Prints the requested, generated and achieved arrival rates and how late
+     * Pawns showed up. Only how many there were, when too few for a rate.
+     *
+     * @param out   the stream to print to
+     * @param trips the source of the trips
+     */
+    public void print(PrintStream out, TripSource trips)
+    {
+        assert out != null;
+        assert trips != null;
+
+        if (spawned < 2)
+        {
+            // A rate needs the time between two arrivals at least
+            if (spawned == 0)
+            {
+                out.println("Arrivals: none");
+            } else
+            {
+                out.printf("Arrivals: 1 pawn, too few for a rate, late by %d ms%n", maxLag);
+            }
+            return;
+        }
+
+        // The rates are over the time in which trips were due
+        long window = Math.max(1, lastScheduled);
+        double requested = trips.requestedTrips(lastScheduled);
+        out.printf("Arrivals over %d ms: ", lastScheduled);
+        if (requested >= 0)
+        {
+            out.printf("requested %.1f per minute, ", requested * 60000 / window);
+        }
+        out.printf("generated %.1f per minute, achieved %.1f per minute (%d pawns), late by %.1f ms mean, %d ms max%n",
+                spawned * 60000.0 / window, spawned * 60000.0 / Math.max(1, lastActual), spawned,
+                spawned == 0 ? 0 : (double) totalLag / spawned, maxLag);
+    }
+}
@@ -0,0 +1,145 @@
+package demand;
+
+import java.util.Arrays;
+
+/**
+ * General description: How many passengers per minute want to travel over
+ * the time of the simulation. The rate is piecewise constant: each piece
+ * starts at a certain time and lasts until the next one starts, the last one
+ * forever.
+ *
+ * @author Tiago Madeira 76321
+ */
+public class DemandCurve
+{
+
+    /**
+     * Internal data
+     */
+    // Start of each piece (ms), in increasing order, the first one 0
+    private final long[] starts;
+    // Rate of each piece (passengers per ms)
+    private final double[] rates;
+    private final double maxRate;
+
+    /**
+     * Constructor
+     *
+     * @param starts when each piece starts (ms), in increasing order, the
+     *               first one 0
+     * @param rates  passengers per minute during each piece
+     *
+     * @throws IllegalArgumentException if the pieces aren't in order, don't
+     *                                  start at 0 or have a negative rate
+     */
+    public DemandCurve(long[] starts, double[] rates)
+    {
+        assert starts != null;
+        assert rates != null;
+
+        if (starts.length == 0 || starts.length != rates.length || starts[0] != 0)
+        {
+            throw new IllegalArgumentException("A demand curve must start at 0 ms with one rate per piece");
+        }
+
+        this.starts = starts.clone();
+        this.rates = new double[rates.length];
+        double max = 0;
+        for (int i = 0; i < starts.length; i++)
+        {
+            if (i > 0 && starts[i] <= starts[i - 1])
+            {
+                throw new IllegalArgumentException("The pieces of a demand curve must be in order of time");
+            }
+            if (rates[i] < 0)
+            {
+                throw new IllegalArgumentException("The rate of a demand curve can't be negative");
+            }
+            this.rates[i] = rates[i] / 60000;
+            max = Math.max(max, this.rates[i]);
+        }
+        this.maxRate = max;
+    }
+
+    /**
+     * Creates a curve with the same rate all the time.
+     *
+     * @param rate passengers per minute
+     *
+     * @return the DemandCurve
+     */
+    public static DemandCurve constant(double rate)
+    {
+        return new DemandCurve(new long[]
+        {
+            0
+        }, new double[]
+        {
+            rate
+        });
+    }
+
+    /**
+     * Returns the rate at a certain time.
+     *
+     * @param time time since the start of the simulation (ms)
+     *
+     * @return passengers per ms
+     */
+    public double rateAt(long time)
+    {
+        return rates[piece(time)];
+    }
+
+    /**
+     * Returns the highest rate of the curve.
+     *
+     * @return passengers per ms
+     */
+    public double maxRate()
+    {
+        return maxRate;
+    }
+
+    /**
+     * Returns when the piece following the one at a certain time starts.
+     *
+     * @param time time since the start of the simulation (ms)
+     *
+     * @return the start of the next piece (ms), Long.MAX_VALUE if the piece
+     *         at that time is the last one
+     */
+    public long nextChange(long time)
+    {
+        int i = piece(time);
+        return i + 1 < starts.length ? starts[i + 1] : Long.MAX_VALUE;
+    }
+
+    /**
+     * Returns the number of passengers expected to show up until a certain
+     * time, the integral of the curve.
+     *
+     * @param until time since the start of the simulation (ms)
+     *
+     * @return the expected number of passengers
+     */
+    public double expected(long until)
+    {
+        double total = 0;
+        for (int i = 0; i < starts.length && starts[i] < until; i++)
+        {
+            long end = i + 1 < starts.length ? Math.min(starts[i + 1], until) : until;
+            total += rates[i] * (end - starts[i]);
+        }
+        return total;
+    }
+
+    /**
+     * Index of the piece at a certain time
+     */
+    private int piece(long time)
+    {
+        int i = Arrays.binarySearch(starts, time);
+        return i >= 0 ? i : -i - 2;
+    }
+}
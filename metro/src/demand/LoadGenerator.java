@@ -0,0 +1,292 @@
+package demand;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import pt.ua.gboard.basic.Position;
+
+/**
+ * General description: Open-loop generator of trips. When Pawns show up
+ * follows a DemandCurve, either as a Poisson process or evenly spaced, and
+ * where they go follows the weights of the Zones. Arrival times depend only on
+ * the seed and the demand, never on how long spawning a Pawn takes.
+ *
+ * A demand file holds one setting per line, '#' starting a comment:
+ * <pre>
+ * arrivals poisson|constant    how arrivals are spaced (default poisson)
+ * rate &lt;from-ms&gt; &lt;per-minute&gt;   a piece of the demand curve
+ * duration &lt;ms&gt;                when arrivals stop
+ * trips &lt;n&gt;                    most trips generated
+ * zones &lt;lines&gt; &lt;columns&gt;     the grid of zones the map is split into
+ * od &lt;from&gt; &lt;to&gt; &lt;weight&gt;     weight of the trips between two zones
+ * </pre>
+ * There must be a rate starting at 0 and a duration or a number of trips.
+ * With no od lines every pair of zones weighs the same.
+ *
+ * @author Tiago Madeira 76321
+ */
+public class LoadGenerator implements TripSource
+{
+
+    /**
+     * Internal data
+     */
+    private final Random random;
+    private final DemandCurve curve;
+    private final boolean poisson;
+    private final long duration;
+    private final long maxTrips;
+    private final Zones zones;
+    // Time of the last arrival (ms, fractional)
+    private double time = 0;
+    private long generated = 0;
+
+    /**
+     * Constructor
+     *
+     * @param seed     the seed of the scenario
+     * @param curve    the rate at which Pawns show up over time
+     * @param poisson  <code>true</code> for Poisson arrivals;
+     *                 <code>false</code> for evenly spaced ones
+     * @param duration when arrivals stop (ms), Long.MAX_VALUE for never
+     * @param maxTrips most trips generated, Long.MAX_VALUE for no limit
+     * @param zones    where trips start and end
+     */
+    public LoadGenerator(long seed, DemandCurve curve, boolean poisson, long duration, long maxTrips, Zones zones)
+    {
+        assert curve != null;
+        assert zones != null;
+        assert duration < Long.MAX_VALUE || maxTrips < Long.MAX_VALUE;
+        this.random = new Random(seed);
+        this.curve = curve;
+        this.poisson = poisson;
+        this.duration = duration;
+        this.maxTrips = maxTrips;
+        this.zones = zones;
+    }
+
+    /**
+     * Reads a demand file.
+     *
+     * @param file                 the demand file
+     * @param seed                 the seed of the scenario
+     * @param lines                number of lines of the map
+     * @param columns              number of columns of the map
+     * @param spawningPositions    the cells where Pawns may show up
+     * @param destinationPositions the cells Pawns may go to
+     *
+     * @return the LoadGenerator described by the file
+     *
+     * @throws IOException if the file can't be read or isn't valid
+     */
+    public static LoadGenerator load(Path file, long seed, int lines, int columns, Position[] spawningPositions,
+            Position[] destinationPositions) throws IOException
+    {
+        assert file != null;
+
+        boolean poisson = true;
+        List<Long> starts = new ArrayList<>();
+        List<Double> rates = new ArrayList<>();
+        long duration = Long.MAX_VALUE;
+        long maxTrips = Long.MAX_VALUE;
+        int zoneLines = 1;
+        int zoneColumns = 1;
+        List<double[]> od = new ArrayList<>();
+
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8))
+        {
+            String line;
+            int lineNumber = 0;
+            while ((line = in.readLine()) != null)
+            {
+                lineNumber++;
+                int comment = line.indexOf('#');
+                String[] fields = (comment >= 0 ? line.substring(0, comment) : line).trim().split("\\s+");
+                if (fields[0].isEmpty())
+                {
+                    continue;
+                }
+
+                try
+                {
+                    switch (fields[0] + "/" + fields.length)
+                    {
+                        case "arrivals/2":
+                            if (!fields[1].equals("poisson") && !fields[1].equals("constant"))
+                            {
+                                throw new IOException(file + ":" + lineNumber + ": unknown arrivals \"" + fields[1]
+                                        + "\"");
+                            }
+                            poisson = fields[1].equals("poisson");
+                            break;
+                        case "rate/3":
+                            starts.add(Long.parseLong(fields[1]));
+                            rates.add(Double.parseDouble(fields[2]));
+                            break;
+                        case "duration/2":
+                            duration = Long.parseLong(fields[1]);
+                            break;
+                        case "trips/2":
+                            maxTrips = Long.parseLong(fields[1]);
+                            break;
+                        case "zones/3":
+                            zoneLines = Integer.parseInt(fields[1]);
+                            zoneColumns = Integer.parseInt(fields[2]);
+                            if (zoneLines <= 0 || zoneLines > lines || zoneColumns <= 0 || zoneColumns > columns)
+                            {
+                                throw new IOException(file + ":" + lineNumber + ": invalid zones");
+                            }
+                            break;
+                        case "od/4":
+                            od.add(new double[]
+                            {
+                                Integer.parseInt(fields[1]), Integer.parseInt(fields[2]), Double.parseDouble(fields[3])
+                            });
+                            break;
+                        default:
+                            throw new IOException(file + ":" + lineNumber + ": invalid setting \"" + line.trim() + "\"");
+                    }
+                } catch (NumberFormatException e)
+                {
+                    throw new IOException(file + ":" + lineNumber + ": invalid number (" + e.getMessage() + ")");
+                }
+            }
+        }
+
+        if (duration == Long.MAX_VALUE && maxTrips == Long.MAX_VALUE)
+        {
+            throw new IOException(file + ": a duration or a number of trips is required");
+        }
+
+        double[][] weights = null;
+        if (!od.isEmpty())
+        {
+            int nrZones = zoneLines * zoneColumns;
+            weights = new double[nrZones][nrZones];
+            for (double[] pair : od)
+            {
+                int from = (int) pair[0];
+                int to = (int) pair[1];
+                if (from < 0 || from >= nrZones || to < 0 || to >= nrZones || pair[2] < 0)
+                {
+                    throw new IOException(file + ": invalid od " + from + " " + to + " " + pair[2]);
+                }
+                weights[from][to] = pair[2];
+            }
+        }
+
+        try
+        {
+            long[] startArray = new long[starts.size()];
+            double[] rateArray = new double[rates.size()];
+            for (int i = 0; i < startArray.length; i++)
+            {
+                startArray[i] = starts.get(i);
+                rateArray[i] = rates.get(i);
+            }
+            DemandCurve curve = new DemandCurve(startArray, rateArray);
+            Zones zones = new Zones(lines, columns, zoneLines, zoneColumns, weights, spawningPositions,
+                    destinationPositions);
+            return new LoadGenerator(seed, curve, poisson, duration, maxTrips, zones);
+        } catch (IllegalArgumentException e)
+        {
+            throw new IOException(file + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public Trip next()
+    {
+        if (generated == maxTrips || !advance())
+        {
+            return null;
+        }
+
+        Position[] od = zones.draw(random);
+        generated++;
+        return new Trip((long) time, od[0], od[1]);
+    }
+
+    @Override
+    public double requestedTrips(long until)
+    {
+        return curve.expected(Math.min(until, duration));
+    }
+
+    @Override
+    public void close()
+    {
+    }
+
+    /**
+     * Moves the time on to the next arrival
+     *
+     * @return <code>false</code> if there are no more arrivals
+     */
+    private boolean advance()
+    {
+        if (curve.maxRate() == 0)
+        {
+            return false;
+        }
+
+        // The first evenly spaced arrival is right at the start
+        boolean step = generated > 0;
+        while (time < duration)
+        {
+            if (poisson)
+            {
+                if (curve.rateAt((long) time) == 0)
+                {
+                    // No candidate would be kept until the rate changes
+                    long change = curve.nextChange((long) time);
+                    if (change == Long.MAX_VALUE)
+                    {
+                        return false;
+                    }
+                    time = change;
+                    continue;
+                }
+
+                // Thinning: candidates at the highest rate, kept in
+                // proportion to the rate at their time
+                time += -Math.log(1 - random.nextDouble()) / curve.maxRate();
+                if (time < duration && random.nextDouble() * curve.maxRate() < curve.rateAt((long) time))
+                {
+                    return true;
+                }
+                continue;
+            }
+
+            double rate = curve.rateAt((long) time);
+            if (rate == 0)
+            {
+                // Nobody shows up until the rate changes
+                long change = curve.nextChange((long) time);
+                if (change == Long.MAX_VALUE)
+                {
+                    return false;
+                }
+                time = change;
+                step = false;
+                continue;
+            }
+            if (step)
+            {
+                time += 1 / rate;
+                step = false;
+                if (curve.rateAt((long) time) == 0)
+                {
+                    continue;
+                }
+            }
+            return time < duration;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,77 @@
+package demand;
+
+import java.util.Random;
+import pt.ua.gboard.basic.Position;
+
+/**
+ * General description: Trips generated from a seed: Pawns show up at a fixed
+ * rate, each at a random cell going to another random cell. The same seed and
+ * positions always give the same trips.
+ *
+ * @author Tiago Madeira 76321
+ */
+public class RandomTrips implements TripSource
+{
+
+    /**
+     * Internal data
+     */
+    private final Random random;
+    private final int count;
+    private final int rate;
+    private final Position[] spawningPositions;
+    private final Position[] destinationPositions;
+    private int generated = 0;
+
+    /**
+     * Constructor
+     *
+     * @param seed                 the seed of the scenario
+     * @param count                the number of trips
+     * @param rate                 the time between two Pawns showing up (ms)
+     * @param spawningPositions    the cells where Pawns may show up
+     * @param destinationPositions the cells Pawns may go to
+     */
+    public RandomTrips(long seed, int count, int rate, Position[] spawningPositions, Position[] destinationPositions)
+    {
+        assert count >= 0;
+        assert rate >= 0;
+        assert spawningPositions != null && spawningPositions.length > 0;
+        assert destinationPositions != null && destinationPositions.length > 0;
+        this.random = new Random(seed);
+        this.count = count;
+        this.rate = rate;
+        this.spawningPositions = spawningPositions.clone();
+        this.destinationPositions = destinationPositions.clone();
+    }
+
+    @Override
+    public Trip next()
+    {
+        if (generated == count)
+        {
+            return null;
+        }
+
+        Position start = spawningPositions[random.nextInt(spawningPositions.length)];
+        Position destination = destinationPositions[random.nextInt(destinationPositions.length)];
+        Trip trip = new Trip((long) generated * rate, start, destination);
+        generated++;
+        return trip;
+    }
+
+    @Override
+    public double requestedTrips(long until)
+    {
+        if (until < 0)
+        {
+            return 0;
+        }
+        return rate == 0 ? count : Math.min(count, until / rate + 1);
+    }
+
+    @Override
+    public void close()
+    {
+    }
+}
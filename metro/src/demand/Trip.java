@@ -0,0 +1,68 @@
+package demand;
+
+import pt.ua.gboard.basic.Position;
+
+/**
+ * General description: A passenger's trip as demanded of the metro: when the
+ * Pawn shows up, where and where it's going.
+ *
+ * @author Tiago Madeira 76321
+ */
+public class Trip
+{
+
+    /**
+     * Internal data
+     */
+    private final long spawnTime;
+    private final Position start;
+    private final Position destination;
+
+    /**
+     * Constructor
+     *
+     * @param spawnTime   when the Pawn shows up, since the start of the
+     *                    simulation (ms)
+     * @param start       the cell where the Pawn shows up
+     * @param destination the cell the Pawn is going to
+     */
+    public Trip(long spawnTime, Position start, Position destination)
+    {
+        assert spawnTime >= 0;
+        assert start != null;
+        assert destination != null;
+        this.spawnTime = spawnTime;
+        this.start = start;
+        this.destination = destination;
+    }
+
+    /**
+     * Returns when the Pawn shows up.
+     *
+     * @return the time since the start of the simulation (ms)
+     */
+    public long getSpawnTime()
+    {
+        return spawnTime;
+    }
+
+    /**
+     * Returns where the Pawn shows up.
+     *
+     * @return the Position of the starting cell
+     */
+    public Position getStart()
+    {
+        return start;
+    }
+
+    /**
+     * Returns where the Pawn is going.
+     *
+     * @return the Position of the destination cell
+     */
+    public Position getDestination()
+    {
+        return destination;
+    }
+}
@@ -0,0 +1,193 @@
+package demand;
+
+import grid.MapIndex;
+import grid.TextGrid;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import pt.ua.gboard.basic.Position;
+
+/**
+ * General description: A list of trips kept in a text file, read one line at
+ * a time so that it may hold any number of them. Each line holds a trip: its
+ * spawn time (ms), the line and column of its start and the line and column
+ * of its destination, separated by spaces. Lines starting with '#' and blank
+ * lines are skipped. Trips must be in order of spawn time and, when read for
+ * a map, start and end on walkable cells of it.
+ *
+ * @author Tiago Madeira 76321
+ */
+public class TripFile implements TripSource
+{
+
+    /**
+     * Internal data
+     */
+    private final BufferedReader in;
+    private final Path file;
+    private final MapIndex map;
+    private int lineNumber = 0;
+    private long lastSpawnTime = 0;
+
+    /**
+     * Constructor
+     *
+     * @param file the trip file to read
+     *
+     * @throws IOException if the file can't be opened
+     */
+    public TripFile(Path file) throws IOException
+    {
+        this(file, null);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param file the trip file to read
+     * @param map  the index of the map the trips are on, null to take any
+     *             cell
+     *
+     * @throws IOException if the file can't be opened
+     */
+    public TripFile(Path file, MapIndex map) throws IOException
+    {
+        assert file != null;
+        this.file = file;
+        this.map = map;
+        this.in = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public Trip next() throws IOException
+    {
+        String line;
+        do
+        {
+            line = in.readLine();
+            if (line == null)
+            {
+                return null;
+            }
+            lineNumber++;
+            line = line.trim();
+        } while (line.isEmpty() || line.startsWith("#"));
+
+        String[] fields = line.split("\\s+");
+        if (fields.length != 5)
+        {
+            throw invalid("expected 5 fields, found " + fields.length);
+        }
+
+        try
+        {
+            long spawnTime = Long.parseLong(fields[0]);
+            if (spawnTime < lastSpawnTime)
+            {
+                throw invalid("trips out of order");
+            }
+            lastSpawnTime = spawnTime;
+            Position start = new Position(Integer.parseInt(fields[1]), Integer.parseInt(fields[2]));
+            Position destination = new Position(Integer.parseInt(fields[3]), Integer.parseInt(fields[4]));
+            checkWalkable("start", start);
+            checkWalkable("destination", destination);
+            return new Trip(spawnTime, start, destination);
+        } catch (NumberFormatException e)
+        {
+            throw invalid(e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        in.close();
+    }
+
+    /**
+     * Writes every trip of a source to a trip file.
+     *
+     * @param file   the file to write, replaced if it exists
+     * @param trips  the trips to write
+     * @param header comment written at the top of the file, may be null
+     *
+     * @return the number of trips written
+     *
+     * @throws IOException if the file can't be written or the trips read
+     */
+    public static int write(Path file, TripSource trips, String header) throws IOException
+    {
+        assert file != null;
+        assert trips != null;
+
+        int count = 0;
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8))
+        {
+            if (header != null)
+            {
+                out.write("# " + header);
+                out.newLine();
+            }
+
+            Trip trip;
+            while ((trip = trips.next()) != null)
+            {
+                out.write(trip.getSpawnTime() + " " + trip.getStart().line() + " " + trip.getStart().column() + " "
+                        + trip.getDestination().line() + " " + trip.getDestination().column());
+                out.newLine();
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Checks that a cell of a trip is walkable on the map, if there's one
+     */
+    private void checkWalkable(String what, Position pos) throws IOException
+    {
+        if (map != null && !map.isWalkable(pos))
+        {
+            throw invalid(what + " (" + pos.line() + ", " + pos.column() + ") isn't a walkable cell of the map");
+        }
+    }
+
+    /**
+     * Creates the error for a line which isn't a trip
+     */
+    private IOException invalid(String reason)
+    {
+        return new IOException(file + ":" + lineNumber + ": invalid trip (" + reason + ")");
+    }
+
+    /**
+     * Generates the trips of a seeded scenario on a map and writes them to a
+     * trip file, to be replayed with --trips.
+     *
+     * @param args map file, seed, number of trips, time between trips (ms)
+     *             and trip file to write
+     */
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length != 5)
+        {
+            System.out.println("Usage: TripFile <map-file> <seed> <trips> <rate-ms> <trip-file>");
+            System.exit(1);
+        }
+
+        TextGrid grid = TextGrid.load(args[0]);
+        long seed = Long.parseLong(args[1]);
+        int count = Integer.parseInt(args[2]);
+        int rate = Integer.parseInt(args[3]);
+
+        // Same cells Pawns spawn at and walk to as given by the MetroMap
+        MapIndex index = new MapIndex(grid);
+        TripSource trips = new RandomTrips(seed, count, rate, index.positions(' ', 'X'), index.positions(' '));
+        int written = write(Path.of(args[4]), trips, "map " + args[0] + ", seed " + seed + ", " + count
+                + " trips every " + rate + " ms");
+        System.out.println(written + " trips written to " + args[4]);
+    }
+}
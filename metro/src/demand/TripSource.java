@@ -0,0 +1,38 @@
+package demand;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * General description: Where the trips of a simulation come from. Trips are
+ * handed out one at a time, in order of spawn time, so that no source needs
+ * to hold all of them at once.
+ *
+ * @author Tiago Madeira 76321
+ */
+public interface TripSource extends Closeable
+{
+
+    /**
+     * Returns the next trip.
+     *
+     * @return the Trip with the earliest spawn time not yet handed out, or
+     *         null if there are no more
+     *
+     * @throws IOException if the trip can't be read
+     */
+    Trip next() throws IOException;
+
+    /**
+     * Returns how many trips were asked to start until a certain time, which
+     * the trips handed out may differ from when they're drawn at random.
+     *
+     * @param until time since the start of the simulation (ms)
+     *
+     * @return the number of trips requested, or -1 if not known
+     */
+    default double requestedTrips(long until)
+    {
+        return -1;
+    }
+}
@@ -0,0 +1,166 @@
+package demand;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import pt.ua.gboard.basic.Position;
+
+/**
+ * General description: The map split into a grid of equally sized zones,
+ * numbered line by line, with a weight for the trips from each zone to each
+ * other. A trip is drawn by picking a pair of zones in proportion to its
+ * weight, then a random cell of each zone.
+ *
+ * @author Tiago Madeira 76321
+ */
+public class Zones
+{
+
+    /**
+     * Internal data
+     */
+    private final int zoneLines;
+    private final int zoneColumns;
+    // Cells Pawns may show up at and go to in each zone
+    private final Position[][] spawning;
+    private final Position[][] destinations;
+    // Pairs of zones with some weight and their cumulative weights
+    private final int[] origins;
+    private final int[] targets;
+    private final double[] cumulative;
+
+    /**
+     * Constructor
+     *
+     * @param lines                number of lines of the map
+     * @param columns              number of columns of the map
+     * @param zoneLines            number of lines of zones
+     * @param zoneColumns          number of columns of zones
+     * @param weights              weight of the trips from each zone (first
+     *                             index) to each zone (second index), null
+     *                             for the same weight for every pair
+     * @param spawningPositions    the cells where Pawns may show up
+     * @param destinationPositions the cells Pawns may go to
+     *
+     * @throws IllegalArgumentException if no trip can be drawn: every pair
+     *                                  with some weight has a zone without
+     *                                  cells to use
+     */
+    public Zones(int lines, int columns, int zoneLines, int zoneColumns, double[][] weights,
+            Position[] spawningPositions, Position[] destinationPositions)
+    {
+        assert zoneLines > 0 && zoneLines <= lines;
+        assert zoneColumns > 0 && zoneColumns <= columns;
+        assert spawningPositions != null;
+        assert destinationPositions != null;
+
+        this.zoneLines = zoneLines;
+        this.zoneColumns = zoneColumns;
+        int nrZones = zoneLines * zoneColumns;
+        assert weights == null || weights.length == nrZones;
+
+        spawning = split(spawningPositions, lines, columns);
+        destinations = split(destinationPositions, lines, columns);
+
+        List<int[]> pairs = new ArrayList<>();
+        List<Double> pairWeights = new ArrayList<>();
+        for (int from = 0; from < nrZones; from++)
+        {
+            for (int to = 0; to < nrZones; to++)
+            {
+                double weight = weights == null ? 1 : weights[from][to];
+                if (weight > 0 && spawning[from].length > 0 && destinations[to].length > 0)
+                {
+                    pairs.add(new int[]
+                    {
+                        from, to
+                    });
+                    pairWeights.add(weight);
+                }
+            }
+        }
+        if (pairs.isEmpty())
+        {
+            throw new IllegalArgumentException("No pair of zones with weight has cells to travel between");
+        }
+
+        origins = new int[pairs.size()];
+        targets = new int[pairs.size()];
+        cumulative = new double[pairs.size()];
+        double total = 0;
+        for (int i = 0; i < pairs.size(); i++)
+        {
+            origins[i] = pairs.get(i)[0];
+            targets[i] = pairs.get(i)[1];
+            total += pairWeights.get(i);
+            cumulative[i] = total;
+        }
+    }
+
+    /**
+     * Returns the number of zones.
+     *
+     * @return the number of zones of the map
+     */
+    public int size()
+    {
+        return zoneLines * zoneColumns;
+    }
+
+    /**
+     * Draws the start and destination of a trip.
+     *
+     * @param random the source of randomness
+     *
+     * @return an array with the start and the destination Positions
+     */
+    public Position[] draw(Random random)
+    {
+        double r = random.nextDouble() * cumulative[cumulative.length - 1];
+        int lo = 0;
+        int hi = cumulative.length - 1;
+        while (lo < hi)
+        {
+            int mid = (lo + hi) >>> 1;
+            if (cumulative[mid] <= r)
+            {
+                lo = mid + 1;
+            } else
+            {
+                hi = mid;
+            }
+        }
+
+        Position[] from = spawning[origins[lo]];
+        Position[] to = destinations[targets[lo]];
+        return new Position[]
+        {
+            from[random.nextInt(from.length)], to[random.nextInt(to.length)]
+        };
+    }
+
+    /**
+     * Splits cells into the zones they're in
+     */
+    private Position[][] split(Position[] positions, int lines, int columns)
+    {
+        int nrZones = zoneLines * zoneColumns;
+        List<List<Position>> byZone = new ArrayList<>(nrZones);
+        for (int z = 0; z < nrZones; z++)
+        {
+            byZone.add(new ArrayList<>());
+        }
+        for (Position pos : positions)
+        {
+            int zone = pos.line() * zoneLines / lines * zoneColumns + pos.column() * zoneColumns / columns;
+            byZone.get(zone).add(pos);
+        }
+
+        Position[][] zones = new Position[nrZones][];
+        for (int z = 0; z < nrZones; z++)
+        {
+            zones[z] = byZone.get(z).toArray(new Position[0]);
+        }
+        return zones;
+    }
+}
@@ -1,8 +1,13 @@
 package entities;
 
+import config.Pace;
 import regions.Train;
 import pt.ua.gboard.GBoard;
 import regions.Station;
+import metrics.Latencies;
+import metrics.Phase;
+import jfr.TrainRunEvent;
+import jfr.TrainStopEvent;
 
 /**
  * General description: definition of the Conductor.
@@ -36,21 +41,44 @@ public class Conductor extends Thread
     @Override
     public void run()
     {
+        // Run from the last station stopped at
+        TrainRunEvent run = new TrainRunEvent();
+        run.begin();
+        Station lastStation = null;
+        int moves = 0;
+
         while (true)
         {
             train.move();
-            GBoard.sleep(100);
+            GBoard.sleep((int) Pace.TRAIN_STEP_TIME);
+            moves++;
 
             Station currStation = train.getCurrentStation();
 
             if (currStation != null)
             {
+                long arrival = System.nanoTime();
+                if (lastStation != null)
+                {
+                    run.commit(lastStation, currStation, getName(), moves);
+                }
+                TrainStopEvent stop = new TrainStopEvent();
+                stop.begin();
+
                 // let passengers leave the train
                 train.letPassengersOffTheTrain(currStation);
 
                 // let passengers into the train
-                currStation.letPassengersIntoTrain();
-                GBoard.sleep(200);
+                currStation.letPassengersIntoTrain(train);
+                GBoard.sleep((int) Pace.DWELL_TIME);
+
+                Latencies.record(Phase.DWELL, currStation, (System.nanoTime() - arrival) / 1000);
+                stop.commit(currStation, getName(), train);
+
+                run = new TrainRunEvent();
+                run.begin();
+                lastStation = currStation;
+                moves = 0;
             }
         }
     }
@@ -1,61 +1,97 @@
 package entities;
 
-import static java.lang.System.err;
+import config.Pace;
+import grid.Grid;
+import java.util.Random;
 import java.util.concurrent.ThreadLocalRandom;
+import log.EventLog;
+import log.EventType;
+import metrics.Latencies;
+import metrics.Phase;
 import pt.ua.gboard.GBoard;
 import pt.ua.gboard.basic.Position;
+import regions.Journey;
 import regions.MetroMap;
-import pt.ua.gboard.Gelem;
-import pt.ua.gboard.basic.CircleGelem;
-import pt.ua.gboard.games.Labyrinth;
 import regions.Station;
 import regions.Train;
+import regions.WalkingField;
+import render.Renderer;
+import render.Sprite;
 
 /**
- * General description: definition of the Pawn.
+ * General description: definition of the Pawn. A passenger's trip, which may
+ * be run on either a platform or a virtual thread.
  *
  * @author Tiago Madeira 76321
  */
-public class Pawn extends Thread
+public class Pawn implements Runnable
 {
 
     /**
      * Internal data
      */
+    private String name;
     private Position startPos;
     private Position destinationPos;
+    private Journey journey;
     private MetroMap metroMap;
-    private Labyrinth metro;
-    private GBoard board;
+    private Grid metro;
+    private Renderer renderer;
     private int l, c;
     private int layer;
     private int N;
-    private Gelem pawnGelem;
+    private Sprite pawnSprite;
     private int wallet;
     private char ticket = '0';
+    // Walking field toward the current target and the step being taken
+    private Position walkingTarget;
+    private WalkingField walkingField;
+    private int stepL, stepC;
 
     /**
      * Constructor
      *
-     * @param name     Pawn thread name
-     * @param board    GBoard object
+     * @param name     Pawn name
+     * @param renderer the Renderer used to draw the pawn
      * @param metroMap the information centre of the map
-     * @param metro    Labyrinth object
+     * @param metro    the map Grid
      * @param N        the cell size used in the visual representation
-     * @param layer    the layer in which to draw the pawn Gelem
+     * @param layer    the layer in which to draw the pawn Sprite
      */
-    public Pawn(String name, GBoard board, MetroMap metroMap, Labyrinth metro, int N, int layer)
+    public Pawn(String name, Renderer renderer, MetroMap metroMap, Grid metro, int N, int layer)
     {
-        super(name);
+        this(name, renderer, metroMap, metro, N, layer, metroMap.getRandomSpawningPosition(ThreadLocalRandom.current()),
+                metroMap.getRandomDestinyPosition(ThreadLocalRandom.current()));
+    }
+
+    /**
+     * Constructor
+     *
+     * @param name           Pawn name
+     * @param renderer       the Renderer used to draw the pawn
+     * @param metroMap       the information centre of the map
+     * @param metro          the map Grid
+     * @param N              the cell size used in the visual representation
+     * @param layer          the layer in which to draw the pawn Sprite
+     * @param startPos       the cell where the pawn shows up
+     * @param destinationPos the cell the pawn is going to
+     */
+    public Pawn(String name, Renderer renderer, MetroMap metroMap, Grid metro, int N, int layer,
+            Position startPos, Position destinationPos)
+    {
+        assert name != null;
         assert metroMap != null;
-        assert board != null;
+        assert renderer != null;
         assert metro != null;
-        this.board = board;
+        assert startPos != null;
+        assert destinationPos != null;
+        this.name = name;
+        this.renderer = renderer;
         this.metroMap = metroMap;
         this.metro = metro;
         this.N = N;
-        startPos = getRandomRoadPosition(metroMap.getSpawningPositions());
-        destinationPos = getRandomRoadPosition(metroMap.getDestinyPositions());
+        this.startPos = startPos;
+        this.destinationPos = destinationPos;
 
         l = startPos.line() * N;
         c = startPos.column() * N;
@@ -69,78 +105,168 @@ public class Pawn extends Thread
     @Override
     public void run()
     {
-        // Randomize the color of the pawn
-        float H = (float) ThreadLocalRandom.current().nextDouble(0, 6);
-        float S = (float) ThreadLocalRandom.current().nextDouble(0, 1);
-        float B = (float) ThreadLocalRandom.current().nextDouble(0, 1);
-        java.awt.Color pawnColor = java.awt.Color.getHSBColor(H, S, B);
+        Journey journey = appear();
+        long time = System.nanoTime();
 
-        // Create sprite
-        pawnGelem = new CircleGelem(pawnColor, 100, 1, 1);
+        for (int leg = 0; leg < journey.getNumberOfLegs(); leg++)
+        {
+            Station getOnStation = journey.getBoardingStation(leg);
+            Station getOffStation = journey.getAlightingStation(leg);
 
-        // Bring sprite to life
-        board.draw(pawnGelem, l, c, layer);
+            while (walkToStation(getOnStation))
+            {
+                GBoard.sleep((int) Pace.WALK_STEP_TIME);
+            }
+            time = lap(Phase.WALK_TO_STATION, getOnStation, time);
 
-        // Mark X on destination
-        metro.putRoadSymbol(destinationPos.line(), destinationPos.column(), 'X');
+            // Buy ticket
+            getOnStation.buyTicket(this);
+            time = lap(Phase.BUY_TICKET, getOnStation, time);
+
+            // Sleep waiting for train at station
+            Train t = getOnStation.waitForTrain();
+            time = lap(Phase.WAIT_FOR_TRAIN, getOnStation, time);
+
+            // Pawn went into the train
+            enterTrain();
+
+            // Show the ticket to the inspector
+            t.showTicket(this);
 
-        // Get the stations in the path
-        Station[] stations = metroMap.getPathStations(startPos, destinationPos);
+            // Get on the train
+            t.getOn();
 
-        while (notAtTarget(stations[0].getLocation()))
+            // Sleep inside train until reaching the station to get off
+            t.waitForStop(getOffStation);
+            arriveAt(getOffStation);
+
+            // Get off the train at the end of the leg
+            t.getOff();
+            //System.out.print("I'm out the train!");
+            time = lap(Phase.RIDE, getOnStation, time);
+
+            leaveTrain();
+        }
+
+        // Move to the target
+        while (walkToDestination())
         {
-            move(stations[0].getLocation());
-            GBoard.sleep(100);
+            GBoard.sleep((int) Pace.WALK_STEP_TIME);
         }
+        lap(Phase.WALK_TO_DESTINATION, journey.getAlightingStation(journey.getNumberOfLegs() - 1), time);
+
+        disappear();
+    }
 
-        // Buy ticket
-        stations[0].buyTicket();
+    ///////////////////////////////////////////////////////////////////////
+    // Stages of the trip
+    /**
+     * Shows up on the map, marks the destination and asks the information
+     * centre for a journey.
+     *
+     * @return the Journey to make
+     */
+    public Journey appear()
+    {
+        // Randomize the color of the pawn, always the same for the same name
+        Random random = new Random(name.hashCode());
+        float H = (float) (random.nextDouble() * 6);
+        float S = (float) random.nextDouble();
+        float B = (float) random.nextDouble();
+        java.awt.Color pawnColor = java.awt.Color.getHSBColor(H, S, B);
 
-        // Sleep waiting for train at station
-        Train t = stations[0].waitForTrain();
+        // Create sprite
+        pawnSprite = renderer.circle(pawnColor, 1, 1);
 
-        // Pawn went into the train
-        board.erase(pawnGelem, l, c, layer);
+        // Bring sprite to life
+        renderer.draw(pawnSprite, l, c, layer);
 
-        // Show the ticket to the inspector
-        t.showTicket();
+        // Mark X on destination
+        metro.putRoadSymbol(destinationPos.line(), destinationPos.column(), 'X');
 
-        // Get on the train
-        t.getOn();
+        // Plan the journey
+        journey = metroMap.planJourney(startPos, destinationPos);
 
-        // Sleep inside train
-        Station currStation = t.waitForStop();
-        l = currStation.getLocation().line() * N;
-        c = currStation.getLocation().column() * N;
+        return journey;
+    }
 
-        // Wake up every station, update position, and go back to sleep
-        while (!stations[1].equals(currStation))
-        {
-            currStation = t.waitForStop();
-            l = currStation.getLocation().line() * N;
-            c = currStation.getLocation().column() * N;
-        }
+    /**
+     * Takes one step toward a station where a leg of the journey starts.
+     *
+     * @param s the Station to walk to
+     *
+     * @return <code>true</code> if a step was taken; <code>false</code> if
+     *         the Pawn was already at the station
+     */
+    public boolean walkToStation(Station s)
+    {
+        assert s != null;
 
-        // Get off the train at destiny station
-        t.getOff();
-        //System.out.print("I'm out the train!");
+        return walkTowards(s.getLocation());
+    }
+
+    /**
+     * Goes into the train, vanishing from the map.
+     */
+    public void enterTrain()
+    {
+        renderer.erase(pawnSprite, l, c, layer);
+    }
 
+    /**
+     * Updates the position of the Pawn to the station reached by its train.
+     *
+     * @param s the Station reached
+     */
+    public void arriveAt(Station s)
+    {
+        assert s != null;
+
+        l = s.getLocation().line() * N;
+        c = s.getLocation().column() * N;
+    }
+
+    /**
+     * Leaves the train, showing up again on the map.
+     */
+    public void leaveTrain()
+    {
         // Bring sprite back
-        board.draw(pawnGelem, l, c, layer);
+        renderer.draw(pawnSprite, l, c, layer);
+    }
 
-        // Move to the target
-        while (notAtTarget(destinationPos))
-        {
-            move(destinationPos);
-            GBoard.sleep(100);
-        }
+    /**
+     * Takes one step toward the destination of the trip.
+     *
+     * @return <code>true</code> if a step was taken; <code>false</code> if
+     *         the Pawn was already at the destination
+     */
+    public boolean walkToDestination()
+    {
+        return walkTowards(destinationPos);
+    }
 
-        System.out.println(this.getName() + ": I have arrived at my destination!\n");
+    /**
+     * Ends the trip, leaving the map and unmarking the destination.
+     */
+    public void disappear()
+    {
+        EventLog.publish(EventType.ARRIVED, this.getName(), ' ', 0, 0);
 
         // Unmark X on destination
         metro.putRoadSymbol(destinationPos.line(), destinationPos.column(), ' ');
 
-        board.erase(pawnGelem, l, c, layer);
+        renderer.erase(pawnSprite, l, c, layer);
+    }
+
+    /**
+     * Returns the name of the Pawn.
+     *
+     * @return a String with the name of the Pawn.
+     */
+    public String getName()
+    {
+        return this.name;
     }
 
     /**
@@ -148,7 +274,7 @@ public class Pawn extends Thread
      *
      * @return an integer representing the amount of money in the wallet.
      */
-    public int getWalletValue()
+    public synchronized int getWalletValue()
     {
         return this.wallet;
     }
@@ -160,7 +286,7 @@ public class Pawn extends Thread
      * @param transaction amount of money gained or lost. positive if gained;
      *                    negative if lost.
      */
-    public void updateWalletValue(int transaction)
+    public synchronized void updateWalletValue(int transaction)
     {
         wallet = wallet + transaction;
     }
@@ -198,83 +324,65 @@ public class Pawn extends Thread
     }
 
     /**
-     * Checks if the Pawn is currently not at a target location.
+     * Moves the Pawn one step closer to a target location, unless it's already
+     * there.
      */
-    private boolean notAtTarget(Position target)
+    private boolean walkTowards(Position target)
     {
         assert target != null;
 
-        Position targetPos = new Position(target.line(), target.column());
-        Position currPos = new Position(l / N, c / N);
-        double d = distance(currPos, targetPos);
+        if (l == target.line() * N && c == target.column() * N)
+        {
+            return false;
+        }
 
-        return d > 0;
+        move(target);
+        return true;
     }
 
     /**
-     * Moves the Pawn one step closer to a target location. Makes the decision
-     * based on an euclidean distance heuristic.
-     *
-     * @param target
+     * Moves the Pawn one step closer to a target location. On reaching a cell,
+     * looks up the way to the next one in the walking field shared by every
+     * Pawn going to the same target. If the target can't be reached on foot,
+     * walks straight at it.
      */
     private void move(Position target)
     {
-        assert target != null;
-
-        Position targetPos = new Position(target.line() * N, target.column() * N);
-        Position currPos = new Position(l, c);
-        double d = distance(currPos, targetPos);
-        // System.out.println("Distance to target is: " + d);
-        Position nextPosition = null;
-
-        Position[] possibleMoves = new Position[4];
-        possibleMoves[0] = new Position(l + 1, c);
-        possibleMoves[1] = new Position(l, c + 1);
-        possibleMoves[2] = new Position(l - 1, c);
-        possibleMoves[3] = new Position(l, c - 1);
-
-        for (int i = 0; i < 4; i++)
+        if (l % N == 0 && c % N == 0)
         {
-            double tmpDist = distance(possibleMoves[i], targetPos);
-            if (tmpDist < d)//&& metro.roadSymbol(possibleMoves[i].line() / N, possibleMoves[i].column() / N) == ' '
+            if (walkingTarget == null || walkingTarget.line() != target.line()
+                    || walkingTarget.column() != target.column())
             {
-                d = tmpDist;
-                nextPosition = possibleMoves[i];
+                walkingField = metroMap.getWalkingField(target);
+                walkingTarget = target;
             }
-        }
 
-        if (nextPosition != null)
-        {
-            board.move(pawnGelem, l, c, nextPosition.line(), nextPosition.column());
-            this.l = nextPosition.line();
-            this.c = nextPosition.column();
-        } else
-        {
-            err.println("Don't know how to reach the station!");
-            Thread.currentThread().interrupt();
+            int line = l / N;
+            int column = c / N;
+            stepL = walkingField.stepLine(line, column);
+            stepC = walkingField.stepColumn(line, column);
+            if (stepL == 0 && stepC == 0)
+            {
+                stepL = Integer.signum(target.line() - line);
+                stepC = stepL == 0 ? Integer.signum(target.column() - column) : 0;
+            }
         }
-    }
 
-    /**
-     * Returns a random position from the possible walking positions.
-     */
-    private Position getRandomRoadPosition(Position[] walkingPos)
-    {
-        assert walkingPos != null;
-
-        int idx = ThreadLocalRandom.current().nextInt(0, walkingPos.length);
-        return walkingPos[idx];
+        renderer.move(pawnSprite, l, c, l + stepL, c + stepC);
+        l += stepL;
+        c += stepC;
     }
 
     /**
-     * Calculated the euclidean distance between two Positions.
+     * Records how long a phase of the trip took at a station.
+     *
+     * @return the time the phase ended (ns)
      */
-    private double distance(Position pos1, Position pos2)
+    private long lap(Phase phase, Station s, long since)
     {
-        int x = Math.abs(pos1.column() - pos2.column());
-        int y = Math.abs(pos1.line() - pos2.line());
-
-        return Math.sqrt(x * x + y * y);
+        long now = System.nanoTime();
+        Latencies.record(phase, s, (now - since) / 1000);
+        return now;
     }
 
 }
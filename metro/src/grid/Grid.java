@@ -0,0 +1,55 @@
+package grid;
+
+import pt.ua.gboard.basic.Position;
+
+/**
+ * General description: Definition of the map grid. The symbols of each cell
+ * of the map, as read from the map file.
+ *
+ * @author Tiago Madeira 76321
+ */
+public interface Grid
+{
+
+    /**
+     * Returns the number of lines of the map
+     *
+     * @return an integer representing the number of lines of the map
+     */
+    int numberOfLines();
+
+    /**
+     * Returns the number of columns of the map
+     *
+     * @return an integer representing the number of columns of the map
+     */
+    int numberOfColumns();
+
+    /**
+     * Returns the symbol at a certain cell of the map
+     *
+     * @param line   line of the cell
+     * @param column column of the cell
+     *
+     * @return the char at the given cell
+     */
+    char roadSymbol(int line, int column);
+
+    /**
+     * Replaces the symbol at a certain cell of the map
+     *
+     * @param line   line of the cell
+     * @param column column of the cell
+     * @param symbol the new symbol of the cell
+     */
+    void putRoadSymbol(int line, int column, char symbol);
+
+    /**
+     * Returns every position of the map holding a certain symbol, line by line
+     *
+     * @param symbol the symbol to look for
+     *
+     * @return an array of Positions holding the symbol
+     */
+    Position[] symbolPositions(char symbol);
+}
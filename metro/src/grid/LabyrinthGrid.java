@@ -0,0 +1,60 @@
+package grid;
+
+import pt.ua.gboard.basic.Position;
+import pt.ua.gboard.games.Labyrinth;
+
+/**
+ * General description: Grid backed by a GBoard Labyrinth. Changes to the
+ * symbols are shown in the Labyrinth window.
+ *
+ * @author Tiago Madeira 76321
+ */
+public class LabyrinthGrid implements Grid
+{
+
+    /**
+     * Internal data
+     */
+    private Labyrinth metro;
+
+    /**
+     * Constructor
+     *
+     * @param metro Labyrinth object
+     */
+    public LabyrinthGrid(Labyrinth metro)
+    {
+        assert metro != null;
+        this.metro = metro;
+    }
+
+    @Override
+    public int numberOfLines()
+    {
+        return metro.numberOfLines;
+    }
+
+    @Override
+    public int numberOfColumns()
+    {
+        return metro.numberOfColumns;
+    }
+
+    @Override
+    public char roadSymbol(int line, int column)
+    {
+        return metro.roadSymbol(line, column);
+    }
+
+    @Override
+    public void putRoadSymbol(int line, int column, char symbol)
+    {
+        metro.putRoadSymbol(line, column, symbol);
+    }
+
+    @Override
+    public Position[] symbolPositions(char symbol)
+    {
+        return metro.symbolPositions(symbol);
+    }
+}
@@ -0,0 +1,316 @@
+package grid;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import pt.ua.gboard.basic.Position;
+
+/**
+ * General description: Where each symbol is in a map, as loaded. Built in a
+ * single pass over the Grid, so that the cells of a symbol are looked up
+ * rather than searched for. Each cell is packed into an int, line times the
+ * number of columns plus column, and the cells of each symbol are kept in an
+ * int array, line by line.
+ *
+ * Symbols put on the Grid afterwards aren't seen: the index is meant for what
+ * never changes, the tracks, stations and walkable cells of the map.
+ *
+ * @author Tiago Madeira 76321
+ */
+public class MapIndex
+{
+
+    /**
+     * Cells of a symbol which isn't on the map
+     */
+    private static final int[] NONE = new int[0];
+
+    /**
+     * Internal data
+     */
+    private final int numberOfLines;
+    private final int numberOfColumns;
+    // Symbol of each cell, packed
+    private final char[] symbols;
+    private final Map<Character, int[]> cellsBySymbol = new HashMap<>();
+
+    /**
+     * Constructor
+     *
+     * @param grid the map Grid to index
+     */
+    public MapIndex(Grid grid)
+    {
+        assert grid != null;
+
+        numberOfLines = grid.numberOfLines();
+        numberOfColumns = grid.numberOfColumns();
+
+        // The only pass over the grid, counting each symbol as it goes
+        symbols = new char[numberOfLines * numberOfColumns];
+        int[] counts = new int[Character.MAX_VALUE + 1];
+        for (int l = 0; l < numberOfLines; l++)
+        {
+            for (int c = 0; c < numberOfColumns; c++)
+            {
+                char symbol = grid.roadSymbol(l, c);
+                symbols[l * numberOfColumns + c] = symbol;
+                counts[symbol]++;
+            }
+        }
+
+        int[][] tables = new int[counts.length][];
+        for (int cell = 0; cell < symbols.length; cell++)
+        {
+            char symbol = symbols[cell];
+            int[] table = tables[symbol];
+            if (table == null)
+            {
+                table = new int[counts[symbol]];
+                tables[symbol] = table;
+                cellsBySymbol.put(symbol, table);
+                counts[symbol] = 0;
+            }
+            table[counts[symbol]++] = cell;
+        }
+    }
+
+    /**
+     * Returns the number of lines of the map
+     *
+     * @return the number of lines
+     */
+    public int numberOfLines()
+    {
+        return numberOfLines;
+    }
+
+    /**
+     * Returns the number of columns of the map
+     *
+     * @return the number of columns
+     */
+    public int numberOfColumns()
+    {
+        return numberOfColumns;
+    }
+
+    /**
+     * Returns the cells holding a symbol, packed, line by line. The array is
+     * the index itself and must not be changed.
+     *
+     * @param symbol the symbol to look for
+     *
+     * @return an array of packed cells, empty if the symbol isn't on the map
+     */
+    public int[] cells(char symbol)
+    {
+        return cellsBySymbol.getOrDefault(symbol, NONE);
+    }
+
+    /**
+     * Returns the number of cells holding any of some symbols
+     *
+     * @param symbols the symbols to look for
+     *
+     * @return the number of cells
+     */
+    public int count(char... symbols)
+    {
+        int count = 0;
+        for (char symbol : symbols)
+        {
+            count += cells(symbol).length;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the cells holding any of some symbols, those of the first
+     * symbol first, each symbol's line by line.
+     *
+     * @param symbols the symbols to look for
+     *
+     * @return a new array of Positions
+     */
+    public Position[] positions(char... symbols)
+    {
+        Position[] positions = new Position[count(symbols)];
+        int pt = 0;
+        for (char symbol : symbols)
+        {
+            for (int cell : cells(symbol))
+            {
+                positions[pt] = position(cell);
+                pt++;
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Picks a random cell among those holding any of some symbols, as if from
+     * the array returned by positions(), without creating it.
+     *
+     * @param random  the source of randomness
+     * @param symbols the symbols to look for, at least one on the map
+     *
+     * @return the Position of the cell picked
+     */
+    public Position randomPosition(Random random, char... symbols)
+    {
+        assert random != null;
+        assert count(symbols) > 0;
+
+        int idx = random.nextInt(count(symbols));
+        for (char symbol : symbols)
+        {
+            int[] cells = cells(symbol);
+            if (idx < cells.length)
+            {
+                return position(cells[idx]);
+            }
+            idx -= cells.length;
+        }
+        throw new AssertionError();
+    }
+
+    /**
+     * Returns the ends of a path drawn with some symbols: the cells holding
+     * any of them that are next to exactly one other such cell, above, below
+     * or to the side. Only looks around the cells of the path, once each.
+     *
+     * @param symbols the symbols the path is drawn with
+     *
+     * @return an array of packed cells, in increasing order
+     */
+    public int[] ends(char... symbols)
+    {
+        int[] ends = new int[count(symbols)];
+        int nrEnds = 0;
+        for (char symbol : symbols)
+        {
+            for (int cell : cells(symbol))
+            {
+                int l = line(cell);
+                int c = column(cell);
+                int neighbours = 0;
+                if (l > 0 && isAny(this.symbols[cell - numberOfColumns], symbols))
+                {
+                    neighbours++;
+                }
+                if (l < numberOfLines - 1 && isAny(this.symbols[cell + numberOfColumns], symbols))
+                {
+                    neighbours++;
+                }
+                if (c > 0 && isAny(this.symbols[cell - 1], symbols))
+                {
+                    neighbours++;
+                }
+                if (c < numberOfColumns - 1 && isAny(this.symbols[cell + 1], symbols))
+                {
+                    neighbours++;
+                }
+                if (neighbours == 1)
+                {
+                    ends[nrEnds] = cell;
+                    nrEnds++;
+                }
+            }
+        }
+        ends = Arrays.copyOf(ends, nrEnds);
+        Arrays.sort(ends);
+        return ends;
+    }
+
+    /**
+     * Returns the symbol of a packed cell, as loaded
+     *
+     * @param cell the packed cell
+     *
+     * @return the symbol of the cell
+     */
+    public char symbol(int cell)
+    {
+        return symbols[cell];
+    }
+
+    /**
+     * Returns the line of a packed cell
+     *
+     * @param cell the packed cell
+     *
+     * @return the line of the cell
+     */
+    public int line(int cell)
+    {
+        return cell / numberOfColumns;
+    }
+
+    /**
+     * Returns the column of a packed cell
+     *
+     * @param cell the packed cell
+     *
+     * @return the column of the cell
+     */
+    public int column(int cell)
+    {
+        return cell % numberOfColumns;
+    }
+
+    /**
+     * Returns the Position of a packed cell
+     *
+     * @param cell the packed cell
+     *
+     * @return a new Position
+     */
+    public Position position(int cell)
+    {
+        return new Position(line(cell), column(cell));
+    }
+
+    /**
+     * Tells whether Pawns may spawn on or walk to a position
+     *
+     * @param pos the Position
+     *
+     * @return true if the position is within the map and walkable
+     */
+    public boolean isWalkable(Position pos)
+    {
+        assert pos != null;
+
+        return pos.line() >= 0 && pos.line() < numberOfLines && pos.column() >= 0 && pos.column() < numberOfColumns
+                && isWalkable(symbols[pos.line() * numberOfColumns + pos.column()]);
+    }
+
+    /**
+     * Tells whether Pawns may spawn on or walk to cells with a certain symbol
+     *
+     * @param symbol the symbol of a cell
+     *
+     * @return true if the cell is walkable
+     */
+    public static boolean isWalkable(char symbol)
+    {
+        return symbol == ' ' || symbol == 'X';
+    }
+
+    /**
+     * Tells whether a symbol is one of some symbols
+     */
+    private static boolean isAny(char symbol, char[] symbols)
+    {
+        for (char s : symbols)
+        {
+            if (s == symbol)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+}
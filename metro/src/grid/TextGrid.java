@@ -0,0 +1,132 @@
+package grid;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import pt.ua.gboard.basic.Position;
+
+/**
+ * General description: Grid kept in memory only, read directly from the map
+ * file. Requires no window, so it's the one used by the headless mode.
+ *
+ * @author Tiago Madeira 76321
+ */
+public class TextGrid implements Grid
+{
+
+    /**
+     * Internal data
+     */
+    private final char[][] cells;
+    private final int numberOfLines;
+    private final int numberOfColumns;
+
+    /**
+     * Constructor
+     *
+     * @param lines the lines of the map. Shorter lines are padded with spaces
+     */
+    public TextGrid(String[] lines)
+    {
+        assert lines != null;
+
+        int columns = 0;
+        for (String line : lines)
+        {
+            columns = Math.max(columns, line.length());
+        }
+
+        this.numberOfLines = lines.length;
+        this.numberOfColumns = columns;
+        this.cells = new char[numberOfLines][numberOfColumns];
+
+        for (int l = 0; l < numberOfLines; l++)
+        {
+            for (int c = 0; c < numberOfColumns; c++)
+            {
+                cells[l][c] = c < lines[l].length() ? lines[l].charAt(c) : ' ';
+            }
+        }
+    }
+
+    /**
+     * Reads a grid from a map file
+     *
+     * @param file name of the map file
+     *
+     * @return the TextGrid holding the map
+     *
+     * @throws IOException if the file can't be read
+     */
+    public static TextGrid load(String file) throws IOException
+    {
+        assert file != null;
+
+        List<String> lines = Files.readAllLines(Paths.get(file), StandardCharsets.UTF_8);
+        return new TextGrid(lines.toArray(new String[0]));
+    }
+
+    @Override
+    public int numberOfLines()
+    {
+        return numberOfLines;
+    }
+
+    @Override
+    public int numberOfColumns()
+    {
+        return numberOfColumns;
+    }
+
+    @Override
+    public synchronized char roadSymbol(int line, int column)
+    {
+        assert line >= 0 && line < numberOfLines;
+        assert column >= 0 && column < numberOfColumns;
+
+        return cells[line][column];
+    }
+
+    @Override
+    public synchronized void putRoadSymbol(int line, int column, char symbol)
+    {
+        assert line >= 0 && line < numberOfLines;
+        assert column >= 0 && column < numberOfColumns;
+
+        cells[line][column] = symbol;
+    }
+
+    @Override
+    public synchronized Position[] symbolPositions(char symbol)
+    {
+        int count = 0;
+        for (char[] line : cells)
+        {
+            for (char cell : line)
+            {
+                if (cell == symbol)
+                {
+                    count++;
+                }
+            }
+        }
+
+        Position[] positions = new Position[count];
+        int pt = 0;
+        for (int l = 0; l < numberOfLines; l++)
+        {
+            for (int c = 0; c < numberOfColumns; c++)
+            {
+                if (cells[l][c] == symbol)
+                {
+                    positions[pt] = new Position(l, c);
+                    pt++;
+                }
+            }
+        }
+
+        return positions;
+    }
+}
@@ -0,0 +1,44 @@
+package jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import regions.Station;
+
+/**
+ * General description: Flight Recorder event of a Conductor letting the
+ * passengers of a train off at a station and waiting for them to leave.
+ *
+ * @author Tiago Madeira 76321
+ */
+@Name("metro.Alighting")
+@Label("Alighting")
+@Description("Passengers got off a train at a station")
+public class AlightingEvent extends StationEvent
+{
+
+    @Label("Alighted")
+    int alighted;
+
+    @Label("On Board")
+    @Description("Passengers staying on the train")
+    int onBoard;
+
+    /**
+     * Commits the event, if recorded.
+     *
+     * @param s        the Station where the passengers got off
+     * @param alighted the number of passengers who got off
+     * @param onBoard  the number of passengers staying on the train
+     */
+    public void commit(Station s, int alighted, int onBoard)
+    {
+        if (shouldCommit())
+        {
+            setStation(s);
+            this.alighted = alighted;
+            this.onBoard = onBoard;
+            commit();
+        }
+    }
+}
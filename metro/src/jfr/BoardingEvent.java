@@ -0,0 +1,44 @@
+package jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import regions.Station;
+
+/**
+ * General description: Flight Recorder event of a Conductor calling the
+ * passengers on the platform into a train and waiting for them to get in.
+ *
+ * @author Tiago Madeira 76321
+ */
+@Name("metro.Boarding")
+@Label("Boarding")
+@Description("Passengers on the platform got into a train")
+public class BoardingEvent extends StationEvent
+{
+
+    @Label("Boarded")
+    int boarded;
+
+    @Label("Left On Platform")
+    @Description("Passengers over the boarding capacity, waiting for the next train")
+    int leftOnPlatform;
+
+    /**
+     * Commits the event, if recorded.
+     *
+     * @param s              the Station where the passengers boarded
+     * @param boarded        the number of passengers who got in
+     * @param leftOnPlatform the number of passengers left on the platform
+     */
+    public void commit(Station s, int boarded, int leftOnPlatform)
+    {
+        if (shouldCommit())
+        {
+            setStation(s);
+            this.boarded = boarded;
+            this.leftOnPlatform = leftOnPlatform;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import regions.Station;
+
+/**
+ * General description: Flight Recorder event which happened at a station,
+ * identified by its location and track.
+ *
+ * @author Tiago Madeira 76321
+ */
+@Category("Metro")
+abstract class StationEvent extends Event
+{
+
+    @Label("Station Line")
+    int stationLine;
+
+    @Label("Station Column")
+    int stationColumn;
+
+    @Label("Track")
+    char track;
+
+    /**
+     * Sets the station the event happened at
+     *
+     * @param s the Station
+     */
+    void setStation(Station s)
+    {
+        stationLine = s.getLocation().line();
+        stationColumn = s.getLocation().column();
+        track = s.getTrackSymbol();
+    }
+}
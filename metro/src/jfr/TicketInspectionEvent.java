@@ -0,0 +1,53 @@
+package jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * General description: Flight Recorder event of an Inspector checking, in one
+ * sweep, the tickets shown on a train since the last one.
+ *
+ * @author Tiago Madeira 76321
+ */
+@Name("metro.TicketInspection")
+@Label("Ticket Inspection")
+@Description("An Inspector checked the tickets shown on a train")
+@Category("Metro")
+public class TicketInspectionEvent extends Event
+{
+
+    @Label("Track")
+    char track;
+
+    @Label("Inspector")
+    String inspector;
+
+    @Label("Tickets Checked")
+    int ticketsChecked;
+
+    @Label("Fines")
+    int fines;
+
+    /**
+     * Commits the event, if recorded.
+     *
+     * @param track          symbol of the track of the train
+     * @param inspector      name of the Inspector
+     * @param ticketsChecked the number of tickets checked
+     * @param fines          the number of fines applied
+     */
+    public void commit(char track, String inspector, int ticketsChecked, int fines)
+    {
+        if (shouldCommit())
+        {
+            this.track = track;
+            this.inspector = inspector;
+            this.ticketsChecked = ticketsChecked;
+            this.fines = fines;
+            commit();
+        }
+    }
+}
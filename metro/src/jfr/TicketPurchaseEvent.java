@@ -0,0 +1,39 @@
+package jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import regions.Station;
+
+/**
+ * General description: Flight Recorder event of a Pawn buying a ticket, from
+ * joining the purchase queue until a Salesman sold it.
+ *
+ * @author Tiago Madeira 76321
+ */
+@Name("metro.TicketPurchase")
+@Label("Ticket Purchase")
+@Description("A Pawn queued at a station and bought a ticket")
+public class TicketPurchaseEvent extends StationEvent
+{
+
+    @Label("Queue Length")
+    @Description("Pawns ahead in the purchase queue")
+    int queueLength;
+
+    /**
+     * Commits the event, if recorded.
+     *
+     * @param s           the Station where the ticket was bought
+     * @param queueLength the number of Pawns ahead in the purchase queue
+     */
+    public void commit(Station s, int queueLength)
+    {
+        if (shouldCommit())
+        {
+            setStation(s);
+            this.queueLength = queueLength;
+            commit();
+        }
+    }
+}
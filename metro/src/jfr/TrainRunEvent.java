@@ -0,0 +1,66 @@
+package jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import regions.Station;
+
+/**
+ * General description: Flight Recorder event of a train moving from one
+ * station to the next one it stops at.
+ *
+ * @author Tiago Madeira 76321
+ */
+@Name("metro.TrainRun")
+@Label("Train Run")
+@Description("A train moved between two stations")
+@Category("Metro")
+public class TrainRunEvent extends Event
+{
+
+    @Label("Track")
+    char track;
+
+    @Label("Conductor")
+    String conductor;
+
+    @Label("From Line")
+    int fromLine;
+
+    @Label("From Column")
+    int fromColumn;
+
+    @Label("To Line")
+    int toLine;
+
+    @Label("To Column")
+    int toColumn;
+
+    @Label("Moves")
+    int moves;
+
+    /**
+     * Commits the event, if recorded.
+     *
+     * @param from      the Station the train left
+     * @param to        the Station the train reached
+     * @param conductor name of the Conductor of the train
+     * @param moves     the number of moves between both stations
+     */
+    public void commit(Station from, Station to, String conductor, int moves)
+    {
+        if (shouldCommit())
+        {
+            track = to.getTrackSymbol();
+            this.conductor = conductor;
+            fromLine = from.getLocation().line();
+            fromColumn = from.getLocation().column();
+            toLine = to.getLocation().line();
+            toColumn = to.getLocation().column();
+            this.moves = moves;
+            commit();
+        }
+    }
+}
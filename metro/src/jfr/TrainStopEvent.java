@@ -0,0 +1,45 @@
+package jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import regions.Station;
+import regions.Train;
+
+/**
+ * General description: Flight Recorder event of a train stopped at a
+ * station, from its arrival until it's ready to leave.
+ *
+ * @author Tiago Madeira 76321
+ */
+@Name("metro.TrainStop")
+@Label("Train Stop")
+@Description("A train dwelt at a station")
+public class TrainStopEvent extends StationEvent
+{
+
+    @Label("Conductor")
+    String conductor;
+
+    @Label("Passengers")
+    @Description("Passengers on board when leaving")
+    int passengers;
+
+    /**
+     * Commits the event, if recorded.
+     *
+     * @param s         the Station where the train stopped
+     * @param conductor name of the Conductor of the train
+     * @param train     the Train, about to leave
+     */
+    public void commit(Station s, String conductor, Train train)
+    {
+        if (shouldCommit())
+        {
+            setStation(s);
+            this.conductor = conductor;
+            passengers = train.getNumberOfPassengers();
+            commit();
+        }
+    }
+}
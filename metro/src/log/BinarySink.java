@@ -0,0 +1,182 @@
+package log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * General description: Writes events to a compact binary file. Names are kept
+ * in a table of NAMES entries, each name in the one its hash picks, and
+ * written to the file only when they take an entry over; events refer to
+ * their name by its entry, so every one takes the same 21 bytes. However many
+ * Pawns come and go, neither the writer nor the reader keep more than NAMES
+ * names.
+ *
+ * The file starts with MAGIC and VERSION, followed by records. A record starts
+ * with a tag: NAME_TAG for a name, followed by its entry (char) and the name in
+ * modified UTF-8; or an event type ordinal plus one, followed by the time
+ * (long, ns), the entry of the name (char), the symbol (char) and both values
+ * (int).
+ *
+ * @author Tiago Madeira 76321
+ */
+class BinarySink implements EventSink
+{
+
+    /**
+     * File format identification: "MLOG" and version
+     */
+    private static final int MAGIC = 0x4d4c4f47;
+    private static final int VERSION = 2;
+    private static final byte NAME_TAG = 0;
+
+    /**
+     * Entries of the table of names, a power of two
+     */
+    private static final int NAMES = 1 << 12;
+
+    /**
+     * Internal data
+     */
+    private final DataOutputStream out;
+    // Name last written to each entry
+    private final String[] names = new String[NAMES];
+
+    /**
+     * Constructor
+     *
+     * @param file the file to write to, replaced if it exists
+     *
+     * @throws IOException if the file can't be created
+     */
+    BinarySink(Path file) throws IOException
+    {
+        assert file != null;
+
+        out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+    }
+
+    @Override
+    public void write(long time, EventType type, String name, char symbol, int value1, int value2) throws IOException
+    {
+        int id = name.hashCode() & (NAMES - 1);
+        if (!name.equals(names[id]))
+        {
+            names[id] = name;
+            out.writeByte(NAME_TAG);
+            out.writeChar(id);
+            out.writeUTF(name);
+        }
+
+        out.writeByte(type.ordinal() + 1);
+        out.writeLong(time);
+        out.writeChar(id);
+        out.writeChar(symbol);
+        out.writeInt(value1);
+        out.writeInt(value2);
+    }
+
+    @Override
+    public void flush() throws IOException
+    {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        out.close();
+    }
+
+    /**
+     * Prints the events of a binary log file as they'd show on the console,
+     * each preceded by its time.
+     *
+     * @param file the binary log file
+     * @param ps   the stream to print to
+     *
+     * @throws IOException if the file can't be read or isn't a binary log
+     */
+    public static void print(Path file, PrintStream ps) throws IOException
+    {
+        assert file != null;
+        assert ps != null;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file))))
+        {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION)
+            {
+                throw new IOException("not a binary event log");
+            }
+
+            String[] names = new String[NAMES];
+            StringBuilder sb = new StringBuilder();
+            while (true)
+            {
+                int tag;
+                try
+                {
+                    tag = in.readUnsignedByte();
+                } catch (EOFException e)
+                {
+                    return;
+                }
+
+                if (tag == NAME_TAG)
+                {
+                    int id = in.readChar();
+                    if (id >= NAMES)
+                    {
+                        throw new IOException("unknown name entry " + id);
+                    }
+                    names[id] = in.readUTF();
+                    continue;
+                }
+                if (tag > EventType.VALUES.length)
+                {
+                    throw new IOException("unknown event " + tag);
+                }
+
+                long time = in.readLong();
+                int id = in.readChar();
+                if (id >= NAMES || names[id] == null)
+                {
+                    throw new IOException("unknown name entry " + id);
+                }
+                String name = names[id];
+                char symbol = in.readChar();
+                int value1 = in.readInt();
+                int value2 = in.readInt();
+
+                sb.setLength(0);
+                sb.append('[').append(time / 1000000).append(" ms] ");
+                EventType.VALUES[tag - 1].format(sb, name, symbol, value1, value2);
+                ps.print(sb);
+            }
+        }
+    }
+
+    /**
+     * Prints a binary log file on the console.
+     *
+     * @param args name of the binary log file
+     */
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length != 1)
+        {
+            System.out.println("Usage: BinarySink <log-file>");
+            System.exit(1);
+        }
+
+        print(Path.of(args[0]), System.out);
+    }
+}
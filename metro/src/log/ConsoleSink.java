@@ -0,0 +1,55 @@
+package log;
+
+import java.io.PrintStream;
+
+/**
+ * General description: Writes events to the console as the lines the
+ * simulation always printed. A whole batch is formatted into one buffer and
+ * printed at once.
+ *
+ * @author Tiago Madeira 76321
+ */
+class ConsoleSink implements EventSink
+{
+
+    /**
+     * Internal data
+     */
+    private final PrintStream out;
+    private final StringBuilder batch = new StringBuilder();
+
+    /**
+     * Constructor
+     *
+     * @param out the stream to print to
+     */
+    ConsoleSink(PrintStream out)
+    {
+        assert out != null;
+        this.out = out;
+    }
+
+    @Override
+    public void write(long time, EventType type, String name, char symbol, int value1, int value2)
+    {
+        type.format(batch, name, symbol, value1, value2);
+        batch.append('\n');
+    }
+
+    @Override
+    public void flush()
+    {
+        if (batch.length() > 0)
+        {
+            out.print(batch);
+            out.flush();
+            batch.setLength(0);
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        flush();
+    }
+}
@@ -0,0 +1,290 @@
+package log;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * General description: Asynchronous log of what happens in the simulation.
+ * Publishing an event only copies its fields into a slot of a lock-free ring
+ * buffer, so no region does any I/O, or even string formatting, while holding
+ * its lock. A background writer takes the events out in batches and hands them
+ * to the chosen output: the console, a binary file or nowhere at all.
+ *
+ * The ring buffer is a bounded multi-producer queue: each slot has a sequence
+ * number telling whether it's free for the producer of a certain position or
+ * full for the consumer. Producers claim positions by compare-and-set and
+ * only wait, yielding, when the buffer is full. Closing the log closes the
+ * tail too, so that no position is claimed afterwards, and the writer waits
+ * for the positions already claimed to be published before it stops.
+ *
+ * Drops every event until told where to send them, so that no writer runs
+ * unless there's somewhere to write to.
+ *
+ * @author Tiago Madeira 76321
+ */
+public final class EventLog
+{
+
+    /**
+     * Number of slots of the ring buffer, a power of two
+     */
+    private static final int CAPACITY = 1 << 16;
+    private static final int MASK = CAPACITY - 1;
+
+    /**
+     * Most events handed to the output between flushes
+     */
+    private static final int BATCH_SIZE = 1024;
+
+    /**
+     * Time the writer sleeps when there's nothing to write (ns)
+     */
+    private static final long IDLE_TIME = 1000000;
+
+    /**
+     * Set in the tail once no more positions may be claimed
+     */
+    private static final long CLOSED = Long.MIN_VALUE;
+
+    /**
+     * The log events are published to, null to drop them
+     */
+    private static volatile EventLog current = null;
+
+    /**
+     * Internal data
+     */
+    private final EventSink sink;
+    private final long startTime = System.nanoTime();
+    // Fields of the event in each slot
+    private final long[] times = new long[CAPACITY];
+    private final EventType[] types = new EventType[CAPACITY];
+    private final String[] names = new String[CAPACITY];
+    private final char[] symbols = new char[CAPACITY];
+    private final int[] values1 = new int[CAPACITY];
+    private final int[] values2 = new int[CAPACITY];
+    // Position an event may be written to (or read from, plus one) each slot
+    private final AtomicLongArray sequences = new AtomicLongArray(CAPACITY);
+    // Next position to be claimed, plus CLOSED once closed
+    private final AtomicLong tail = new AtomicLong();
+    // Only touched by the writer
+    private long head = 0;
+    private volatile boolean closed = false;
+    private final Thread writer;
+
+    /**
+     * Constructor
+     *
+     * @param sink where the events are written
+     */
+    private EventLog(EventSink sink)
+    {
+        assert sink != null;
+        this.sink = sink;
+        for (int i = 0; i < CAPACITY; i++)
+        {
+            sequences.set(i, i);
+        }
+
+        writer = new Thread(this::write, "EventLog");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Sends the events to the console from now on.
+     */
+    public static void toConsole()
+    {
+        replace(new EventLog(new ConsoleSink(System.out)));
+    }
+
+    /**
+     * Sends the events to a binary file from now on.
+     *
+     * @param file the file to write to, replaced if it exists
+     *
+     * @throws IOException if the file can't be created
+     */
+    public static void toBinaryFile(Path file) throws IOException
+    {
+        assert file != null;
+
+        replace(new EventLog(new BinarySink(file)));
+    }
+
+    /**
+     * Drops every event from now on.
+     */
+    public static void off()
+    {
+        replace(null);
+    }
+
+    /**
+     * Writes out every event published so far and closes the output. Events
+     * published afterwards are dropped.
+     */
+    public static void close()
+    {
+        replace(null);
+    }
+
+    /**
+     * Publishes an event. Never blocks unless the ring buffer is full.
+     *
+     * @param type   the kind of event
+     * @param name   name of who did it
+     * @param symbol symbol of the event
+     * @param value1 first value of the event
+     * @param value2 second value of the event
+     */
+    public static void publish(EventType type, String name, char symbol, int value1, int value2)
+    {
+        assert type != null;
+        assert name != null;
+
+        EventLog log = current;
+        if (log != null)
+        {
+            log.add(type, name, symbol, value1, value2);
+        }
+    }
+
+    /**
+     * Makes a log the current one, then closes the previous one
+     */
+    private static synchronized void replace(EventLog log)
+    {
+        EventLog previous = current;
+        current = log;
+        if (previous != null)
+        {
+            previous.shutdown();
+        }
+    }
+
+    /**
+     * Copies an event into the next slot of the ring buffer
+     */
+    private void add(EventType type, String name, char symbol, int value1, int value2)
+    {
+        long pos = tail.get();
+        while (true)
+        {
+            if ((pos & CLOSED) != 0)
+            {
+                // Published after the log was closed
+                return;
+            }
+            long diff = sequences.get((int) pos & MASK) - pos;
+            if (diff == 0)
+            {
+                if (tail.compareAndSet(pos, pos + 1))
+                {
+                    break;
+                }
+                pos = tail.get();
+            } else if (diff < 0)
+            {
+                // Full; give the writer a chance
+                Thread.yield();
+                pos = tail.get();
+            } else
+            {
+                pos = tail.get();
+            }
+        }
+
+        int slot = (int) pos & MASK;
+        times[slot] = System.nanoTime() - startTime;
+        types[slot] = type;
+        names[slot] = name;
+        symbols[slot] = symbol;
+        values1[slot] = value1;
+        values2[slot] = value2;
+        // Publishes the fields to the writer
+        sequences.set(slot, pos + 1);
+    }
+
+    /**
+     * Life cycle of the writer: hands the events to the output in batches,
+     * sleeping a little whenever there are none, until closed and every
+     * position claimed was written
+     */
+    private void write()
+    {
+        try
+        {
+            while (true)
+            {
+                int written = drain();
+                if (written > 0)
+                {
+                    sink.flush();
+                } else if (closed)
+                {
+                    if (head == (tail.get() & ~CLOSED))
+                    {
+                        break;
+                    }
+                    // Claimed, but not yet published
+                    Thread.yield();
+                } else
+                {
+                    LockSupport.parkNanos(IDLE_TIME);
+                }
+            }
+            sink.close();
+        } catch (IOException e)
+        {
+            System.err.println("ERROR: unable to write the event log: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Hands up to a batch of events to the output
+     *
+     * @return the number of events handed
+     */
+    private int drain() throws IOException
+    {
+        int written = 0;
+        while (written < BATCH_SIZE)
+        {
+            int slot = (int) head & MASK;
+            if (sequences.get(slot) != head + 1)
+            {
+                break;
+            }
+
+            sink.write(times[slot], types[slot], names[slot], symbols[slot], values1[slot], values2[slot]);
+            names[slot] = null;
+            // Frees the slot for the producer one lap ahead
+            sequences.set(slot, head + CAPACITY);
+            head++;
+            written++;
+        }
+        return written;
+    }
+
+    /**
+     * Stops the writer once everything published so far was written
+     */
+    private void shutdown()
+    {
+        tail.getAndUpdate(pos -> pos | CLOSED);
+        closed = true;
+        LockSupport.unpark(writer);
+        try
+        {
+            writer.join();
+        } catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package log;
+
+import java.io.IOException;
+
+/**
+ * General description: Where the writer of the EventLog puts the events it
+ * takes from the ring buffer. Only ever used by the writer thread.
+ *
+ * @author Tiago Madeira 76321
+ */
+interface EventSink
+{
+
+    /**
+     * Writes one event
+     *
+     * @param time   when the event was published (ns since the log opened)
+     * @param type   the kind of event
+     * @param name   name of who did it
+     * @param symbol symbol of the event
+     * @param value1 first value of the event
+     * @param value2 second value of the event
+     *
+     * @throws IOException if the event can't be written
+     */
+    void write(long time, EventType type, String name, char symbol, int value1, int value2) throws IOException;
+
+    /**
+     * Pushes out the events written so far; called after every batch
+     *
+     * @throws IOException if the events can't be written
+     */
+    void flush() throws IOException;
+
+    /**
+     * Flushes and releases the output
+     *
+     * @throws IOException if the events can't be written
+     */
+    void close() throws IOException;
+}
@@ -0,0 +1,66 @@
+package log;
+
+/**
+ * General description: The kinds of events published to the EventLog. Every
+ * event has the same shape: the name of who did it, a symbol and two numbers,
+ * whose meaning depends on the kind of event.
+ *
+ * @author Tiago Madeira 76321
+ */
+public enum EventType
+{
+    /**
+     * A Pawn bought a ticket: symbol is the track, first value the balance
+     * left in the wallet
+     */
+    TICKET_BOUGHT
+    {
+        @Override
+        void format(StringBuilder sb, String name, char symbol, int value1, int value2)
+        {
+            sb.append(name).append(": Bought ticket for track ").append(symbol)
+                    .append("! My new balance is ").append(value1).append("€\n");
+        }
+    },
+    /**
+     * An Inspector swept the tickets shown on a train: first value is the
+     * number of tickets checked, second the number of fines
+     */
+    TICKETS_CHECKED
+    {
+        @Override
+        void format(StringBuilder sb, String name, char symbol, int value1, int value2)
+        {
+            sb.append(name).append(": Checked ").append(value1).append(" tickets, ")
+                    .append(value1 - value2).append(" valid and ").append(value2).append(" fined!\n");
+        }
+    },
+    /**
+     * A Pawn reached its destination
+     */
+    ARRIVED
+    {
+        @Override
+        void format(StringBuilder sb, String name, char symbol, int value1, int value2)
+        {
+            sb.append(name).append(": I have arrived at my destination!\n");
+        }
+    };
+
+    /**
+     * Every kind of event, indexed by ordinal
+     */
+    static final EventType[] VALUES = values();
+
+    /**
+     * Appends the text of an event of this kind, as printed on the console,
+     * followed by a new line.
+     *
+     * @param sb     where to append the text
+     * @param name   name of who did it
+     * @param symbol symbol of the event
+     * @param value1 first value of the event
+     * @param value2 second value of the event
+     */
+    abstract void format(StringBuilder sb, String name, char symbol, int value1, int value2);
+}
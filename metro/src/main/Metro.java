@@ -2,15 +2,46 @@ package main;
 
 import static java.lang.System.*;
 import regions.Train;
+import config.Network;
 import entities.Conductor;
 import entities.Inspector;
+import demand.ArrivalReport;
+import demand.LoadGenerator;
+import demand.RandomTrips;
+import demand.Trip;
+import demand.TripFile;
+import demand.TripSource;
 import entities.Pawn;
+import grid.Grid;
+import grid.LabyrinthGrid;
+import grid.MapIndex;
+import grid.TextGrid;
 import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import log.EventLog;
+import metrics.Latencies;
+import metrics.StartupPhases;
 import pt.ua.gboard.*;
 import pt.ua.gboard.basic.*;
 import pt.ua.gboard.games.*;
 import regions.MetroMap;
+import regions.Station;
 import regions.Track;
+import render.GBoardRenderer;
+import render.HeadlessRenderer;
+import render.Renderer;
+import sim.PassengerTrip;
+import sim.Platforms;
+import sim.Simulation;
+import sim.TrainService;
 
 /**
  * General description: Main class.
@@ -21,27 +52,142 @@ public class Metro
 {
 
     protected static int N;
-    protected static GBoard board;
+    protected static Renderer renderer;
+    protected static int arrivedPawns;
+    protected static int spawnedPawns;
+    protected static boolean moreTrips;
+    protected static ArrivalReport arrivals;
 
     /**
      * Creation and starting of the various entity's threads. Instantiation of
      * shared memory regions.
      *
-     * @param args name of the map file
+     * @param args name of the map file, optionally preceded by --headless to
+     *             run the simulation without drawing it and/or
+     *             --platform-threads to run each Pawn on a platform thread
+     *             instead of a virtual one and/or --event-driven to run the
+     *             simulation on a simulated clock instead of threads and/or
+     *             --raster-cache=file to keep the nearest station to each
+     *             cell of the map in a file between runs and/or
+     *             --log=console|off|binary:file to choose where the events of
+     *             the simulation go and/or --seed=n to generate the trips of
+     *             the Pawns from a given seed and/or --demand=file to
+     *             generate them as described in a demand file, or
+     *             --trips=file to replay the trips of a trip file and/or
+     *             --network=file to read the lines of the map and the
+     *             settings of the simulation from a network file
      */
     static public void main(String[] args)
     {
         ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
         // Load map file
         String map = "map0.txt";
-        if (args.length != 1)
+        boolean headless = GraphicsEnvironment.isHeadless();
+        boolean virtualPawns = true;
+        boolean eventDriven = false;
+        Path rasterCache = null;
+        String logOutput = "console";
+        Long seed = null;
+        Path tripFile = null;
+        Path demandFile = null;
+        Path networkFile = null;
+        int argIdx = 0;
+        while (argIdx < args.length && args[argIdx].startsWith("--"))
         {
-            out.println("Usage: TestLabyrinth <map-file>");
+            switch (args[argIdx])
+            {
+                case "--headless":
+                    headless = true;
+                    break;
+                case "--platform-threads":
+                    virtualPawns = false;
+                    break;
+                case "--event-driven":
+                    eventDriven = true;
+                    break;
+                default:
+                    if (args[argIdx].startsWith("--raster-cache="))
+                    {
+                        rasterCache = Paths.get(args[argIdx].substring("--raster-cache=".length()));
+                        break;
+                    }
+                    if (args[argIdx].startsWith("--log="))
+                    {
+                        logOutput = args[argIdx].substring("--log=".length());
+                        break;
+                    }
+                    if (args[argIdx].startsWith("--seed="))
+                    {
+                        try
+                        {
+                            seed = Long.parseLong(args[argIdx].substring("--seed=".length()));
+                        } catch (NumberFormatException e)
+                        {
+                            err.println("ERROR: invalid seed \"" + args[argIdx].substring("--seed=".length()) + "\"");
+                            exit(1);
+                        }
+                        break;
+                    }
+                    if (args[argIdx].startsWith("--network="))
+                    {
+                        networkFile = Paths.get(args[argIdx].substring("--network=".length()));
+                        break;
+                    }
+                    if (args[argIdx].startsWith("--demand="))
+                    {
+                        demandFile = Paths.get(args[argIdx].substring("--demand=".length()));
+                        break;
+                    }
+                    if (args[argIdx].startsWith("--trips="))
+                    {
+                        tripFile = Paths.get(args[argIdx].substring("--trips=".length()));
+                        break;
+                    }
+                    err.println("ERROR: unknown option \"" + args[argIdx] + "\"");
+                    exit(1);
+            }
+            argIdx++;
+        }
+
+        if (args.length - argIdx != 1)
+        {
+            out.println("Usage: Metro [--headless] [--platform-threads] [--event-driven] [--raster-cache=<file>]"
+                    + " [--log=console|off|binary:<file>] [--seed=<n>] [--demand=<file> | --trips=<file>]"
+                    + " [--network=<file>] <map-file>");
             out.println();
             out.println("Using \"" + map + "\" as default!\n");
         } else
         {
-            map = args[0];
+            map = args[argIdx];
+        }
+
+        if (logOutput.equals("console"))
+        {
+            EventLog.toConsole();
+        } else if (logOutput.equals("off"))
+        {
+            EventLog.off();
+        } else if (logOutput.startsWith("binary:"))
+        {
+            String logFile = logOutput.substring("binary:".length());
+            try
+            {
+                EventLog.toBinaryFile(Paths.get(logFile));
+            } catch (IOException e)
+            {
+                err.println("ERROR: unable to create log file \"" + logFile + "\"");
+                exit(1);
+            }
+        } else
+        {
+            err.println("ERROR: unknown log output \"" + logOutput + "\"");
+            exit(1);
+        }
+
+        if (tripFile != null && (seed != null || demandFile != null))
+        {
+            err.println("ERROR: --trips can't be used with --seed or --demand");
+            exit(1);
         }
 
         if (!Labyrinth.validMapFile(map))
@@ -50,110 +196,413 @@ public class Metro
             exit(1);
         }
 
+        // Time taken by each phase of the startup
+        StartupPhases startup = new StartupPhases();
+
         ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
-        // Process symbols and create Gelems
-        LabyrinthGelem.setShowRoadBoundaries();
-        char[] roadSymbols =
+        // Lines of the network
+        Network network = Network.standard();
+        if (networkFile != null)
         {
-            'G', 'g', 'R', 'r', 'P', 'p', 'B', 'b', 'X'
-        };
+            try
+            {
+                network = Network.load(networkFile);
+            } catch (IOException e)
+            {
+                err.println("ERROR: unable to read network file: " + e.getMessage());
+                exit(1);
+                return;
+            }
+        }
+
+        List<Network.Line> lines = network.getLines();
+        startup.lap("network");
 
         N = 4;
-        Labyrinth.setNumberOfLayers(4);
-        Labyrinth.setWindowName("Metro");
-        Labyrinth metro = new Labyrinth(map, roadSymbols, N);
-        board = metro.board;
 
         // Number of tracks in map
-        int nrTracks = 4;
-        // Number of Pawns to spawn
-        int maxPawns = 1000;
-        // Rate of generation of Pawns (ms)
-        int pawnRate = 500;
-
-        // Define colours for tracks
-        Color[] trackColors = new Color[nrTracks];
-        trackColors[0] = Color.getHSBColor(5.30f, 0.60f, 0.70f);
-        trackColors[1] = Color.getHSBColor(0.02f, 0.90f, 0.90f);
-        trackColors[2] = Color.getHSBColor(4.90f, 0.80f, 0.80f);
-        trackColors[3] = Color.getHSBColor(3.55f, 0.90f, 0.80f);
-        Color stationColor = Color.getHSBColor(0f, 0f, 0.90f);
+        int nrTracks = network.getLines().size();
+        // Number of Pawns to spawn, unless replaying a trip file
+        int maxPawns = network.getPawns();
+        // Rate of generation of Pawns (ms), unless replaying a trip file
+        int pawnRate = network.getRate();
+        // Number of ticket booths at each station. None run when event-driven,
+        // where each trip buys its ticket as one of its events
+        int nrBooths = eventDriven ? 0 : network.getBooths();
+        // Most passengers getting into a train each time it stops at a station
+        int platformCapacity = network.getCapacity();
 
-        // Attach gelems to each track symbol
-        for (int i = 0; i < nrTracks; i++)
+        Grid metro;
+        if (headless)
         {
-            // track gelem
-            metro.attachGelemToRoadSymbol(roadSymbols[i * 2], new FilledGelem(trackColors[i], 100, N, N));
-            // station gelem
-            Gelem[] stationGelem = new Gelem[2];
-            stationGelem[0] = new FilledGelem(trackColors[i], 100, N, N);
-            stationGelem[1] = new FilledGelem(stationColor, 30, N, N);
-            metro.attachGelemToRoadSymbol(roadSymbols[(i * 2) + 1], new ComposedGelem(stationGelem));
+            try
+            {
+                metro = TextGrid.load(map);
+            } catch (IOException e)
+            {
+                err.println("ERROR: unable to read map file \"" + map + "\"");
+                exit(1);
+                return;
+            }
+            renderer = new HeadlessRenderer();
+        } else
+        {
+            Labyrinth labyrinth = createLabyrinth(map, network);
+            metro = new LabyrinthGrid(labyrinth);
+            renderer = new GBoardRenderer(labyrinth.board);
         }
 
-        // X marks the destination
-        metro.attachGelemToRoadSymbol('X', new StringGelem("x", Color.BLACK, N, N));
+        startup.lap("map");
 
         ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
         // Calculate tracks
-        Position[] startPositions = new Position[nrTracks];
-        startPositions[0] = new Position(5, 25);
-        startPositions[1] = new Position(2, 16);
-        startPositions[2] = new Position(5, 10);
-        startPositions[3] = new Position(17, 4);
-
-        Position[] endPositions = new Position[nrTracks];
-        endPositions[0] = new Position(33, 28);
-        endPositions[1] = new Position(29, 24);
-        endPositions[2] = new Position(33, 19);
-        endPositions[3] = new Position(35, 13);
+        // Every track and the map read the symbols of the grid from one index
+        MapIndex index = new MapIndex(metro);
+        startup.lap("index");
 
+        // Tracks and trains are built at the same time on the common fork-join
+        // pool; none of them runs until all of them are ready
         Track[] tracks = new Track[nrTracks];
+        try
+        {
+            // Each one between the terminals of its line on the map
+            Arrays.parallelSetAll(tracks, i -> new Track(metro, index, lines.get(i).getSymbol(),
+                    lines.get(i).getStationSymbol(), N, nrBooths, platformCapacity));
+        } catch (RuntimeException e)
+        {
+            // Rethrown by the pool, maybe wrapped in other exceptions
+            Throwable cause = workerFailure(e);
+            if (cause instanceof IllegalArgumentException)
+            {
+                // A line that can't be laid out on the map
+                err.println("ERROR: " + cause.getMessage());
+            } else
+            {
+                err.println("ERROR: unable to build the tracks: " + cause);
+            }
+            exit(1);
+            return;
+        }
+        startup.lap("tracks");
 
+        // Trains evenly spaced along the cycle of each track
+        int nrTrains = 0;
+        for (Network.Line line : lines)
+        {
+            nrTrains += line.getTrains();
+        }
+        int[] trainTrack = new int[nrTrains];
+        int[] trainOnTrack = new int[nrTrains];
+        int k = 0;
         for (int i = 0; i < nrTracks; i++)
         {
-            // Create track
-            Track track = new Track(metro, startPositions[i], endPositions[i], roadSymbols[i * 2], roadSymbols[i * 2 + 1], N);
-            tracks[i] = track;
-
-            // Create train
-            Train train1 = new Train(metro, board, track, startPositions[i], 0, N, 2);
-            Train train2 = new Train(metro, board, track, endPositions[i], track.getMovesSize() / 2 + -2, N, 3);
-
-            // Create inspector
-            Inspector ticketInspector1 = new Inspector("Inspector_" + (i * 2), train1);
-            Inspector ticketInspector2 = new Inspector("Inspector_" + (i * 2 + 1), train2);
+            for (int t = 0; t < lines.get(i).getTrains(); t++)
+            {
+                trainTrack[k] = i;
+                trainOnTrack[k] = t;
+                k++;
+            }
+        }
+        Train[] trains = new Train[nrTrains];
+        Arrays.parallelSetAll(trains, j ->
+        {
+            Track track = tracks[trainTrack[j]];
+            int t = trainOnTrack[j];
+            int count = lines.get(trainTrack[j]).getTrains();
+            return new Train(metro, renderer, track, t * track.getMovesSize() / count, N, 2 + t % 2);
+        });
+        startup.lap("trains");
 
-            // Start the inspectors
-            ticketInspector1.start();
-            ticketInspector2.start();
+        ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+        // Create Map
+        MetroMap metroMap = new MetroMap(metro, index, tracks, rasterCache);
+        startup.lap("metro map");
 
-            // Create conductors
-            Conductor conductor1 = new Conductor("Conductor_" + (i * 2), train1);
-            Conductor conductor2 = new Conductor("Conductor_" + (i * 2 + 1), train2);
+        ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+        // Start service
+        // Only used when event-driven
+        Simulation sim = new Simulation();
+        Platforms platforms = new Platforms();
+        if (!headless)
+        {
+            // Every train is seen at its place before any of them moves
+            GBoard.sleep(200);
+        }
+        for (int j = 0; j < nrTrains; j++)
+        {
+            if (eventDriven)
+            {
+                new TrainService(sim, platforms, trains[j], "Inspector_" + j).start();
+                continue;
+            }
 
-            // Start the conductor threads
-            conductor1.start();
-            conductor2.start();
+            // Create and start the inspector and the conductor
+            new Inspector("Inspector_" + j, trains[j]).start();
+            new Conductor("Conductor_" + j, trains[j]).start();
         }
+        startup.lap("service");
+        startup.print(out);
 
         ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
-        // Create Map
-        MetroMap metroMap = new MetroMap(metro, tracks);
+        // Trips of the pawns
+        TripSource trips;
+        if (tripFile != null)
+        {
+            try
+            {
+                trips = new TripFile(tripFile, index);
+            } catch (IOException e)
+            {
+                err.println("ERROR: unable to read trip file \"" + tripFile + "\"");
+                exit(1);
+                return;
+            }
+        } else
+        {
+            if (seed == null)
+            {
+                seed = ThreadLocalRandom.current().nextLong();
+            }
+            // Reported so that the run can be repeated
+            out.println("Scenario seed: " + seed);
+            if (demandFile != null)
+            {
+                try
+                {
+                    trips = LoadGenerator.load(demandFile, seed, metroMap.maxL() + 1, metroMap.maxC() + 1,
+                            metroMap.getSpawningPositions(), metroMap.getDestinyPositions());
+                } catch (IOException e)
+                {
+                    err.println("ERROR: unable to read demand file: " + e.getMessage());
+                    exit(1);
+                    return;
+                }
+            } else
+            {
+                trips = new RandomTrips(seed, maxPawns, pawnRate, metroMap.getSpawningPositions(),
+                        metroMap.getDestinyPositions());
+            }
+        }
+        arrivals = new ArrivalReport();
 
         ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
         // Create pawns
+        if (eventDriven)
+        {
+            runEventDriven(sim, platforms, metroMap, metro, trips);
+            arrivals.print(out, trips);
+            printTicketSales(tracks, sim.now());
+            Latencies.print(out);
+            exit(0);
+        }
+
+        Thread.Builder pawnThreads = virtualPawns ? Thread.ofVirtual() : Thread.ofPlatform();
+        ExecutorService pawnExecutor = Executors.newThreadPerTaskExecutor(pawnThreads.name("Pawn_", 0).factory());
+        long startTime = nanoTime();
         int i = 0;
-        while (true)
+        Trip trip;
+        while ((trip = nextTrip(trips)) != null)
         {
-            Pawn pawn = new Pawn("Pawn_" + i, board, metroMap, metro, N, 1);
-            pawn.start();
-            GBoard.sleep(pawnRate);
+            // Wait until the Pawn is due to show up
+            long wait = trip.getSpawnTime() - (nanoTime() - startTime) / 1000000;
+            if (wait > 0)
+            {
+                GBoard.sleep((int) wait);
+            }
+
+            Pawn pawn = new Pawn("Pawn_" + i, renderer, metroMap, metro, N, 1, trip.getStart(), trip.getDestination());
+            pawnExecutor.execute(pawn);
+            arrivals.record(trip, (nanoTime() - startTime) / 1000000);
             i++;
-            if (i == maxPawns)
+        }
+        closeTrips(trips);
+
+        // Every Pawn was handed out, the ones still travelling keep running
+        pawnExecutor.shutdown();
+        try
+        {
+            pawnExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e)
+        {
+            return;
+        }
+        EventLog.close();
+        arrivals.print(out, trips);
+        printTicketSales(tracks, (nanoTime() - startTime) / 1000000);
+        Latencies.print(out);
+
+        if (headless)
+        {
+            // Trains, Inspectors and booths run forever, with nobody left to
+            // see them
+            exit(0);
+        }
+    }
+
+    /**
+     * Spawns the Pawns as events of the simulation and runs it until every
+     * one of them reaches its destination. Reports how long it took.
+     */
+    private static void runEventDriven(Simulation sim, Platforms platforms, MetroMap metroMap, Grid metro,
+            TripSource trips)
+    {
+        arrivedPawns = 0;
+        spawnedPawns = 0;
+        moreTrips = true;
+        Runnable onArrival = () ->
+        {
+            arrivedPawns++;
+            if (!moreTrips && arrivedPawns == spawnedPawns)
+            {
+                sim.stop();
+            }
+        };
+
+        // Only the next trip is read ahead, however many there are
+        scheduleNextTrip(sim, platforms, metroMap, metro, trips, onArrival);
+
+        long startTime = nanoTime();
+        sim.run(Long.MAX_VALUE);
+        long wallTime = (nanoTime() - startTime) / 1000000;
+        closeTrips(trips);
+        EventLog.close();
+
+        out.println(arrivedPawns + " of " + spawnedPawns + " pawns arrived in " + sim.now() + " ms of simulated time ("
+                + sim.eventsProcessed() + " events in " + wallTime + " ms)");
+    }
+
+    /**
+     * Schedules the spawning of the Pawn of the next trip, which schedules the
+     * one after it, or stops the simulation if there are no more trips and
+     * every Pawn arrived
+     */
+    private static void scheduleNextTrip(Simulation sim, Platforms platforms, MetroMap metroMap, Grid metro,
+            TripSource trips, Runnable onArrival)
+    {
+        Trip trip = nextTrip(trips);
+        if (trip == null)
+        {
+            moreTrips = false;
+            if (arrivedPawns == spawnedPawns)
+            {
+                sim.stop();
+            }
+            return;
+        }
+
+        sim.schedule(Math.max(0, trip.getSpawnTime() - sim.now()), () ->
+        {
+            Pawn pawn = new Pawn("Pawn_" + spawnedPawns, renderer, metroMap, metro, N, 1, trip.getStart(),
+                    trip.getDestination());
+            spawnedPawns++;
+            arrivals.record(trip, sim.now());
+            new PassengerTrip(sim, platforms, pawn, onArrival).start();
+            scheduleNextTrip(sim, platforms, metroMap, metro, trips, onArrival);
+        });
+    }
+
+    /**
+     * Reads the next trip, ending the program if it can't be read. Trip files
+     * are read for the map, so a trip off its walkable cells can't be read
+     *
+     * @return the next Trip or null if there are no more
+     */
+    private static Trip nextTrip(TripSource trips)
+    {
+        Trip trip;
+        try
+        {
+            trip = trips.next();
+        } catch (IOException e)
+        {
+            err.println("ERROR: " + e.getMessage());
+            exit(1);
+            return null;
+        }
+        return trip;
+    }
+
+    /**
+     * Returns the exception thrown by a worker of the fork-join pool, taken
+     * out of the ones the pool wraps it in when rethrowing it in another thread
+     */
+    private static Throwable workerFailure(RuntimeException e)
+    {
+        Throwable cause = e;
+        while (cause.getCause() != null
+                && (cause.getClass() == RuntimeException.class || cause.getCause().getClass() == cause.getClass()))
+        {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    /**
+     * Closes the source of the trips once every one was read
+     */
+    private static void closeTrips(TripSource trips)
+    {
+        try
+        {
+            trips.close();
+        } catch (IOException e)
+        {
+            err.println("Unable to close the trip file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Prints how many tickets were sold at each station, how many per minute
+     * and how long Pawns queued for a booth.
+     *
+     * @param elapsedTime time over which the tickets were sold (ms)
+     */
+    private static void printTicketSales(Track[] tracks, long elapsedTime)
+    {
+        out.println("Ticket sales over " + elapsedTime + " ms:");
+        for (Track track : tracks)
+        {
+            for (Station station : track.getStations())
             {
-                break;
+                int sold = station.getTicketsSold();
+                out.printf("  Station %c at (%d, %d): %d sold, %.1f per minute, queue wait %.2f ms mean, %.2f ms max%n",
+                        station.getTrackSymbol(), station.getLocation().line(), station.getLocation().column(),
+                        sold, elapsedTime == 0 ? 0 : sold * 60000.0 / elapsedTime,
+                        station.getMeanQueueWait(), station.getMaxQueueWait());
             }
         }
     }
+
+    /**
+     * Creates the Labyrinth window for a map file and attaches a Gelem to each
+     * of the track, station and destination symbols.
+     *
+     * @return the Labyrinth object
+     */
+    private static Labyrinth createLabyrinth(String map, Network network)
+    {
+        LabyrinthGelem.setShowRoadBoundaries();
+        Labyrinth.setNumberOfLayers(4);
+        Labyrinth.setWindowName("Metro");
+        Labyrinth metro = new Labyrinth(map, network.getRoadSymbols(), N);
+
+        Color stationColor = Color.getHSBColor(0f, 0f, 0.90f);
+
+        // Attach gelems to each track symbol
+        for (Network.Line line : network.getLines())
+        {
+            // track gelem
+            metro.attachGelemToRoadSymbol(line.getSymbol(), new FilledGelem(line.getColour(), 100, N, N));
+            // station gelem
+            Gelem[] stationGelem = new Gelem[2];
+            stationGelem[0] = new FilledGelem(line.getColour(), 100, N, N);
+            stationGelem[1] = new FilledGelem(stationColor, 30, N, N);
+            metro.attachGelemToRoadSymbol(line.getStationSymbol(), new ComposedGelem(stationGelem));
+        }
+
+        // X marks the destination
+        metro.attachGelemToRoadSymbol('X', new StringGelem("x", Color.BLACK, N, N));
+
+        return metro;
+    }
 }
@@ -0,0 +1,191 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * General description: Histogram of non-negative values with log-linear
+ * buckets, in the manner of HdrHistogram. Values below 2 * SUB_BUCKETS have a
+ * bucket each; above that every power of two is split into SUB_BUCKETS
+ * buckets, so a value is known to within about 1.6%. Recording is a couple of
+ * atomic increments, without locks, so any number of threads may record at
+ * the same time.
+ *
+ * @author Tiago Madeira 76321
+ */
+public class Histogram
+{
+
+    /**
+     * Buckets each power of two is split into, as a power of two
+     */
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * Values are capped at 2^MAX_BITS - 1
+     */
+    private static final int MAX_BITS = 40;
+    private static final long MAX_VALUE = (1L << MAX_BITS) - 1;
+    private static final int NUMBER_OF_BUCKETS = bucketOf(MAX_VALUE) + 1;
+
+    /**
+     * Internal data
+     */
+    private final AtomicLongArray counts = new AtomicLongArray(NUMBER_OF_BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a value
+     *
+     * @param value the value, capped if too large
+     */
+    public void record(long value)
+    {
+        assert value >= 0;
+
+        value = Math.min(value, MAX_VALUE);
+        counts.incrementAndGet(bucketOf(value));
+        total.add(value);
+        if (value > max.get())
+        {
+            max.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    /**
+     * Returns a copy of the values recorded so far, which doesn't change with
+     * later recordings.
+     *
+     * @return the Snapshot
+     */
+    public Snapshot snapshot()
+    {
+        long[] copy = new long[NUMBER_OF_BUCKETS];
+        long count = 0;
+        for (int i = 0; i < NUMBER_OF_BUCKETS; i++)
+        {
+            copy[i] = counts.get(i);
+            count += copy[i];
+        }
+        return new Snapshot(copy, count, total.sum(), max.get());
+    }
+
+    /**
+     * Returns the bucket of a value
+     */
+    private static int bucketOf(long value)
+    {
+        if (value < 2 * SUB_BUCKETS)
+        {
+            return (int) value;
+        }
+
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return SUB_BUCKETS * (shift + 1) + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    /**
+     * Returns the largest value of a bucket
+     */
+    private static long highestValueOf(int bucket)
+    {
+        if (bucket < 2 * SUB_BUCKETS)
+        {
+            return bucket;
+        }
+
+        int shift = bucket / SUB_BUCKETS - 1;
+        long top = bucket % SUB_BUCKETS + SUB_BUCKETS;
+        return ((top + 1) << shift) - 1;
+    }
+
+    /**
+     * General description: The values recorded in a Histogram up to a certain
+     * moment.
+     */
+    public static class Snapshot
+    {
+
+        /**
+         * Internal data
+         */
+        private final long[] counts;
+        private final long count;
+        private final long total;
+        private final long max;
+
+        /**
+         * Constructor
+         */
+        private Snapshot(long[] counts, long count, long total, long max)
+        {
+            this.counts = counts;
+            this.count = count;
+            this.total = total;
+            this.max = max;
+        }
+
+        /**
+         * Returns the number of values recorded.
+         *
+         * @return the number of values
+         */
+        public long getCount()
+        {
+            return count;
+        }
+
+        /**
+         * Returns the largest value recorded.
+         *
+         * @return the largest value, 0 if none was recorded
+         */
+        public long getMax()
+        {
+            return max;
+        }
+
+        /**
+         * Returns the mean of the values recorded.
+         *
+         * @return the mean, 0 if none was recorded
+         */
+        public double getMean()
+        {
+            return count == 0 ? 0 : (double) total / count;
+        }
+
+        /**
+         * Returns the value below which a certain percentage of the values
+         * recorded are, to within the precision of the buckets.
+         *
+         * @param percentile the percentage, between 0 and 100
+         *
+         * @return the value at that percentile, 0 if none was recorded
+         */
+        public long getValueAtPercentile(double percentile)
+        {
+            assert percentile >= 0 && percentile <= 100;
+
+            if (count == 0)
+            {
+                return 0;
+            }
+
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++)
+            {
+                seen += counts[i];
+                if (seen >= rank)
+                {
+                    return Math.min(highestValueOf(i), max);
+                }
+            }
+            return max;
+        }
+    }
+}
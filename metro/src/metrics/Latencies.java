@@ -0,0 +1,149 @@
+package metrics;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import regions.Station;
+
+/**
+ * General description: Durations of each phase of the trips and stops of the
+ * simulation, kept in a Histogram per station and per line (track symbol).
+ * Every duration is recorded for the station it happened at and for its line,
+ * in microseconds. Histograms are created the first time something is
+ * recorded for them.
+ *
+ * @author Tiago Madeira 76321
+ */
+public final class Latencies
+{
+
+    /**
+     * Internal data
+     */
+    private static final Map<Phase, Map<Station, Histogram>> byStation = new EnumMap<>(Phase.class);
+    private static final Map<Phase, Map<Character, Histogram>> byLine = new EnumMap<>(Phase.class);
+
+    static
+    {
+        for (Phase phase : Phase.values())
+        {
+            byStation.put(phase, new ConcurrentHashMap<>());
+            byLine.put(phase, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Constructor
+     */
+    private Latencies()
+    {
+    }
+
+    /**
+     * Records how long a phase took at a station.
+     *
+     * @param phase    the Phase
+     * @param s        the Station it happened at
+     * @param duration how long it took (µs)
+     */
+    public static void record(Phase phase, Station s, long duration)
+    {
+        assert phase != null;
+        assert s != null;
+
+        byStation.get(phase).computeIfAbsent(s, k -> new Histogram()).record(duration);
+        byLine.get(phase).computeIfAbsent(s.getTrackSymbol(), k -> new Histogram()).record(duration);
+    }
+
+    /**
+     * Returns the durations of a phase recorded so far at each station.
+     *
+     * @param phase the Phase
+     *
+     * @return a Snapshot for each station where the phase happened
+     */
+    public static Map<Station, Histogram.Snapshot> stationSnapshots(Phase phase)
+    {
+        assert phase != null;
+
+        Map<Station, Histogram.Snapshot> snapshots = new LinkedHashMap<>();
+        for (Map.Entry<Station, Histogram> entry : byStation.get(phase).entrySet())
+        {
+            snapshots.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        return snapshots;
+    }
+
+    /**
+     * Returns the durations of a phase recorded so far on each line.
+     *
+     * @param phase the Phase
+     *
+     * @return a Snapshot for each track symbol where the phase happened
+     */
+    public static Map<Character, Histogram.Snapshot> lineSnapshots(Phase phase)
+    {
+        assert phase != null;
+
+        Map<Character, Histogram.Snapshot> snapshots = new LinkedHashMap<>();
+        for (Map.Entry<Character, Histogram> entry : byLine.get(phase).entrySet())
+        {
+            snapshots.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        return snapshots;
+    }
+
+    /**
+     * Prints the count, p50, p99 and max of every phase on each line and at
+     * each station, busiest stations first.
+     *
+     * @param out the stream to print to
+     */
+    public static void print(PrintStream out)
+    {
+        assert out != null;
+
+        out.println("Latencies (ms):");
+        for (Phase phase : Phase.values())
+        {
+            Map<Character, Histogram.Snapshot> lines = lineSnapshots(phase);
+            if (lines.isEmpty())
+            {
+                continue;
+            }
+
+            out.println("  " + phase + ":");
+            List<Character> symbols = new ArrayList<>(lines.keySet());
+            symbols.sort(null);
+            for (char symbol : symbols)
+            {
+                print(out, "line " + symbol, lines.get(symbol));
+            }
+
+            List<Map.Entry<Station, Histogram.Snapshot>> stations = new ArrayList<>(stationSnapshots(phase).entrySet());
+            stations.sort(Comparator.comparingLong(
+                    (Map.Entry<Station, Histogram.Snapshot> e) -> e.getValue().getCount()).reversed());
+            for (Map.Entry<Station, Histogram.Snapshot> entry : stations)
+            {
+                Station s = entry.getKey();
+                print(out, "station " + s.getTrackSymbol() + " (" + s.getLocation().line() + ", "
+                        + s.getLocation().column() + ")", entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Prints one line of the table
+     */
+    private static void print(PrintStream out, String name, Histogram.Snapshot snapshot)
+    {
+        out.printf("    %-24s %6d  p50 %9.1f  p99 %9.1f  max %9.1f%n", name, snapshot.getCount(),
+                snapshot.getValueAtPercentile(50) / 1000.0, snapshot.getValueAtPercentile(99) / 1000.0,
+                snapshot.getMax() / 1000.0);
+    }
+}
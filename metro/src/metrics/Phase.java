@@ -0,0 +1,43 @@
+package metrics;
+
+/**
+ * General description: The stages of a passenger's trip, and of a train's
+ * stop, whose durations are measured.
+ *
+ * @author Tiago Madeira 76321
+ */
+public enum Phase
+{
+    WALK_TO_STATION("walk to station"),
+    BUY_TICKET("buy ticket"),
+    WAIT_FOR_TRAIN("wait for train"),
+    RIDE("ride"),
+    WALK_TO_DESTINATION("walk to destination"),
+    DWELL("train dwell");
+
+    /**
+     * Internal data
+     */
+    private final String label;
+
+    /**
+     * Constructor
+     *
+     * @param label name of the phase as shown to users
+     */
+    Phase(String label)
+    {
+        this.label = label;
+    }
+
+    /**
+     * Returns the name of the phase.
+     *
+     * @return a String with the name of the phase
+     */
+    @Override
+    public String toString()
+    {
+        return label;
+    }
+}
@@ -0,0 +1,54 @@
+package metrics;
+
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * General description: How long each phase of the startup of the simulation
+ * took. Each phase is timed from the end of the previous one, so the phases
+ * add up to the whole startup.
+ *
+ * @author Tiago Madeira 76321
+ */
+public class StartupPhases
+{
+
+    /**
+     * Internal data
+     */
+    private final long startTime = System.nanoTime();
+    private long lapTime = startTime;
+    // Duration of each phase, in order (ns)
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+
+    /**
+     * Ends a phase, which began when the previous one ended.
+     *
+     * @param phase the name of the phase
+     */
+    public void lap(String phase)
+    {
+        assert phase != null;
+
+        long now = System.nanoTime();
+        phases.merge(phase, now - lapTime, Long::sum);
+        lapTime = now;
+    }
+
+    /**
+     * Prints how long each phase took and the whole startup.
+     *
+     * @param out the stream to print to
+     */
+    public void print(PrintStream out)
+    {
+        assert out != null;
+
+        out.printf("Startup in %.1f ms:%n", (lapTime - startTime) / 1e6);
+        for (Map.Entry<String, Long> entry : phases.entrySet())
+        {
+            out.printf("  %-24s %9.1f ms%n", entry.getKey(), entry.getValue() / 1e6);
+        }
+    }
+}
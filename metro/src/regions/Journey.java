@@ -0,0 +1,97 @@
+package regions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * General description: A trip planned by the JourneyPlanner. One or more legs
+ * by train, each from the Station where the passenger gets on to the Station
+ * where he gets off. Between two legs the passenger walks to the Station of
+ * the next one.
+ *
+ * @author Tiago Madeira 76321
+ */
+public class Journey
+{
+
+    /**
+     * Estimated time of a journey which wasn't planned, only taken for want of
+     * a better one
+     */
+    public static final long UNKNOWN_TIME = -1;
+
+    /**
+     * Internal data
+     */
+    private final List<Station> boardAt = new ArrayList<>();
+    private final List<Station> alightAt = new ArrayList<>();
+    private final long estimatedTime;
+
+    /**
+     * Constructor
+     *
+     * @param estimatedTime expected duration of the whole trip, walking
+     *                      included (ms), or UNKNOWN_TIME
+     */
+    Journey(long estimatedTime)
+    {
+        this.estimatedTime = estimatedTime;
+    }
+
+    /**
+     * Adds a leg by train to the end of the journey
+     */
+    void addLeg(Station board, Station alight)
+    {
+        assert board != null;
+        assert alight != null;
+
+        boardAt.add(board);
+        alightAt.add(alight);
+    }
+
+    /**
+     * Returns the number of legs by train of the journey
+     *
+     * @return an integer representing the number of legs
+     */
+    public int getNumberOfLegs()
+    {
+        return boardAt.size();
+    }
+
+    /**
+     * Returns the Station where a leg starts
+     *
+     * @param leg index of the leg
+     *
+     * @return the Station to get on the train
+     */
+    public Station getBoardingStation(int leg)
+    {
+        return boardAt.get(leg);
+    }
+
+    /**
+     * Returns the Station where a leg ends
+     *
+     * @param leg index of the leg
+     *
+     * @return the Station to get off the train
+     */
+    public Station getAlightingStation(int leg)
+    {
+        return alightAt.get(leg);
+    }
+
+    /**
+     * Returns the expected duration of the whole trip, walking included
+     *
+     * @return the estimated time (ms) or UNKNOWN_TIME if the journey wasn't
+     *         planned
+     */
+    public long getEstimatedTime()
+    {
+        return estimatedTime;
+    }
+}
@@ -0,0 +1,376 @@
+package regions;
+
+import config.Pace;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import pt.ua.gboard.basic.Position;
+
+/**
+ * General description: Plans journeys across the whole network. Works on a
+ * graph of the stations in which two stations of the same track are linked by
+ * a ride and stations of different tracks next to each other are linked by a
+ * transfer on foot. Shortest times between stations are found with Dijkstra's
+ * algorithm and kept, so each station is only searched from once. Journeys
+ * only start and end at the stations nearest to their ends.
+ *
+ * Times follow the Pace of the simulation: a train makes a move every
+ * TRAIN_STEP_TIME and stays DWELL_TIME at every station; a Pawn takes a step
+ * every WALK_STEP_TIME, crossing a cell every cell size steps. Walks are
+ * estimated as going straight across the map, along the lines and columns.
+ *
+ * @author Tiago Madeira 76321
+ */
+public class JourneyPlanner
+{
+
+    /**
+     * Stations of different tracks at most this many cells apart, in any
+     * direction, are linked by a transfer
+     */
+    private static final int TRANSFER_DISTANCE = 1;
+
+    /**
+     * Number of stations nearest to each end of a journey it may start or
+     * end at
+     */
+    private static final int NEARBY_STATIONS = 16;
+
+    /**
+     * Internal data
+     */
+    private final Station[] stations;
+    private final int[] stationTrack;
+    private final IdentityHashMap<Station, Integer> ids = new IdentityHashMap<>();
+    private final StationIndex allStations;
+    private final int N;
+    // Links leaving each station and their times
+    private final int[][] linkTo;
+    private final long[][] linkTime;
+    private final ConcurrentHashMap<Integer, ShortestPaths> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor
+     *
+     * @param tracks       the tracks of the map, with their trains already
+     *                     created
+     * @param stations     every station of the map
+     * @param stationTrack index of the track of each station
+     * @param allStations  index of every station of the map
+     */
+    JourneyPlanner(Track[] tracks, Station[] stations, int[] stationTrack, StationIndex allStations)
+    {
+        assert tracks != null && tracks.length > 0;
+        assert stations != null && stationTrack != null && allStations != null;
+
+        this.stations = stations;
+        this.stationTrack = stationTrack;
+        this.allStations = allStations;
+        this.N = tracks[0].getCellSize();
+        for (int i = 0; i < stations.length; i++)
+        {
+            ids.put(stations[i], i);
+        }
+
+        List<List<long[]>> links = new ArrayList<>();
+        for (int i = 0; i < stations.length; i++)
+        {
+            links.add(new ArrayList<>());
+        }
+        for (Track track : tracks)
+        {
+            addRides(track, links);
+        }
+        addTransfers(links);
+
+        this.linkTo = new int[stations.length][];
+        this.linkTime = new long[stations.length][];
+        for (int i = 0; i < stations.length; i++)
+        {
+            List<long[]> out = links.get(i);
+            linkTo[i] = new int[out.size()];
+            linkTime[i] = new long[out.size()];
+            for (int k = 0; k < out.size(); k++)
+            {
+                linkTo[i][k] = (int) out.get(k)[0];
+                linkTime[i][k] = out.get(k)[1];
+            }
+        }
+    }
+
+    /**
+     * Plans the quickest journey between two points of the map, going by train
+     * at least once
+     *
+     * @param startPos  the Position within the map for the start of the travel
+     * @param targetPos the Position within the map for the end of the travel
+     *
+     * @return the Journey planned or null if no journey by train exists
+     */
+    public Journey plan(Position startPos, Position targetPos)
+    {
+        assert startPos != null;
+        assert targetPos != null;
+
+        // A station near either end may start or end the journey, the walk
+        // to and from it is part of the time
+        int[] origins = nearby(startPos);
+        int[] destinations = nearby(targetPos);
+        long[] walkOut = new long[destinations.length];
+        for (int i = 0; i < destinations.length; i++)
+        {
+            walkOut[i] = walkTime(destinations[i], targetPos);
+        }
+
+        long bestTime = Long.MAX_VALUE;
+        int bestOrigin = -1;
+        int bestDestination = -1;
+
+        for (int o : origins)
+        {
+            long walkIn = walkTime(o, startPos);
+            if (walkIn >= bestTime)
+            {
+                continue;
+            }
+            ShortestPaths paths = shortestPaths(o);
+
+            for (int i = 0; i < destinations.length; i++)
+            {
+                int d = destinations[i];
+                // Skip stations out of reach, or reached only on foot
+                if (paths.rides[d] == 0 || paths.time[d] == Long.MAX_VALUE)
+                {
+                    continue;
+                }
+
+                long time = walkIn + paths.time[d] + walkOut[i];
+                if (time < bestTime)
+                {
+                    bestTime = time;
+                    bestOrigin = o;
+                    bestDestination = d;
+                }
+            }
+        }
+
+        if (bestOrigin < 0)
+        {
+            return null;
+        }
+
+        // Follow the path back from the destination
+        ShortestPaths paths = shortestPaths(bestOrigin);
+        List<Integer> path = new ArrayList<>();
+        for (int s = bestDestination; s != -1; s = paths.previous[s])
+        {
+            path.add(0, s);
+        }
+
+        Journey journey = new Journey(bestTime);
+        for (int i = 0; i + 1 < path.size(); i++)
+        {
+            int from = path.get(i);
+            int to = path.get(i + 1);
+            // Links within a track are rides, the others are walked
+            if (stationTrack[from] == stationTrack[to])
+            {
+                journey.addLeg(stations[from], stations[to]);
+            }
+        }
+
+        return journey;
+    }
+
+    /**
+     * Ids of the stations nearest to a cell
+     */
+    private int[] nearby(Position pos)
+    {
+        List<Station> nearest = allStations.nearest(pos, NEARBY_STATIONS);
+        int[] nearby = new int[nearest.size()];
+        for (int i = 0; i < nearby.length; i++)
+        {
+            nearby[i] = ids.get(nearest.get(i));
+        }
+        return nearby;
+    }
+
+    /**
+     * Returns the quickest times from a station to every other, searching
+     * them the first time they're needed
+     */
+    private ShortestPaths shortestPaths(int source)
+    {
+        return cache.computeIfAbsent(source, this::dijkstra);
+    }
+
+    /**
+     * Dijkstra's algorithm from a station
+     */
+    private ShortestPaths dijkstra(int source)
+    {
+        ShortestPaths paths = new ShortestPaths(stations.length);
+        paths.time[source] = 0;
+
+        PriorityQueue<long[]> queue = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+        queue.add(new long[]
+        {
+            0, source
+        });
+
+        while (!queue.isEmpty())
+        {
+            long[] head = queue.poll();
+            int s = (int) head[1];
+            if (head[0] > paths.time[s])
+            {
+                continue;
+            }
+
+            for (int k = 0; k < linkTo[s].length; k++)
+            {
+                int next = linkTo[s][k];
+                long time = head[0] + linkTime[s][k];
+                if (time < paths.time[next])
+                {
+                    paths.time[next] = time;
+                    paths.previous[next] = s;
+                    paths.rides[next] = paths.rides[s] + (stationTrack[s] == stationTrack[next] ? 1 : 0);
+                    queue.add(new long[]
+                    {
+                        time, next
+                    });
+                }
+            }
+        }
+
+        return paths;
+    }
+
+    /**
+     * Links every pair of stations of a track by a ride. The time of a ride is
+     * the expected wait for a train, half the time between trains going
+     * through the first station, plus the time to get to the other station
+     * averaged over the directions in which a train goes through the first
+     * one.
+     */
+    private void addRides(Track track, List<List<long[]>> links)
+    {
+        List<Station> stops = track.getStopSequence();
+        int[] stopMoves = track.getStopMoveIndices();
+        int nrStops = stops.size();
+        if (nrStops == 0)
+        {
+            return;
+        }
+
+        long cycleTime = track.getMovesSize() * Pace.TRAIN_STEP_TIME + nrStops * Pace.DWELL_TIME;
+        long wait = cycleTime / (2L * Math.max(1, track.getNumberOfTrains()));
+
+        // Time from each stop to the first time each station is reached after it
+        IdentityHashMap<Station, long[]> total = new IdentityHashMap<>();
+        IdentityHashMap<Station, Integer> visits = new IdentityHashMap<>();
+        for (int i = 0; i < nrStops; i++)
+        {
+            Station from = stops.get(i);
+            visits.merge(from, 1, Integer::sum);
+            long[] times = total.computeIfAbsent(from, k -> new long[stations.length]);
+            boolean[] reached = new boolean[stations.length];
+            reached[ids.get(from)] = true;
+
+            long time = Pace.DWELL_TIME;
+            for (int j = 1; j < nrStops; j++)
+            {
+                int prev = (i + j - 1) % nrStops;
+                int curr = (i + j) % nrStops;
+                int moves = Math.floorMod(stopMoves[curr] - stopMoves[prev], track.getMovesSize());
+                time += moves * Pace.TRAIN_STEP_TIME;
+
+                int to = ids.get(stops.get(curr));
+                if (!reached[to])
+                {
+                    reached[to] = true;
+                    times[to] += time;
+                }
+                time += Pace.DWELL_TIME;
+            }
+        }
+
+        for (Station from : total.keySet())
+        {
+            long[] times = total.get(from);
+            int count = visits.get(from);
+            for (Station to : track.getStations())
+            {
+                int t = ids.get(to);
+                // Stations the trains never stop at can't be reached
+                if (to != from && times[t] > 0)
+                {
+                    links.get(ids.get(from)).add(new long[]
+                    {
+                        t, (wait + times[t]) / count
+                    });
+                }
+            }
+        }
+    }
+
+    /**
+     * Links stations of different tracks next to each other by a transfer on
+     * foot
+     */
+    private void addTransfers(List<List<long[]>> links)
+    {
+        for (int i = 0; i < stations.length; i++)
+        {
+            Position a = stations[i].getLocation();
+            for (Station near : allStations.within(a, TRANSFER_DISTANCE))
+            {
+                int j = ids.get(near);
+                if (stationTrack[i] != stationTrack[j])
+                {
+                    links.get(i).add(new long[]
+                    {
+                        j, walkTime(j, a)
+                    });
+                }
+            }
+        }
+    }
+
+    /**
+     * Time a Pawn takes to walk between a station and a cell, going straight
+     * across the map
+     */
+    private long walkTime(int station, Position pos)
+    {
+        Position s = stations[station].getLocation();
+        int cells = Math.abs(s.line() - pos.line()) + Math.abs(s.column() - pos.column());
+        return (long) cells * N * Pace.WALK_STEP_TIME;
+    }
+
+    /**
+     * Quickest times from a station to every other, the station before each
+     * one on the way and the number of rides taken to get there
+     */
+    private static class ShortestPaths
+    {
+
+        final long[] time;
+        final int[] previous;
+        final int[] rides;
+
+        ShortestPaths(int size)
+        {
+            time = new long[size];
+            previous = new int[size];
+            rides = new int[size];
+            Arrays.fill(time, Long.MAX_VALUE);
+            Arrays.fill(previous, -1);
+        }
+    }
+}
@@ -1,8 +1,18 @@
 package regions;
 
-import java.util.LinkedList;
+import grid.Grid;
+import grid.MapIndex;
+import static java.lang.System.err;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import pt.ua.gboard.basic.Position;
-import pt.ua.gboard.games.Labyrinth;
 
 /**
  * General description: Definition of the MetroMap region. The information
@@ -13,25 +23,119 @@ import pt.ua.gboard.games.Labyrinth;
 public class MetroMap
 {
 
+    /**
+     * Cells of the walking fields kept at once, a byte each. Beyond that the
+     * fields walked to least lately are dropped, and computed again if walked
+     * to once more
+     */
+    private static final int WALKING_FIELD_CELLS = 1 << 26;
+
+    /**
+     * Fewest walking fields kept, however large the map
+     */
+    private static final int MIN_WALKING_FIELDS = 16;
+
     /**
      * Internal data
      */
-    private Labyrinth metro;
+    private Grid metro;
+    private MapIndex index;
     private Track[] tracks;
+    private Station[] stationById;
+    // Index of the track of each station
+    private int[] stationTrack;
+    private Map<Character, Integer> trackIds = new HashMap<>();
+    private StationIndex allStations;
+    private StationIndex[] trackStations;
+    private StationRaster raster;
+    private JourneyPlanner planner;
+    // Walking fields of the target cells walked to lately, by cell index,
+    // least recently used first; shared by every Pawn
+    private Map<Integer, WalkingField> walkingFields;
+
+    /**
+     * Constructor
+     *
+     * @param metro  the map Grid
+     * @param tracks array of the tracks that exist in the world, with their
+     *               trains already created
+     */
+    public MetroMap(Grid metro, Track[] tracks)
+    {
+        this(metro, tracks, null);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param metro       the map Grid
+     * @param tracks      array of the tracks that exist in the world, with
+     *                    their trains already created
+     * @param rasterCache file in which the nearest station to each cell is
+     *                    kept between runs. Read if it was computed for this
+     *                    map; computed and written otherwise. May be null
+     */
+    public MetroMap(Grid metro, Track[] tracks, Path rasterCache)
+    {
+        this(metro, new MapIndex(metro), tracks, rasterCache);
+    }
 
     /**
      * Constructor
      *
-     * @param metro  Labyrinth object
-     * @param tracks array of the tracks that exist in the world
+     * @param metro       the map Grid
+     * @param index       the index of the symbols of the map
+     * @param tracks      array of the tracks that exist in the world, with
+     *                    their trains already created
+     * @param rasterCache file in which the nearest station to each cell is
+     *                    kept between runs. Read if it was computed for this
+     *                    map; computed and written otherwise. May be null
      */
-    public MetroMap(Labyrinth metro, Track[] tracks)
+    public MetroMap(Grid metro, MapIndex index, Track[] tracks, Path rasterCache)
     {
         assert metro != null;
+        assert index != null;
         assert tracks != null;
 
         this.metro = metro;
+        this.index = index;
         this.tracks = tracks;
+
+        // Index the stations once, in the order they'd be scanned
+        List<Station> stationList = new ArrayList<>();
+        List<Integer> trackList = new ArrayList<>();
+        this.trackStations = new StationIndex[tracks.length];
+        for (int t = 0; t < tracks.length; t++)
+        {
+            for (Station station : tracks[t].getStations())
+            {
+                stationList.add(station);
+                trackList.add(t);
+            }
+            trackIds.put(tracks[t].getSymbol(), t);
+            trackStations[t] = new StationIndex(tracks[t].getStations(), metro.numberOfLines(), metro.numberOfColumns());
+        }
+        this.allStations = new StationIndex(stationList, metro.numberOfLines(), metro.numberOfColumns());
+        this.stationById = stationList.toArray(new Station[0]);
+        this.stationTrack = new int[stationById.length];
+        for (int i = 0; i < stationById.length; i++)
+        {
+            stationTrack[i] = trackList.get(i);
+        }
+
+        this.raster = createRaster(rasterCache);
+
+        int maxFields = Math.max(MIN_WALKING_FIELDS,
+                WALKING_FIELD_CELLS / (metro.numberOfLines() * metro.numberOfColumns()));
+        this.walkingFields = new LinkedHashMap<Integer, WalkingField>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, WalkingField> eldest)
+            {
+                return size() > maxFields;
+            }
+        };
+        this.planner = new JourneyPlanner(tracks, stationById, stationTrack, allStations);
     }
 
     /**
@@ -44,28 +148,67 @@ public class MetroMap
     public Station getNearestStation(Position pos)
     {
         assert pos != null;
-        assert pos.column() < metro.numberOfColumns;
-        assert pos.line() < metro.numberOfLines;
+        assert pos.column() < metro.numberOfColumns();
+        assert pos.line() < metro.numberOfLines();
 
-        Station targetStation = null;
-        double dist = Double.MAX_VALUE;
+        int id = raster != null ? raster.nearest(pos.line(), pos.column()) : -1;
+        return id >= 0 ? stationById[id] : allStations.nearest(pos);
+    }
 
-        for (Track track : tracks)
-        {
-            LinkedList<Station> stationList = track.getStations();
+    /**
+     * Calculates the closest station of a certain track to a point in the map
+     *
+     * @param pos      position of a point within the map
+     * @param trackSym the symbol associated with the track
+     *
+     * @return a Station of the track closest to a certain map position or null
+     *         if the track doesn't exist
+     */
+    public Station getNearestStation(Position pos, char trackSym)
+    {
+        assert pos != null;
+        assert pos.column() < metro.numberOfColumns();
+        assert pos.line() < metro.numberOfLines();
 
-            for (Station station : stationList)
-            {
-                double tmpDist = distance(station.getLocation(), pos);
-                if (tmpDist < dist)
-                {
-                    dist = tmpDist;
-                    targetStation = station;
-                }
-            }
-        }
+        Integer t = trackIds.get(trackSym);
+        return t != null ? nearestOnTrack(t, pos) : null;
+    }
+
+    /**
+     * Calculates the k closest stations to a certain point in the map
+     *
+     * @param pos position of a point within the map
+     * @param k   number of stations to find
+     *
+     * @return a list of up to k Stations, closest first
+     */
+    public List<Station> getNearestStations(Position pos, int k)
+    {
+        assert pos != null;
+        assert pos.column() < metro.numberOfColumns();
+        assert pos.line() < metro.numberOfLines();
+
+        return allStations.nearest(pos, k);
+    }
 
-        return targetStation;
+    /**
+     * Calculates the k closest stations of a certain track to a point in the
+     * map
+     *
+     * @param pos      position of a point within the map
+     * @param k        number of stations to find
+     * @param trackSym the symbol associated with the track
+     *
+     * @return a list of up to k Stations of the track, closest first
+     */
+    public List<Station> getNearestStations(Position pos, int k, char trackSym)
+    {
+        assert pos != null;
+        assert pos.column() < metro.numberOfColumns();
+        assert pos.line() < metro.numberOfLines();
+
+        Integer t = trackIds.get(trackSym);
+        return t != null ? trackStations[t].nearest(pos, k) : new ArrayList<>();
     }
 
     /**
@@ -83,73 +226,137 @@ public class MetroMap
     {
         assert startPos != null;
         assert targetPos != null;
-        assert startPos.column() < metro.numberOfColumns;
-        assert startPos.line() < metro.numberOfLines;
-        assert targetPos.column() < metro.numberOfColumns;
-        assert targetPos.line() < metro.numberOfLines;
+        assert startPos.column() < metro.numberOfColumns();
+        assert startPos.line() < metro.numberOfLines();
+        assert targetPos.column() < metro.numberOfColumns();
+        assert targetPos.line() < metro.numberOfLines();
 
         Station[] stations = new Station[2];
 
         // get the station near to the target.
-        Station getOffStation = null;
-        Station getOnStation = null;
-        Track tmpTrack = null;
-        double dist = Double.MAX_VALUE;
-        double distToFirst = Double.MAX_VALUE;
+        Station getOffStation = getNearestStation(targetPos);
 
-        for (Track track : tracks)
-        {
-            LinkedList<Station> stationList = track.getStations();
+        // get the fist station to get on
+        int track = trackIds.get(getOffStation.getTrackSymbol());
+        Station getOnStation = nearestOnTrack(track, startPos);
 
-            for (Station station : stationList)
-            {
-                double tmpDist = distance(station.getLocation(), targetPos);
-                if (tmpDist < dist)
-                {
-                    dist = tmpDist;
-                    getOffStation = station;
-                    tmpTrack = track;
-                }
-            }
+        stations[0] = getOnStation;
+        stations[1] = getOffStation;
+
+        return stations;
+    }
+
+    /**
+     * Plans the quickest journey by train for a certain start and destination,
+     * changing trains where stations of different tracks are next to each
+     * other. When there's no such journey, falls back to a single leg between
+     * the stations given by getPathStations.
+     *
+     * @param startPos  the Position within the map for the start of the travel
+     * @param targetPos the Position within the map for the end of the travel
+     *
+     * @return the Journey to make
+     */
+    public Journey planJourney(Position startPos, Position targetPos)
+    {
+        assert startPos != null;
+        assert targetPos != null;
+        assert startPos.column() < metro.numberOfColumns();
+        assert startPos.line() < metro.numberOfLines();
+        assert targetPos.column() < metro.numberOfColumns();
+        assert targetPos.line() < metro.numberOfLines();
+
+        Journey journey = planner.plan(startPos, targetPos);
+        if (journey == null)
+        {
+            Station[] stations = getPathStations(startPos, targetPos);
+            // Not a planned journey, so there's no time to expect of it
+            journey = new Journey(Journey.UNKNOWN_TIME);
+            journey.addLeg(stations[0], stations[1]);
         }
 
-        // get the fist station to get on
-        LinkedList<Station> stationList = tmpTrack.getStations();
+        return journey;
+    }
 
-        for (Station station : stationList)
+    /**
+     * Returns the walking field toward a cell of the map, computing it unless
+     * it was walked to lately. Fields are computed outside the lock, so two
+     * Pawns may compute the same one at once; the first one kept is returned.
+     *
+     * @param target the Position within the map to walk to
+     *
+     * @return the WalkingField toward the target
+     */
+    public WalkingField getWalkingField(Position target)
+    {
+        assert target != null;
+        assert target.column() < metro.numberOfColumns();
+        assert target.line() < metro.numberOfLines();
+
+        int key = target.line() * metro.numberOfColumns() + target.column();
+        synchronized (walkingFields)
         {
-            double tmpDist = distance(station.getLocation(), startPos);
-            if (tmpDist < distToFirst)
+            WalkingField field = walkingFields.get(key);
+            if (field != null)
             {
-                distToFirst = tmpDist;
-                getOnStation = station;
+                return field;
             }
         }
 
-        stations[0] = getOnStation;
-        stations[1] = getOffStation;
-
-        return stations;
+        WalkingField field = new WalkingField(index, target);
+        synchronized (walkingFields)
+        {
+            WalkingField kept = walkingFields.putIfAbsent(key, field);
+            return kept != null ? kept : field;
+        }
     }
 
     /**
-     * Returns the possible destiny positions for the Pawns.
+     * Returns the possible destiny positions for the Pawns: the free cells of
+     * the map as loaded.
      *
      * @return an array of Positions for the pawns to walk toward.
      */
     public Position[] getDestinyPositions()
     {
-        return metro.symbolPositions(' ');
+        return index.positions(' ');
     }
 
     /**
-     * Returns the possible spawning positions for the pawns.
+     * Returns the possible spawning positions for the pawns: the walkable
+     * cells of the map as loaded.
      *
      * @return an array of Positions for the pawns to spawning in.
      */
     public Position[] getSpawningPositions()
     {
-        return concatArrays(metro.symbolPositions(' '), metro.symbolPositions('X'));
+        return index.positions(' ', 'X');
+    }
+
+    /**
+     * Picks one of the possible destiny positions for the Pawns, without
+     * creating the array of all of them.
+     *
+     * @param random the source of randomness
+     *
+     * @return a Position for a pawn to walk toward
+     */
+    public Position getRandomDestinyPosition(Random random)
+    {
+        return index.randomPosition(random, ' ');
+    }
+
+    /**
+     * Picks one of the possible spawning positions for the Pawns, without
+     * creating the array of all of them.
+     *
+     * @param random the source of randomness
+     *
+     * @return a Position for a pawn to spawn in
+     */
+    public Position getRandomSpawningPosition(Random random)
+    {
+        return index.randomPosition(random, ' ', 'X');
     }
 
     /**
@@ -159,7 +366,7 @@ public class MetroMap
      */
     public int maxL()
     {
-        return metro.numberOfLines - 1;
+        return metro.numberOfLines() - 1;
     }
 
     /**
@@ -169,46 +376,57 @@ public class MetroMap
      */
     public int maxC()
     {
-        return metro.numberOfColumns - 1;
+        return metro.numberOfColumns() - 1;
     }
 
     /**
-     * Calculates the euclidian distance between two Positions
+     * Calculates the closest station of a track to a point
      */
-    private double distance(Position pos1, Position pos2)
+    private Station nearestOnTrack(int track, Position pos)
     {
-        assert pos1 != null;
-        assert pos2 != null;
-
-        int x = Math.abs(pos1.column() - pos2.column());
-        int y = Math.abs(pos1.line() - pos2.line());
-
-        return Math.sqrt(x * x + y * y);
+        return trackStations[track].nearest(pos);
     }
 
     /**
-     * Concatenates two arrays of Positions
-     *
-     * @return an array of Positions containing the concatenated arrays
+     * Reads the raster of nearest stations from the cache file or computes it,
+     * writing it to the cache file. None if there are too many stations for it
      */
-    private Position[] concatArrays(Position[] first, Position[] second)
+    private StationRaster createRaster(Path rasterCache)
     {
-        int size = first.length + second.length;
-        Position[] a = new Position[size];
-        int pt = 0;
+        if (stationById.length > StationRaster.MAX_STATIONS)
+        {
+            // Too many to tell apart in the raster, every query uses the index
+            return null;
+        }
 
-        for (Position tmpPos : first)
+        if (rasterCache != null && Files.exists(rasterCache))
         {
-            a[pt] = tmpPos;
-            pt++;
+            try
+            {
+                StationRaster cached = StationRaster.load(rasterCache, metro, tracks);
+                if (cached != null)
+                {
+                    return cached;
+                }
+            } catch (IOException e)
+            {
+                err.println("Unable to read station raster \"" + rasterCache + "\": " + e.getMessage());
+            }
         }
 
-        for (Position tmpPos : second)
+        StationRaster computed = StationRaster.compute(metro, tracks, stationById);
+
+        if (rasterCache != null)
         {
-            a[pt] = tmpPos;
-            pt++;
+            try
+            {
+                computed.save(rasterCache);
+            } catch (IOException e)
+            {
+                err.println("Unable to write station raster \"" + rasterCache + "\": " + e.getMessage());
+            }
         }
 
-        return a;
+        return computed;
     }
 }
@@ -0,0 +1,43 @@
+package regions;
+
+/**
+ * General description: The moves that make up the cycle of a track.
+ *
+ * @author Tiago Madeira 76321
+ */
+public enum Move
+{
+    UP("Up"), DOWN("Down"), LEFT("Left"), RIGHT("Right");
+
+    /**
+     * Every move, indexed by ordinal
+     */
+    static final Move[] VALUES = values();
+
+    /**
+     * Internal data
+     */
+    private final String label;
+
+    /**
+     * Constructor
+     *
+     * @param label name of the move as shown to users
+     */
+    Move(String label)
+    {
+        this.label = label;
+    }
+
+    /**
+     * Returns the name of the move.
+     *
+     * @return a String with the name of the move: e.g. "Down", "Up", "Right"
+     *         or "Left"
+     */
+    @Override
+    public String toString()
+    {
+        return label;
+    }
+}
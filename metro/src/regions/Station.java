@@ -1,7 +1,13 @@
 package regions;
 
-import entities.Conductor;
 import entities.Pawn;
+import java.util.ArrayDeque;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import jfr.BoardingEvent;
+import jfr.TicketPurchaseEvent;
+import log.EventLog;
+import log.EventType;
 import pt.ua.gboard.basic.Position;
 
 /**
@@ -16,16 +22,25 @@ public class Station
      * Internal data
      */
     private Position location;
-    private boolean canBuyTicket = false;
-    private boolean nextPassengerCanBuyTicket = false;
-    private boolean lastPassengerToEnter = false;
-    private boolean trainIsInStation = false;
-    private int numPassengers = 0;
-    private Train train = null;
+    private int boardingCapacity;
     private int ticketPrice = 10;
     private int ticketsSold = 0;
     private char trackSym;
 
+    // Pawns waiting to buy a ticket, in order of arrival
+    private final ArrayDeque<Sale> purchaseQueue = new ArrayDeque<>();
+    // Pawns waiting on the platform for a train, in order of arrival
+    private final ArrayDeque<Boarding> platform = new ArrayDeque<>();
+    // Time Pawns spent in the purchase queue (ns)
+    private long totalQueueWait = 0;
+    private long maxQueueWait = 0;
+
+    // Explicit lock so that passengers running on virtual threads unmount
+    // from their carrier while waiting
+    private final ReentrantLock lock = new ReentrantLock();
+    // Booths only wait for Pawns to join the purchase queue
+    private final Condition customerWaiting = lock.newCondition();
+
     /**
      * Constructor
      *
@@ -33,167 +48,349 @@ public class Station
      * @param trackSym the symbol associated with the track
      */
     public Station(Position pos, char trackSym)
+    {
+        this(pos, trackSym, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param pos              Position of the Station on the map
+     * @param trackSym         the symbol associated with the track
+     * @param boardingCapacity the most passengers that get into a train each
+     *                         time one stops at the station
+     */
+    public Station(Position pos, char trackSym, int boardingCapacity)
     {
         assert pos != null;
+        assert boardingCapacity > 0;
         this.location = pos;
         this.trackSym = trackSym;
+        this.boardingCapacity = boardingCapacity;
     }
 
     ///////////////////////////////////////////////////////////////////////
     // Pawn
     /**
-     * Sleeps waiting for a signal from the Salesman to buy a ticket. When woken
-     * up processes the transaction. Taking money from the wallet and saving the
-     * ticket. In the end wakes up the Salesman so he can process the next Pawn.
+     * Joins the end of the purchase queue, wakes up one idle booth and sleeps
+     * until a Salesman has sold the ticket. Only this Pawn is woken up when
+     * its sale is done.
+     *
+     * @param pawn the Pawn buying the ticket
      */
-    public synchronized void buyTicket()
+    public void buyTicket(Pawn pawn)
     {
-        //System.out.println("Waiting to buy ticket...");
-        while (!canBuyTicket)
+        assert pawn != null;
+
+        TicketPurchaseEvent event = new TicketPurchaseEvent();
+        event.begin();
+        int queueLength;
+
+        lock.lock();
+        try
         {
-            try
-            {
-                wait();
-            } catch (InterruptedException e)
-            {
+            //System.out.println("Waiting to buy ticket...");
+            Sale sale = new Sale(pawn, lock.newCondition());
+            queueLength = purchaseQueue.size();
+            purchaseQueue.add(sale);
+            customerWaiting.signal();
 
+            while (!sale.done)
+            {
+                sale.sold.awaitUninterruptibly();
             }
+        } finally
+        {
+            lock.unlock();
         }
-        canBuyTicket = false;
 
-        // Process the transaction
-        Pawn tmpPawn = ((Pawn) Thread.currentThread());
-        tmpPawn.updateWalletValue(-ticketPrice);
-        tmpPawn.saveTicket(this.trackSym);
-        this.ticketsSold++;
-        System.out.println(tmpPawn.getName() + ": Bought ticket for track "
-                + tmpPawn.seeTicket() + "! My new balance is " + tmpPawn.getWalletValue() + "€\n");
+        event.commit(this, queueLength);
+    }
+
+    /**
+     * Sells a ticket straight away, without queuing for a booth.
+     * Used by the event-driven simulation, where nobody can sleep waiting for
+     * somebody else.
+     *
+     * @param pawn the Pawn buying the ticket
+     */
+    public void sellTicketTo(Pawn pawn)
+    {
+        assert pawn != null;
 
-        // Wake up salesman so he can process the next Pawn
-        nextPassengerCanBuyTicket = true;
-        notifyAll();
+        processSale(pawn);
+
+        lock.lock();
+        try
+        {
+            ticketsSold++;
+        } finally
+        {
+            lock.unlock();
+        }
     }
 
     /**
-     * Sleep waiting for a train to reach the station. Upon waking up decrease
-     * the variable which counts the number of passengers at the station. Get
-     * the Train reference from the shared variable. If it's the last Pawn to
-     * get into the train signal the Conductor to wake up.
+     * Join the end of the platform and sleep until called into a train. Only
+     * the passengers called into the train are woken up. If it's the last Pawn
+     * to get into the train signal the Conductor to wake up.
      *
      * @return the Train in which the passenger will travel
      */
-    public synchronized Train waitForTrain()
+    public Train waitForTrain()
     {
-        //System.out.println("Gonna sleep in station...");
-        numPassengers++;
-
-        // Wait for the train to reach the station
-        while (!trainIsInStation)
+        lock.lock();
+        try
         {
-            try
-            {
-                wait();
-            } catch (InterruptedException e)
+            //System.out.println("Gonna sleep in station...");
+            Boarding boarding = new Boarding(lock.newCondition());
+            platform.add(boarding);
+
+            // Wait to be called into a train
+            while (boarding.arrival == null)
             {
+                boarding.called.awaitUninterruptibly();
+            }
+            //System.out.println("Woke up in station!");
 
+            // Last passeneger to enter the train wakes up its driver
+            Arrival arrival = boarding.arrival;
+            arrival.boarding--;
+            if (arrival.boarding == 0)
+            {
+                //System.out.println("I was last to get into train!");
+                arrival.allAboard.signal();
             }
-        }
-        //System.out.println("Woke up in station!");
-        numPassengers--;
-        Train t = this.train;
 
-        // Last passeneger to enter the train wakes up the driver
-        if (numPassengers == 0)
+            return arrival.train;
+        } finally
         {
-            //System.out.println("I was last to get into train!");
-            lastPassengerToEnter = true;
-            notifyAll();
+            lock.unlock();
         }
-
-        return t;
     }
 
     ///////////////////////////////////////////////////////////////////////
     // Conductor
     /**
-     * If there are passengers waiting at the station, save the train reference
-     * in the shared variable and signal them to wake up and sleep waiting for
-     * all of them to get into the train. Upon being awaken by the last
-     * passenger to get on, remove the train and reset the variables.
+     * If there are passengers waiting at the station, call the first ones on
+     * the platform into the train, up to the boarding capacity, and sleep
+     * waiting for all of them to get in. The others wait for the next train.
+     * Each train stopping counts down its own passengers, so several trains
+     * may be stopped at the station at once.
+     *
+     * @param t the Train which reached the station
      */
-    public synchronized void letPassengersIntoTrain()
+    public void letPassengersIntoTrain(Train t)
     {
-        if (numPassengers == 0)
-        {
-            return;
-        }
+        assert t != null;
 
-        // get the train into the station
-        this.train = ((Conductor) Thread.currentThread()).getTrain();
-        trainIsInStation = true;
-        notifyAll();
+        BoardingEvent event = new BoardingEvent();
+        event.begin();
+        int boarded;
+        int leftOnPlatform;
 
-        // sleep waiting for passengers to get in
-        while (!lastPassengerToEnter)
+        lock.lock();
+        try
         {
-            try
+            if (platform.isEmpty())
             {
-                wait();
-            } catch (InterruptedException e)
+                return;
+            }
+
+            // call passengers into the train
+            boarded = Math.min(platform.size(), boardingCapacity);
+            leftOnPlatform = platform.size() - boarded;
+            Arrival arrival = new Arrival(t, lock.newCondition(), boarded);
+            for (int i = 0; i < boarded; i++)
             {
+                Boarding boarding = platform.poll();
+                boarding.arrival = arrival;
+                boarding.called.signal();
+            }
 
+            // sleep waiting for passengers to get in
+            while (arrival.boarding > 0)
+            {
+                arrival.allAboard.awaitUninterruptibly();
             }
+            //System.out.println("Train is leaving!");
+        } finally
+        {
+            lock.unlock();
         }
 
-        //System.out.println("Train is leaving!");
-        this.train = null;
-        trainIsInStation = false;
-        lastPassengerToEnter = false;
+        event.commit(this, boarded, leftOnPlatform);
     }
 
     ///////////////////////////////////////////////////////////////////////
     // Salesman
     /**
-     * Infinitely sell tickets at the station. Signal that one transaction may
-     * be completed and sleep. Wait to be awaken by a Pawn completing the
-     * transaction.
+     * Infinitely sell tickets at one booth of the station. Sleep until a Pawn
+     * is in the purchase queue, take the first one and sell the ticket
+     * without holding the station, so that every booth may be selling at the
+     * same time. Wake up only that Pawn when done.
      */
-    public synchronized void sellTickets()
+    public void sellTickets()
     {
-
-        canBuyTicket = true;
-        notifyAll();
-
         // Forever selling tickets
         while (true)
         {
+            Sale sale;
+            lock.lock();
             try
             {
-                while (!nextPassengerCanBuyTicket)
+                while (purchaseQueue.isEmpty())
                 {
-                    try
-                    {
-                        wait();
-                    } catch (InterruptedException e)
-                    {
-                        throw e;
-                    }
+                    customerWaiting.awaitUninterruptibly();
                 }
+                sale = purchaseQueue.poll();
 
-                nextPassengerCanBuyTicket = false;
-
-                canBuyTicket = true;
-                notifyAll();
-            } catch (InterruptedException e)
+                long wait = System.nanoTime() - sale.queuedAt;
+                totalQueueWait += wait;
+                maxQueueWait = Math.max(maxQueueWait, wait);
+            } finally
             {
+                lock.unlock();
+            }
 
+            // The Pawn is asleep until the sale is done
+            processSale(sale.pawn);
+
+            lock.lock();
+            try
+            {
+                ticketsSold++;
+                sale.done = true;
+                sale.sold.signal();
+            } finally
+            {
+                lock.unlock();
             }
 
             // Done with this transaction
-            //System.out.println(((Salesman) Thread.currentThread()).getName()
+            //System.out.println(Thread.currentThread().getName()
             //+ ": Have a nice ride!\n");
         }
+    }
 
+    ///////////////////////////////////////////////////////////////////////
+    // Metrics
+    /**
+     * Returns the number of tickets sold at the station.
+     *
+     * @return the number of tickets sold
+     */
+    public int getTicketsSold()
+    {
+        lock.lock();
+        try
+        {
+            return ticketsSold;
+        } finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of Pawns waiting in the purchase queue.
+     *
+     * @return the length of the purchase queue
+     */
+    public int getQueueLength()
+    {
+        lock.lock();
+        try
+        {
+            return purchaseQueue.size();
+        } finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of Pawns waiting on the platform for a train.
+     *
+     * @return the length of the platform queue
+     */
+    public int getPlatformLength()
+    {
+        lock.lock();
+        try
+        {
+            return platform.size();
+        } finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the mean time Pawns waited in the purchase queue for a booth.
+     *
+     * @return the mean wait in milliseconds
+     */
+    public double getMeanQueueWait()
+    {
+        lock.lock();
+        try
+        {
+            return ticketsSold == 0 ? 0 : totalQueueWait / 1e6 / ticketsSold;
+        } finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the longest time a Pawn waited in the purchase queue for a
+     * booth.
+     *
+     * @return the longest wait in milliseconds
+     */
+    public double getMaxQueueWait()
+    {
+        lock.lock();
+        try
+        {
+            return maxQueueWait / 1e6;
+        } finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes the money from the wallet of a Pawn and saves the ticket. The Pawn
+     * must not be doing anything else meanwhile.
+     */
+    private void processSale(Pawn pawn)
+    {
+        pawn.updateWalletValue(-ticketPrice);
+        pawn.saveTicket(this.trackSym);
+        EventLog.publish(EventType.TICKET_BOUGHT, pawn.getName(), pawn.seeTicket(), pawn.getWalletValue(), 0);
+    }
+
+    /**
+     * Returns the most passengers that get into a train each time one stops at
+     * the station.
+     *
+     * @return the boarding capacity of the platform
+     */
+    public int getBoardingCapacity()
+    {
+        return this.boardingCapacity;
+    }
+
+    /**
+     * Returns the symbol associated with the track of the station.
+     *
+     * @return a char representing the symbol associated with the track
+     */
+    public char getTrackSymbol()
+    {
+        return this.trackSym;
     }
 
     /**
@@ -205,4 +402,58 @@ public class Station
     {
         return this.location;
     }
+
+    /**
+     * A Pawn on the platform, woken up on its own once called into a train
+     */
+    private static class Boarding
+    {
+
+        final Condition called;
+        Arrival arrival = null;
+
+        Boarding(Condition called)
+        {
+            this.called = called;
+        }
+    }
+
+    /**
+     * A train stopped at the station, counting down the passengers it called
+     * in who haven't got on yet. Its Conductor is woken up on its own once
+     * they all have
+     */
+    private static class Arrival
+    {
+
+        final Train train;
+        final Condition allAboard;
+        int boarding;
+
+        Arrival(Train train, Condition allAboard, int boarding)
+        {
+            this.train = train;
+            this.allAboard = allAboard;
+            this.boarding = boarding;
+        }
+    }
+
+    /**
+     * A Pawn in the purchase queue, woken up on its own once the ticket is
+     * sold
+     */
+    private static class Sale
+    {
+
+        final Pawn pawn;
+        final Condition sold;
+        final long queuedAt = System.nanoTime();
+        boolean done = false;
+
+        Sale(Pawn pawn, Condition sold)
+        {
+            this.pawn = pawn;
+            this.sold = sold;
+        }
+    }
 }
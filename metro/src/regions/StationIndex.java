@@ -0,0 +1,299 @@
+package regions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import pt.ua.gboard.basic.Position;
+
+/**
+ * General description: Spatial index of a set of stations. The map is split
+ * in square buckets, each holding the stations inside it, and queries search
+ * the buckets in rings around the point until no closer station can exist.
+ *
+ * Distances are euclidean. Between stations at the same distance, the one
+ * given first to the constructor wins, as in a linear scan.
+ *
+ * @author Tiago Madeira 76321
+ */
+public class StationIndex
+{
+
+    /**
+     * Internal data
+     */
+    private final Station[] stations;
+    private final int[] lines;
+    private final int[] columns;
+    private final int bucketSize;
+    private final int bucketLines;
+    private final int bucketColumns;
+    // Stations of bucket b are bucketItems[bucketStart[b]..bucketStart[b + 1]-1]
+    private final int[] bucketStart;
+    private final int[] bucketItems;
+
+    /**
+     * Constructor
+     *
+     * @param stations        the stations to index
+     * @param numberOfLines   the number of lines of the map
+     * @param numberOfColumns the number of columns of the map
+     */
+    public StationIndex(List<Station> stations, int numberOfLines, int numberOfColumns)
+    {
+        assert stations != null;
+        assert numberOfLines > 0;
+        assert numberOfColumns > 0;
+
+        int n = stations.size();
+        this.stations = stations.toArray(new Station[n]);
+        this.lines = new int[n];
+        this.columns = new int[n];
+        for (int i = 0; i < n; i++)
+        {
+            lines[i] = this.stations[i].getLocation().line();
+            columns[i] = this.stations[i].getLocation().column();
+        }
+
+        // Around one station per bucket
+        this.bucketSize = Math.max(1, (int) Math.sqrt((double) numberOfLines * numberOfColumns / Math.max(1, n)));
+        this.bucketLines = (numberOfLines + bucketSize - 1) / bucketSize;
+        this.bucketColumns = (numberOfColumns + bucketSize - 1) / bucketSize;
+
+        // Counting sort of the stations by bucket, keeping their order
+        this.bucketStart = new int[bucketLines * bucketColumns + 1];
+        for (int i = 0; i < n; i++)
+        {
+            bucketStart[bucketOf(lines[i], columns[i]) + 1]++;
+        }
+        for (int b = 0; b < bucketLines * bucketColumns; b++)
+        {
+            bucketStart[b + 1] += bucketStart[b];
+        }
+        this.bucketItems = new int[n];
+        int[] fill = Arrays.copyOf(bucketStart, bucketStart.length - 1);
+        for (int i = 0; i < n; i++)
+        {
+            bucketItems[fill[bucketOf(lines[i], columns[i])]++] = i;
+        }
+    }
+
+    /**
+     * Finds the station closest to a certain point in the map
+     *
+     * @param pos position of a point within the map
+     *
+     * @return the closest Station or null if there are no stations
+     */
+    public Station nearest(Position pos)
+    {
+        assert pos != null;
+
+        int l = pos.line();
+        int c = pos.column();
+        int bl = clamp(l / bucketSize, bucketLines);
+        int bc = clamp(c / bucketSize, bucketColumns);
+        int maxRing = Math.max(bucketLines, bucketColumns);
+
+        int best = -1;
+        long bestDist = Long.MAX_VALUE;
+
+        for (int r = 0; r <= maxRing; r++)
+        {
+            for (int bi = bl - r; bi <= bl + r; bi++)
+            {
+                if (bi < 0 || bi >= bucketLines)
+                {
+                    continue;
+                }
+                boolean edge = bi == bl - r || bi == bl + r;
+                for (int bj = bc - r; bj <= bc + r; bj += edge ? 1 : 2 * r)
+                {
+                    if (bj >= 0 && bj < bucketColumns)
+                    {
+                        int b = bi * bucketColumns + bj;
+                        for (int k = bucketStart[b]; k < bucketStart[b + 1]; k++)
+                        {
+                            int i = bucketItems[k];
+                            long d = squaredDistance(i, l, c);
+                            if (d < bestDist || (d == bestDist && i < best))
+                            {
+                                bestDist = d;
+                                best = i;
+                            }
+                        }
+                    }
+                    if (r == 0)
+                    {
+                        break;
+                    }
+                }
+            }
+
+            if (best >= 0 && bestDist < outsideRing(r))
+            {
+                break;
+            }
+        }
+
+        return best >= 0 ? stations[best] : null;
+    }
+
+    /**
+     * Finds the stations closest to a certain point in the map
+     *
+     * @param pos position of a point within the map
+     * @param k   the number of stations to find
+     *
+     * @return a list of up to k Stations, closest first
+     */
+    public List<Station> nearest(Position pos, int k)
+    {
+        assert pos != null;
+        assert k >= 0;
+
+        int l = pos.line();
+        int c = pos.column();
+        int bl = clamp(l / bucketSize, bucketLines);
+        int bc = clamp(c / bucketSize, bucketColumns);
+        int maxRing = Math.max(bucketLines, bucketColumns);
+        k = Math.min(k, stations.length);
+
+        // Farthest candidate on top
+        PriorityQueue<long[]> found = new PriorityQueue<>((a, b) -> a[0] != b[0]
+                ? Long.compare(b[0], a[0]) : Long.compare(b[1], a[1]));
+
+        for (int r = 0; r <= maxRing && k > 0; r++)
+        {
+            for (int bi = bl - r; bi <= bl + r; bi++)
+            {
+                if (bi < 0 || bi >= bucketLines)
+                {
+                    continue;
+                }
+                boolean edge = bi == bl - r || bi == bl + r;
+                for (int bj = bc - r; bj <= bc + r; bj += edge ? 1 : 2 * r)
+                {
+                    if (bj >= 0 && bj < bucketColumns)
+                    {
+                        int b = bi * bucketColumns + bj;
+                        for (int m = bucketStart[b]; m < bucketStart[b + 1]; m++)
+                        {
+                            int i = bucketItems[m];
+                            long[] candidate =
+                            {
+                                squaredDistance(i, l, c), i
+                            };
+                            if (found.size() < k)
+                            {
+                                found.add(candidate);
+                            } else if (found.comparator().compare(candidate, found.peek()) > 0)
+                            {
+                                found.poll();
+                                found.add(candidate);
+                            }
+                        }
+                    }
+                    if (r == 0)
+                    {
+                        break;
+                    }
+                }
+            }
+
+            if (found.size() == k && found.peek()[0] < outsideRing(r))
+            {
+                break;
+            }
+        }
+
+        Station[] result = new Station[found.size()];
+        for (int i = result.length - 1; i >= 0; i--)
+        {
+            result[i] = stations[(int) found.poll()[1]];
+        }
+        return new ArrayList<>(Arrays.asList(result));
+    }
+
+    /**
+     * Finds the stations at most a certain number of lines and columns away
+     * from a point in the map
+     *
+     * @param pos      position of a point within the map
+     * @param distance the most lines, and the most columns, a station may be
+     *                 away
+     *
+     * @return a list of the Stations found, in the order they were given to
+     *         the constructor
+     */
+    public List<Station> within(Position pos, int distance)
+    {
+        assert pos != null;
+        assert distance >= 0;
+
+        int l = pos.line();
+        int c = pos.column();
+        List<Integer> found = new ArrayList<>();
+        for (int bi = clamp((l - distance) / bucketSize, bucketLines); bi <= clamp((l + distance) / bucketSize,
+                bucketLines); bi++)
+        {
+            for (int bj = clamp((c - distance) / bucketSize, bucketColumns); bj <= clamp((c + distance)
+                    / bucketSize, bucketColumns); bj++)
+            {
+                int b = bi * bucketColumns + bj;
+                for (int k = bucketStart[b]; k < bucketStart[b + 1]; k++)
+                {
+                    int i = bucketItems[k];
+                    if (Math.abs(lines[i] - l) <= distance && Math.abs(columns[i] - c) <= distance)
+                    {
+                        found.add(i);
+                    }
+                }
+            }
+        }
+
+        found.sort(null);
+        List<Station> result = new ArrayList<>(found.size());
+        for (int i : found)
+        {
+            result.add(stations[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Lowest squared distance from a point to a station outside the buckets
+     * searched up to a certain ring
+     */
+    private long outsideRing(int r)
+    {
+        long d = (long) r * bucketSize + 1;
+        return d * d;
+    }
+
+    /**
+     * Squared euclidian distance from a station to a point
+     */
+    private long squaredDistance(int i, int l, int c)
+    {
+        long x = columns[i] - c;
+        long y = lines[i] - l;
+        return x * x + y * y;
+    }
+
+    /**
+     * Returns the bucket of a cell of the map
+     */
+    private int bucketOf(int l, int c)
+    {
+        return clamp(l / bucketSize, bucketLines) * bucketColumns + clamp(c / bucketSize, bucketColumns);
+    }
+
+    /**
+     * Keeps a bucket coordinate within bounds
+     */
+    private static int clamp(int v, int size)
+    {
+        return Math.max(0, Math.min(size - 1, v));
+    }
+}
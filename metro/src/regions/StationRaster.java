@@ -0,0 +1,292 @@
+package regions;
+
+import grid.Grid;
+import grid.MapIndex;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import pt.ua.gboard.basic.Position;
+
+/**
+ * General description: Nearest station to every walkable cell of the map. A
+ * discrete Voronoi partition of the map, filled by one sweep spreading out
+ * from every station at once, so that nearest station queries from a walkable
+ * cell are a single array read. May be saved to disk so it needn't be
+ * computed again for the same map.
+ *
+ * Stations are identified by their index in the array given on construction,
+ * kept in a char per cell, so there may be at most MAX_STATIONS of them.
+ *
+ * @author Tiago Madeira 76321
+ */
+public class StationRaster
+{
+
+    /**
+     * Most stations a raster can tell apart
+     */
+    static final int MAX_STATIONS = Character.MAX_VALUE;
+
+    /**
+     * File format identification: "MRST" and version
+     */
+    private static final int MAGIC = 0x4d525354;
+    private static final int VERSION = 2;
+
+    // Marks the cells with no station
+    private static final char NONE = Character.MAX_VALUE;
+    // Steps to the eight neighbours of a cell
+    private static final int[] STEP_L =
+    {
+        -1, -1, -1, 0, 0, 1, 1, 1
+    };
+    private static final int[] STEP_C =
+    {
+        -1, 0, 1, -1, 1, -1, 0, 1
+    };
+
+    /**
+     * Internal data
+     */
+    private final int numberOfLines;
+    private final int numberOfColumns;
+    private final long fingerprint;
+    // Index of the nearest station for each cell, NONE if the cell isn't
+    // walkable
+    private final char[] nearest;
+
+    /**
+     * Constructor
+     */
+    private StationRaster(int numberOfLines, int numberOfColumns, long fingerprint, char[] nearest)
+    {
+        this.numberOfLines = numberOfLines;
+        this.numberOfColumns = numberOfColumns;
+        this.fingerprint = fingerprint;
+        this.nearest = nearest;
+    }
+
+    /**
+     * Computes the raster for the walkable cells of a map. Every station
+     * claims its own cell, then each claimed cell offers its station to its
+     * eight neighbours, which take it if it's closer than the one they have.
+     * Between stations at the same distance the one given first wins, as in
+     * StationIndex.
+     *
+     * @param metro    the map Grid
+     * @param tracks   the tracks of the map
+     * @param stations every station of the map, at most MAX_STATIONS
+     *
+     * @return the StationRaster computed
+     */
+    static StationRaster compute(Grid metro, Track[] tracks, Station[] stations)
+    {
+        assert metro != null;
+        assert tracks != null && stations != null;
+        assert stations.length <= MAX_STATIONS;
+
+        int lines = metro.numberOfLines();
+        int columns = metro.numberOfColumns();
+        int cells = lines * columns;
+        char[] nearest = new char[cells];
+        Arrays.fill(nearest, NONE);
+        int[] stationL = new int[stations.length];
+        int[] stationC = new int[stations.length];
+
+        // Cells waiting to offer their station, each one at most once
+        int[] queue = new int[cells];
+        boolean[] queued = new boolean[cells];
+        int head = 0;
+        int size = 0;
+
+        for (int i = stations.length - 1; i >= 0; i--)
+        {
+            stationL[i] = stations[i].getLocation().line();
+            stationC[i] = stations[i].getLocation().column();
+            int cell = stationL[i] * columns + stationC[i];
+            // The first of the stations sharing a cell keeps it
+            nearest[cell] = (char) i;
+            if (!queued[cell])
+            {
+                queued[cell] = true;
+                queue[size++] = cell;
+            }
+        }
+
+        while (size > 0)
+        {
+            int cell = queue[head];
+            head = head + 1 == cells ? 0 : head + 1;
+            size--;
+            queued[cell] = false;
+
+            int s = nearest[cell];
+            int l = cell / columns;
+            int c = cell % columns;
+            for (int k = 0; k < STEP_L.length; k++)
+            {
+                int nl = l + STEP_L[k];
+                int nc = c + STEP_C[k];
+                if (nl < 0 || nl >= lines || nc < 0 || nc >= columns)
+                {
+                    continue;
+                }
+                int next = nl * columns + nc;
+                int other = nearest[next];
+                if (other != NONE)
+                {
+                    long d = squaredDistance(stationL[s], stationC[s], nl, nc);
+                    long otherD = squaredDistance(stationL[other], stationC[other], nl, nc);
+                    if (d > otherD || (d == otherD && s >= other))
+                    {
+                        continue;
+                    }
+                }
+                nearest[next] = (char) s;
+                if (!queued[next])
+                {
+                    queued[next] = true;
+                    queue[(head + size) % cells] = next;
+                    size++;
+                }
+            }
+        }
+
+        // Only walkable cells are looked up
+        for (int l = 0; l < lines; l++)
+        {
+            for (int c = 0; c < columns; c++)
+            {
+                if (!MapIndex.isWalkable(metro.roadSymbol(l, c)))
+                {
+                    nearest[l * columns + c] = NONE;
+                }
+            }
+        }
+
+        return new StationRaster(lines, columns, fingerprint(metro, tracks), nearest);
+    }
+
+    /**
+     * Reads a raster from a file, if it was computed for the same map and
+     * stations
+     *
+     * @param file   the file to read
+     * @param metro  the map Grid
+     * @param tracks the tracks of the map
+     *
+     * @return the StationRaster read or null if the file is for another map
+     *
+     * @throws IOException if the file can't be read
+     */
+    static StationRaster load(Path file, Grid metro, Track[] tracks) throws IOException
+    {
+        assert file != null;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file))))
+        {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION)
+            {
+                return null;
+            }
+
+            int lines = in.readInt();
+            int columns = in.readInt();
+            long fp = in.readLong();
+            if (lines != metro.numberOfLines() || columns != metro.numberOfColumns()
+                    || fp != fingerprint(metro, tracks))
+            {
+                return null;
+            }
+
+            char[] nearest = new char[lines * columns];
+            for (int i = 0; i < nearest.length; i++)
+            {
+                nearest[i] = in.readChar();
+            }
+
+            return new StationRaster(lines, columns, fp, nearest);
+        }
+    }
+
+    /**
+     * Writes the raster to a file
+     *
+     * @param file the file to write
+     *
+     * @throws IOException if the file can't be written
+     */
+    void save(Path file) throws IOException
+    {
+        assert file != null;
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file))))
+        {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(numberOfLines);
+            out.writeInt(numberOfColumns);
+            out.writeLong(fingerprint);
+            for (char id : nearest)
+            {
+                out.writeChar(id);
+            }
+        }
+    }
+
+    /**
+     * Returns the nearest station to a cell
+     *
+     * @param l line of the cell
+     * @param c column of the cell
+     *
+     * @return the index of the nearest station or -1 if the cell isn't
+     *         walkable
+     */
+    int nearest(int l, int c)
+    {
+        char id = nearest[l * numberOfColumns + c];
+        return id != NONE ? id : -1;
+    }
+
+    /**
+     * Returns the squared distance from a station to a cell
+     */
+    private static long squaredDistance(int stationL, int stationC, int l, int c)
+    {
+        long dl = l - stationL;
+        long dc = c - stationC;
+        return dl * dl + dc * dc;
+    }
+
+    /**
+     * Summarizes what the raster depends on: the walkable cells of the map and
+     * the symbol and stations of each track
+     */
+    private static long fingerprint(Grid metro, Track[] tracks)
+    {
+        long h = 17;
+        for (int l = 0; l < metro.numberOfLines(); l++)
+        {
+            for (int c = 0; c < metro.numberOfColumns(); c++)
+            {
+                h = h * 31 + (MapIndex.isWalkable(metro.roadSymbol(l, c)) ? 1 : 0);
+            }
+        }
+        for (Track track : tracks)
+        {
+            h = h * 31 + track.getSymbol();
+            for (Station station : track.getStations())
+            {
+                h = h * 31 + station.getLocation().line();
+                h = h * 31 + station.getLocation().column();
+            }
+        }
+        return h;
+    }
+}
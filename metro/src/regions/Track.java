@@ -1,11 +1,16 @@
 package regions;
 
 import entities.Salesman;
-import static java.lang.System.err;
-import static java.lang.System.exit;
+import grid.Grid;
+import grid.MapIndex;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.List;
 import pt.ua.gboard.basic.Position;
-import pt.ua.gboard.games.Labyrinth;
 
 /**
  * General description: Definition of the Track region. Including logic of the
@@ -16,20 +21,124 @@ import pt.ua.gboard.games.Labyrinth;
 public class Track
 {
 
+    /**
+     * Offsets of the cells adjacent to a cell: up, down, left and right
+     */
+    private static final int[] NEIGHBOUR_L =
+    {
+        -1, 1, 0, 0
+    };
+    private static final int[] NEIGHBOUR_C =
+    {
+        0, 0, -1, 1
+    };
+
     /**
      * Internal data
      */
-    private LinkedList<String> trackMoves = new LinkedList<>();
+    // Cycle of moves, as Move ordinals
+    private byte[] trackMoves;
     private LinkedList<Station> stations = new LinkedList<>();
-    private Labyrinth metro;
+    // Position (times the cell size) of a train about to make each move
+    private int[] cycleL;
+    private int[] cycleC;
+    // Station where a train about to make each move is, null if none
+    private Station[] stopAt;
+    // Indices of the moves made from a station, in order
+    private int[] stopMoveIdx;
+    private Grid metro;
     private char symbol;
     private char stationSymbol;
     private int N;
+    private int numberOfTrains = 0;
+
+    /**
+     * Constructor
+     *
+     * @param metro         the map Grid
+     * @param startPos      the Position corresponding to where the cycle of the
+     *                      track should begin
+     * @param endPos        the Position corresponding to where the cycle of the
+     *                      track should end
+     * @param stationSymbol the symbol associated with the stations of this
+     *                      track
+     * @param symbol        the symbol associated with the track
+     * @param N             the cell size used in the visual representation
+     *
+     * @throws IllegalArgumentException if a cycle can't be determined from
+     *                                  the start and end positions given
+     */
+    public Track(Grid metro, Position startPos, Position endPos, char symbol, char stationSymbol, int N)
+    {
+        this(metro, startPos, endPos, symbol, stationSymbol, N, 1, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param metro         the map Grid
+     * @param startPos      the Position corresponding to where the cycle of the
+     *                      track should begin
+     * @param endPos        the Position corresponding to where the cycle of the
+     *                      track should end
+     * @param stationSymbol the symbol associated with the stations of this
+     *                      track
+     * @param symbol        the symbol associated with the track
+     * @param N             the cell size used in the visual representation
+     * @param booths        the number of ticket booths at each station, each
+     *                      one with its own Salesman. None when tickets are
+     *                      sold by whoever calls Station.sellTicketTo
+     * @param capacity      the most passengers that get into a train each
+     *                      time one stops at a station
+     *
+     * @throws IllegalArgumentException if a cycle can't be determined from
+     *                                  the start and end positions given
+     */
+    public Track(Grid metro, Position startPos, Position endPos, char symbol, char stationSymbol, int N,
+            int booths, int capacity)
+    {
+        this(metro, new MapIndex(metro), startPos, endPos, symbol, stationSymbol, N, booths, capacity);
+    }
+
+    /**
+     * Constructor. The track goes back and forth between its two terminals,
+     * the ends of the line found on the map, beginning at the first one.
+     *
+     * @param metro         the map Grid
+     * @param index         the index of the symbols of the map
+     * @param symbol        the symbol associated with the track
+     * @param stationSymbol the symbol associated with the stations of this
+     *                      track
+     * @param N             the cell size used in the visual representation
+     * @param booths        the number of ticket booths at each station, each
+     *                      one with its own Salesman. None when tickets are
+     *                      sold by whoever calls Station.sellTicketTo
+     * @param capacity      the most passengers that get into a train each
+     *                      time one stops at a station
+     *
+     * @throws IllegalArgumentException if the line doesn't have exactly two
+     *                                  terminals or a cycle can't be
+     *                                  determined between them
+     */
+    public Track(Grid metro, MapIndex index, char symbol, char stationSymbol, int N, int booths, int capacity)
+    {
+        this(metro, index, terminals(index, symbol, stationSymbol), symbol, stationSymbol, N, booths, capacity);
+    }
+
+    /**
+     * Constructor between the terminals found on the map
+     */
+    private Track(Grid metro, MapIndex index, Position[] terminals, char symbol, char stationSymbol, int N,
+            int booths, int capacity)
+    {
+        this(metro, index, terminals[0], terminals[1], symbol, stationSymbol, N, booths, capacity);
+    }
 
     /**
      * Constructor
      *
-     * @param metro         the Labyrinth object
+     * @param metro         the map Grid
+     * @param index         the index of the symbols of the map
      * @param startPos      the Position corresponding to where the cycle of the
      *                      track should begin
      * @param endPos        the Position corresponding to where the cycle of the
@@ -38,25 +147,41 @@ public class Track
      *                      track
      * @param symbol        the symbol associated with the track
      * @param N             the cell size used in the visual representation
+     * @param booths        the number of ticket booths at each station, each
+     *                      one with its own Salesman. None when tickets are
+     *                      sold by whoever calls Station.sellTicketTo
+     * @param capacity      the most passengers that get into a train each
+     *                      time one stops at a station
+     *
+     * @throws IllegalArgumentException if a cycle can't be determined from
+     *                                  the start and end positions given
      */
-    public Track(Labyrinth metro, Position startPos, Position endPos, char symbol, char stationSymbol, int N)
+    public Track(Grid metro, MapIndex index, Position startPos, Position endPos, char symbol, char stationSymbol,
+            int N, int booths, int capacity)
     {
         assert metro != null;
+        assert index != null;
+        assert booths >= 0;
+        assert capacity > 0;
         this.metro = metro;
         this.symbol = symbol;
         this.stationSymbol = stationSymbol;
         this.N = N;
-        Position[] trackSym = concatArrays(metro.symbolPositions(symbol), metro.symbolPositions(stationSymbol));
-        LinkedList<String> trackPartA = determineTrack(trackSym, startPos);
-        trackSym = concatArrays(metro.symbolPositions(symbol), metro.symbolPositions(stationSymbol));
-        LinkedList<String> trackPartB = determineTrack(trackSym, endPos);
-        LinkedList<String> Track = new LinkedList<>();
+        Position[] trackSym = index.positions(symbol, stationSymbol);
+        ArrayList<Move> trackPartA = determineTrack(trackSym, startPos);
+        ArrayList<Move> trackPartB = determineTrack(trackSym, endPos);
+        ArrayList<Move> Track = new ArrayList<>();
         Track.addAll(trackPartA);
         addUTurn(Track);
         Track.addAll(trackPartB);
         addUTurn(Track);
-        this.trackMoves = Track;
-        createStationList();
+        this.trackMoves = new byte[Track.size()];
+        for (int i = 0; i < trackMoves.length; i++)
+        {
+            trackMoves[i] = (byte) Track.get(i).ordinal();
+        }
+        createStationList(index.positions(stationSymbol), booths, capacity);
+        createStopIndex(startPos);
     }
 
     /**
@@ -89,8 +214,8 @@ public class Track
      */
     public Station getStation(int l, int c)
     {
-        assert l / N < metro.numberOfLines;
-        assert c / N < metro.numberOfColumns;
+        assert l / N < metro.numberOfLines();
+        assert c / N < metro.numberOfColumns();
 
         for (Station station : stations)
         {
@@ -102,6 +227,77 @@ public class Track
         return null;
     }
 
+    /**
+     * Determines what station a train is at when about to make a certain move
+     * of the cycle
+     *
+     * @param moveIdx index of the move within the cycle
+     *
+     * @return the reference to the station or null if the train isn't at one
+     */
+    public Station getStationAt(int moveIdx)
+    {
+        return stopAt[moveIdx];
+    }
+
+    /**
+     * Returns the stations a train stops at along a full circulation of the
+     * track, starting at the beginning of the cycle. Each station shows up
+     * once per direction the train goes through it.
+     *
+     * @return a read-only List containing the stations in the order they're
+     *         reached
+     */
+    public List<Station> getStopSequence()
+    {
+        Station[] sequence = new Station[stopMoveIdx.length];
+        for (int i = 0; i < sequence.length; i++)
+        {
+            sequence[i] = stopAt[stopMoveIdx[i]];
+        }
+        return Collections.unmodifiableList(Arrays.asList(sequence));
+    }
+
+    /**
+     * Returns the index of the move made from each of the stops returned by
+     * getStopSequence(). The number of moves between two stops, times the time
+     * a move takes, gives the time it takes to go from one to the other.
+     *
+     * @return an array containing the move indices, in order
+     */
+    public int[] getStopMoveIndices()
+    {
+        return stopMoveIdx.clone();
+    }
+
+    /**
+     * Returns the number of trains riding on this track
+     *
+     * @return an integer representing the number of trains
+     */
+    public synchronized int getNumberOfTrains()
+    {
+        return numberOfTrains;
+    }
+
+    /**
+     * Counts a new train riding on this track
+     */
+    synchronized void addTrain()
+    {
+        numberOfTrains++;
+    }
+
+    /**
+     * Returns the cell size used in the visual representation
+     *
+     * @return an integer representing the cell size
+     */
+    public int getCellSize()
+    {
+        return N;
+    }
+
     /**
      * Returns the number of moves in a full circulation of the track
      *
@@ -110,121 +306,239 @@ public class Track
      */
     public int getMovesSize()
     {
-        return trackMoves.size();
+        return trackMoves.length;
+    }
+
+    /**
+     * Returns a move of this track's cycle
+     *
+     * @param idx index of the move within the cycle
+     *
+     * @return the ordinal of the Move
+     */
+    public byte getMove(int idx)
+    {
+        return trackMoves[idx];
     }
 
     /**
      * Returns the list of moves for this track's cycle
      *
-     * @return a LinkedList containing all the moves for the track: e.g. "Down",
-     *         "Up", "Right" or "Left"
+     * @return a read-only List containing all the moves for the track: e.g.
+     *         "Down", "Up", "Right" or "Left"
      */
-    public LinkedList<String> getTrackMoves()
+    public List<String> getTrackMoves()
     {
-        return this.trackMoves;
+        return new AbstractList<String>()
+        {
+            @Override
+            public String get(int idx)
+            {
+                return Move.VALUES[trackMoves[idx]].toString();
+            }
+
+            @Override
+            public int size()
+            {
+                return trackMoves.length;
+            }
+        };
     }
 
     /**
-     * Determine the list of Stations along this Track
+     * Determine the list of Stations along this Track and open their booths
      */
-    private void createStationList()
+    private void createStationList(Position[] stationPositions, int booths, int capacity)
     {
-        Position[] stationPositions = metro.symbolPositions(stationSymbol);
         for (Position stationPosition : stationPositions)
         {
-            Station tmpStation = new Station(stationPosition, this.symbol);
+            Station tmpStation = new Station(stationPosition, this.symbol, capacity);
             stations.add(tmpStation);
-            Salesman ticketSalesman = new Salesman("Salesman_at_" + tmpStation.getLocation(), tmpStation);
-            ticketSalesman.start();
+            for (int b = 0; b < booths; b++)
+            {
+                Salesman ticketSalesman = new Salesman("Salesman_" + b + "_at_" + tmpStation.getLocation(), tmpStation);
+                ticketSalesman.start();
+            }
         }
     }
 
     /**
-     * Determines the moves corresponding to a track based on an array of
-     * Positions
-     *
-     * @return a LinkedList containing all the moves for the track: e.g. "Down",
-     *         "Up", "Right" or "Left"
+     * Follows the cycle from its starting position, saving where a train is
+     * and at which station, if any, before each move
      */
-    private LinkedList<String> determineTrack(Position[] trackCoords, Position start)
+    private void createStopIndex(Position startPos)
     {
-        assert trackCoords != null;
-        assert start != null;
-
-        int nrCoords = trackCoords.length;
-        LinkedList<String> track = new LinkedList<>();
+        HashMap<Long, Station> stationCells = new HashMap<>();
+        for (Station station : stations)
+        {
+            stationCells.put(cellKey(station.getLocation().line(), station.getLocation().column()), station);
+        }
 
-        Position currCoord = null;
-        Position nextCoord = null;
-        Position nextNextCoord;
+        int size = trackMoves.length;
+        int inc = N / 2;
+        int l = startPos.line() * N;
+        int c = startPos.column() * N;
+        cycleL = new int[size];
+        cycleC = new int[size];
+        stopAt = new Station[size];
+        int nrStops = 0;
 
-        // Start at point provided
-        for (int i = 0; i < nrCoords; i++)
+        for (int i = 0; i < size; i++)
         {
-            if (trackCoords[i].isEqual(start))
+            cycleL[i] = l;
+            cycleC[i] = c;
+            if (l % N == 0 && c % N == 0)
             {
-                currCoord = trackCoords[i];
-                trackCoords[i] = null;
+                stopAt[i] = stationCells.get(cellKey(l / N, c / N));
+                if (stopAt[i] != null)
+                {
+                    nrStops++;
+                }
             }
-        }
 
-        if (currCoord == null)
-        {
-            err.println("Starting point for determination of moves must be part of the track!");
-            exit(1);
+            int t = Transitions.index(trackMoves[i], trackMoves[(i + 1) % size]);
+            if (Transitions.VALID[t])
+            {
+                l += inc * Transitions.STEP_L[t];
+                c += inc * Transitions.STEP_C[t];
+            }
         }
 
-        String tmpNext = "";
-        for (int j = 0; j < nrCoords; j++)
+        stopMoveIdx = new int[nrStops];
+        int pt = 0;
+        for (int i = 0; i < size; i++)
         {
-            if (trackCoords[j] == null)
+            if (stopAt[i] != null)
             {
-                continue;
-            }
-            tmpNext = determineDir(currCoord, trackCoords[j]);
-            if (!tmpNext.equals(""))
-            {
-                nextCoord = trackCoords[j];
-                trackCoords[j] = null;
-                break;
+                stopMoveIdx[pt] = i;
+                pt++;
             }
         }
+    }
 
-        if (nextCoord == null)
+    /**
+     * Returns the first move of the cycle, from a given one on, that a train
+     * makes from the middle of a cell. A train may only be placed on the
+     * track at such a move.
+     *
+     * @param moveIdx index of the move within the cycle
+     *
+     * @return the index of the move
+     */
+    public int nextCellMove(int moveIdx)
+    {
+        int idx = moveIdx % trackMoves.length;
+        while (cycleL[idx] % N != 0 || cycleC[idx] % N != 0)
         {
-            err.println("There's a break in the track!");
-            exit(1);
+            idx = (idx + 1) % trackMoves.length;
         }
+        return idx;
+    }
 
-        track.add(tmpNext);
+    /**
+     * Returns the line (times the cell size) of a train about to make a move
+     */
+    int cycleLine(int moveIdx)
+    {
+        return cycleL[moveIdx];
+    }
 
-        tmpNext = "";
-        for (int i = 0; i < nrCoords - 2; i++)
+    /**
+     * Returns the column (times the cell size) of a train about to make a move
+     */
+    int cycleColumn(int moveIdx)
+    {
+        return cycleC[moveIdx];
+    }
+
+    /**
+     * Finds the two terminals of a line on the map: the cells of the line next
+     * to a single other one
+     *
+     * @return the Positions of the terminals, in the order they're on the map
+     */
+    private static Position[] terminals(MapIndex index, char symbol, char stationSymbol)
+    {
+        int[] ends = index.ends(symbol, stationSymbol);
+        if (ends.length != 2)
+        {
+            throw new IllegalArgumentException("Line '" + symbol + "' must have two terminals, "
+                    + ends.length + " found!");
+        }
+        return new Position[]
         {
-            nextNextCoord = null;
-            String tmpNextNext = "";
+            index.position(ends[0]), index.position(ends[1])
+        };
+    }
 
-            for (int j = 0; j < nrCoords; j++)
-            {
-                if (trackCoords[j] == null)
-                {
-                    continue;
-                }
+    /**
+     * Packs the line and column of a cell into a single key
+     */
+    private static long cellKey(int line, int column)
+    {
+        return ((long) line << 32) | (column & 0xffffffffL);
+    }
 
-                tmpNextNext = determineDir(nextCoord, trackCoords[j]);
-                if (!tmpNextNext.equals(""))
-                {
-                    nextNextCoord = trackCoords[j];
-                    trackCoords[j] = null;
-                    break;
-                }
-            }
+    /**
+     * Determines the moves corresponding to a track based on an array of
+     * Positions. Walks the track from the starting point, each step going to
+     * the adjacent Position not yet visited, the first one in the array if
+     * there are several.
+     *
+     * @return a list containing all the moves for the track
+     *
+     * @throws IllegalArgumentException if the starting point isn't part of
+     *                                  the track or the track is broken
+     */
+    private ArrayList<Move> determineTrack(Position[] trackCoords, Position start)
+    {
+        assert trackCoords != null;
+        assert start != null;
+
+        int nrCoords = trackCoords.length;
+        ArrayList<Move> track = new ArrayList<>();
+
+        // Index of each coordinate, to look up neighbours in constant time
+        HashMap<Long, Integer> coordIdx = new HashMap<>(2 * nrCoords);
+        for (int i = 0; i < nrCoords; i++)
+        {
+            coordIdx.put(cellKey(trackCoords[i].line(), trackCoords[i].column()), i);
+        }
+        boolean[] visited = new boolean[nrCoords];
+
+        // Start at point provided
+        Integer startIdx = coordIdx.get(cellKey(start.line(), start.column()));
+        if (startIdx == null)
+        {
+            throw new IllegalArgumentException("Starting point " + start + " for determination of moves must be"
+                    + " part of the track '" + symbol + "'!");
+        }
+        Position currCoord = trackCoords[startIdx];
+        visited[startIdx] = true;
+
+        int nextIdx = nextCoord(trackCoords, coordIdx, visited, currCoord);
+        if (nextIdx < 0)
+        {
+            throw brokenTrack(currCoord);
+        }
+        Position nextCoord = trackCoords[nextIdx];
+        visited[nextIdx] = true;
+        Position nextNextCoord;
+
+        Move tmpNext = determineDir(currCoord, nextCoord);
+        track.add(tmpNext);
 
-            if (nextNextCoord == null)
+        tmpNext = null;
+        for (int i = 0; i < nrCoords - 2; i++)
+        {
+            int nextNextIdx = nextCoord(trackCoords, coordIdx, visited, nextCoord);
+            if (nextNextIdx < 0)
             {
-                err.println("There's a break in the track!");
-                exit(1);
+                throw brokenTrack(nextCoord);
             }
+            nextNextCoord = trackCoords[nextNextIdx];
+            visited[nextNextIdx] = true;
+            Move tmpNextNext = determineDir(nextCoord, nextNextCoord);
 
             if (isOuterTurn(tmpNext, tmpNextNext))
             {
@@ -251,35 +565,65 @@ public class Track
         return track;
     }
 
+    /**
+     * Finds the Position adjacent to another not yet visited, the first one in
+     * the array if there are several
+     *
+     * @return the index of the Position found or -1 if there's none
+     */
+    private int nextCoord(Position[] trackCoords, HashMap<Long, Integer> coordIdx, boolean[] visited, Position curr)
+    {
+        int best = -1;
+
+        for (int n = 0; n < NEIGHBOUR_L.length; n++)
+        {
+            Integer idx = coordIdx.get(cellKey(curr.line() + NEIGHBOUR_L[n], curr.column() + NEIGHBOUR_C[n]));
+            if (idx != null && !visited[idx] && (best < 0 || idx < best))
+            {
+                best = idx;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Creates the error for a track which can't be followed any further
+     */
+    private IllegalArgumentException brokenTrack(Position pos)
+    {
+        return new IllegalArgumentException("There's a break in the track '" + symbol + "' after " + pos + "!");
+    }
+
     /**
      * Determines a direction based on two consecutive Positions
      *
-     * @return a string corresponding to the direction: "Down", "Up", "Right" or
-     *         "Left"
+     * @return the Move corresponding to the direction or null if the Positions
+     *         aren't consecutive
      */
-    private String determineDir(Position curr, Position next)
+    private Move determineDir(Position curr, Position next)
     {
         assert curr != null;
         assert next != null;
 
-        String dir = "";
+        Move dir = null;
         if (next.column() == curr.column())
         {
             if (next.line() == curr.line() + 1)
             {
-                dir = "Down";
+                dir = Move.DOWN;
             } else if (next.line() == curr.line() - 1)
             {
-                dir = "Up";
+                dir = Move.UP;
             }
         } else if (next.line() == curr.line())
         {
             if (next.column() == curr.column() + 1)
             {
-                dir = "Right";
+                dir = Move.RIGHT;
             } else if (next.column() == curr.column() - 1)
             {
-                dir = "Left";
+                dir = Move.LEFT;
             }
         }
         return dir;
@@ -288,32 +632,32 @@ public class Track
     /**
      * Adds a U turn to the end of a track, allowing for the train turn back
      */
-    private void addUTurn(LinkedList<String> route)
+    private void addUTurn(ArrayList<Move> route)
     {
         assert route != null;
 
-        String end = route.peekLast();
+        Move end = route.get(route.size() - 1);
         switch (end)
         {
-            case "Right":
-                route.add("Down");
-                route.add("Down");
-                route.add("Left");
+            case RIGHT:
+                route.add(Move.DOWN);
+                route.add(Move.DOWN);
+                route.add(Move.LEFT);
                 break;
-            case "Left":
-                route.add("Up");
-                route.add("Up");
-                route.add("Right");
+            case LEFT:
+                route.add(Move.UP);
+                route.add(Move.UP);
+                route.add(Move.RIGHT);
                 break;
-            case "Down":
-                route.add("Left");
-                route.add("Left");
-                route.add("Up");
+            case DOWN:
+                route.add(Move.LEFT);
+                route.add(Move.LEFT);
+                route.add(Move.UP);
                 break;
-            case "Up":
-                route.add("Right");
-                route.add("Right");
-                route.add("Down");
+            case UP:
+                route.add(Move.RIGHT);
+                route.add(Move.RIGHT);
+                route.add(Move.DOWN);
                 break;
         }
     }
@@ -324,12 +668,12 @@ public class Track
      * @return <code>true</code> if it corresponds to an outer turn;
      *         <code>false</code> otherwise
      */
-    private boolean isOuterTurn(String currDir, String nextDir)
+    private boolean isOuterTurn(Move currDir, Move nextDir)
     {
-        return currDir.equals("Right") && nextDir.equals("Down")
-                || currDir.equals("Down") && nextDir.equals("Left")
-                || currDir.equals("Left") && nextDir.equals("Up")
-                || currDir.equals("Up") && nextDir.equals("Right");
+        return currDir == Move.RIGHT && nextDir == Move.DOWN
+                || currDir == Move.DOWN && nextDir == Move.LEFT
+                || currDir == Move.LEFT && nextDir == Move.UP
+                || currDir == Move.UP && nextDir == Move.RIGHT;
     }
 
     /**
@@ -338,37 +682,11 @@ public class Track
      * @return <code>true</code> if it corresponds to an inner turn;
      *         <code>false</code> otherwise
      */
-    private boolean isInnerTurn(String currDir, String nextDir)
+    private boolean isInnerTurn(Move currDir, Move nextDir)
     {
-        return currDir.equals("Down") && nextDir.equals("Right")
-                || currDir.equals("Left") && nextDir.equals("Down")
-                || currDir.equals("Up") && nextDir.equals("Left")
-                || currDir.equals("Right") && nextDir.equals("Up");
-    }
-
-    /**
-     * Concatenates two arrays of Positions
-     *
-     * @return an array of Positions containing the concatenated arrays
-     */
-    private Position[] concatArrays(Position[] first, Position[] second)
-    {
-        int size = first.length + second.length;
-        Position[] a = new Position[size];
-        int pt = 0;
-
-        for (Position tmpPos : first)
-        {
-            a[pt] = tmpPos;
-            pt++;
-        }
-
-        for (Position tmpPos : second)
-        {
-            a[pt] = tmpPos;
-            pt++;
-        }
-
-        return a;
+        return currDir == Move.DOWN && nextDir == Move.RIGHT
+                || currDir == Move.LEFT && nextDir == Move.DOWN
+                || currDir == Move.UP && nextDir == Move.LEFT
+                || currDir == Move.RIGHT && nextDir == Move.UP;
     }
 }
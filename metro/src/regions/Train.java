@@ -1,13 +1,20 @@
 package regions;
 
-import entities.Inspector;
 import entities.Pawn;
-import java.util.LinkedList;
-import pt.ua.gboard.GBoard;
-import pt.ua.gboard.Gelem;
-import pt.ua.gboard.basic.ImageGelem;
+import grid.Grid;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import jfr.AlightingEvent;
+import jfr.TicketInspectionEvent;
+import log.EventLog;
+import log.EventType;
 import pt.ua.gboard.basic.Position;
-import pt.ua.gboard.games.Labyrinth;
+import render.Renderer;
+import render.Sprite;
 
 /**
  * General description: Definition of the Train region.
@@ -20,64 +27,89 @@ public class Train
     /**
      * Internal data
      */
-    private Labyrinth metro;
-    private GBoard board;
+    private Grid metro;
+    private Renderer renderer;
     private Track track;
-    private LinkedList<String> trackMoves;
     private int l, c;
     private int N;
     private int layer;
+    // Index of the next move within the track cycle
     private int moveCnt;
-    private Gelem trainRightUp, trainRight, trainRightDown, trainDownRight,
-            trainDown, trainDownLeft, trainLeftDown, trainLeft, trainLeftUp,
-            trainUpLeft, trainUp, trainUpRight;
-    private Gelem currTrain;
-    // Offset to draw Gelem correctly
+    // Sprite for each (move, nextMove) transition, null if not possible
+    private Sprite[] transitionSprites = new Sprite[Transitions.COUNT];
+    private Sprite currTrain;
+    // Offset to draw Sprite correctly
     private int offsetL;
     private int offsetC;
 
-    private Station currStation = null;
-
-    private boolean canShowTicket = false;
-    private boolean nextPassengerCanShowTicket = false;
-    private char ticketBeingChecked = '0';
-    private Pawn passengerBeingChecked = null;
-
-    private boolean trainIsInStation = false;
-    private boolean lastPassengerToAwake = false;
+    // Tickets shown by passengers since the last inspection sweep
+    private List<ShownTicket> shownTickets = new ArrayList<>();
+    private boolean sweepDue = false;
+    private int ticketsChecked = 0;
+    private int finesApplied = 0;
 
     private int numPassengers = 0;
-    private int numPassengersToAwake = 0;
-    private int numAwakenPassengers = 0;
+    // Passengers let off at the current stop who haven't woken up yet
+    private int numPassengersLeaving = 0;
+    // Passengers on board waiting for each station to get off
+    private final Map<Station, Stop> stops = new HashMap<>();
+
+    // Explicit lock so that passengers running on virtual threads unmount
+    // from their carrier while waiting
+    private final ReentrantLock lock = new ReentrantLock();
+    // The Inspector waits for the train to leave with tickets to check
+    private final Condition ticketsShown = lock.newCondition();
+    // The Conductor waits for the passengers let off at a stop
+    private final Condition allOff = lock.newCondition();
+
+    /**
+     * Constructor. The train spawns where it makes a move of the cycle of the
+     * track from the middle of a cell: the given one or the first such move
+     * after it.
+     *
+     * @param metroMap the map Grid
+     * @param renderer the Renderer used to draw the train
+     * @param track    the Track on which the train moves
+     * @param moveCnt  the index for the list of moves of the cycle
+     * @param cellSize the cell size used in the visual representation
+     * @param layer    the layer in which to draw the train Sprite
+     */
+    public Train(Grid metroMap, Renderer renderer, Track track, int moveCnt, int cellSize, int layer)
+    {
+        this(metroMap, renderer, track, cellPosition(track, moveCnt, cellSize), track.nextCellMove(moveCnt),
+                cellSize, layer);
+    }
 
     /**
      * Constructor
      *
-     * @param metroMap Labyrinth object
-     * @param board    GBoard object
+     * @param metroMap the map Grid
+     * @param renderer the Renderer used to draw the train
      * @param track    the Track on which the train moves
      * @param startPos the starting position in which the train spawns
      * @param moveCnt  the index for the list of moves of the cycle
      * @param cellSize the cell size used in the visual representation
-     * @param layer    the layer in which to draw the train Gelem
+     * @param layer    the layer in which to draw the train Sprite
      */
-    public Train(Labyrinth metroMap, GBoard board, Track track,
+    public Train(Grid metroMap, Renderer renderer, Track track,
             Position startPos, int moveCnt, int cellSize, int layer)
     {
         assert metroMap != null;
-        assert board != null;
+        assert renderer != null;
         assert track != null;
         this.metro = metroMap;
-        this.board = board;
+        this.renderer = renderer;
         this.track = track;
-        this.trackMoves = track.getTrackMoves();
         this.l = startPos.line() * cellSize;
         this.c = startPos.column() * cellSize;
-        this.moveCnt = moveCnt;
+        this.moveCnt = moveCnt % track.getMovesSize();
+        assert l == track.cycleLine(this.moveCnt) && c == track.cycleColumn(this.moveCnt)
+                : "Train must start where the track cycle is at the given move";
 
         this.N = cellSize;
         this.layer = layer;
 
+        track.addTrain();
         loadImages();
         setupTrain();
     }
@@ -85,375 +117,385 @@ public class Train
     ///////////////////////////////////////////////////////////////////////
     // Pawn
     /**
-     * Sleeps waiting for a signal from the Inspector he can show the ticket.
-     * When woken up saves information in the shared variables about themselves
-     * and their ticket. In the end wakes up the Salesman so he can check the
-     * information provided and process the next Pawn.
+     * Hands the ticket over for the next inspection sweep, without waiting for
+     * the Inspector.
+     *
+     * @param pawn the Pawn showing the ticket
      */
-    public synchronized void showTicket()
+    public void showTicket(Pawn pawn)
     {
+        assert pawn != null;
 
-        while (!canShowTicket)
+        lock.lock();
+        try
         {
-            try
-            {
-                wait();
-            } catch (InterruptedException e)
-            {
-
-            }
+            shownTickets.add(new ShownTicket(pawn, pawn.checkTicket()));
+        } finally
+        {
+            lock.unlock();
         }
-        canShowTicket = false;
-
-        ticketBeingChecked = ((Pawn) Thread.currentThread()).checkTicket();
-        passengerBeingChecked = ((Pawn) Thread.currentThread());
-
-        // wake up inspector
-        nextPassengerCanShowTicket = true;
-        notifyAll();
     }
 
     /**
      * Get on the train
      */
-    public synchronized void getOn()
+    public void getOn()
     {
-        numPassengers++;
+        lock.lock();
+        try
+        {
+            numPassengers++;
+        } finally
+        {
+            lock.unlock();
+        }
     }
 
     /**
-     * Sleep waiting for the Conductor to signal a station has been reached.
-     * Wake up and increment the number of awaken passengers, check the current
-     * station of the train. If it was the last passenger to wake up then signal
-     * the Conductor to wake up. Return the current station.
+     * Sleep with the other passengers getting off at the same station until
+     * the Conductor signals it has been reached. Passengers getting off
+     * elsewhere aren't woken up. If it was the last passenger to wake up then
+     * signal the Conductor to wake up.
      *
-     * @return the Station in which the train is currently
+     * @param s the Station in which to get off the train
      */
-    public synchronized Station waitForStop()
+    public void waitForStop(Station s)
     {
+        assert s != null;
 
-        // Wait for the train to reach a station
-        while (!trainIsInStation)
+        lock.lock();
+        try
         {
-            try
-            {
-                wait();
-            } catch (InterruptedException e)
-            {
+            Stop stop = stops.computeIfAbsent(s, k -> new Stop(lock.newCondition()));
+            stop.numPassengers++;
 
+            // Wait for the train to reach the station
+            while (!stop.reached)
+            {
+                stop.reachedCondition.awaitUninterruptibly();
             }
-        }
-
-        numAwakenPassengers++;
-        Station s = currStation;
 
-        // Last passeneger to awake
-        if (numAwakenPassengers == numPassengersToAwake)
+            // Last passeneger to awake
+            numPassengersLeaving--;
+            if (numPassengersLeaving == 0)
+            {
+                //System.out.println("I was last to wake up in train!");
+                allOff.signal();
+            }
+        } finally
         {
-            //System.out.println("I was last to wake up in train!");
-            lastPassengerToAwake = true;
-            notifyAll();
+            lock.unlock();
         }
-
-        return s;
     }
 
     /**
      * Get off the train
      */
-    public synchronized void getOff()
+    public void getOff()
     {
-        numPassengers--;
+        lock.lock();
+        try
+        {
+            numPassengers--;
+        } finally
+        {
+            lock.unlock();
+        }
     }
 
     ///////////////////////////////////////////////////////////////////////
     // Inspector
     /**
-     * Infinitely checking tickets within a train. Signal that one ticket may be
-     * shown and sleep. Wait to be awaken by a Pawn who placed information in
-     * the shared variables about themselves and their ticket. Check whether the
-     * ticket is valid and apply a fine if it's not. Reset variables.
+     * Infinitely checking tickets within a train. Sleep until the train leaves
+     * a station with tickets shown, then check all of them in one sweep.
      */
-    public synchronized void checkTickets()
+    public void checkTickets()
     {
-        //System.out.println("Waiting for tickets!");
-
-        canShowTicket = true;
-        notifyAll();
-
         // Forever checking tickets
         while (true)
         {
+            lock.lock();
             try
             {
-                while (!nextPassengerCanShowTicket)
+                //System.out.println("Waiting for tickets!");
+                while (!sweepDue)
                 {
-                    try
-                    {
-                        wait();
-                    } catch (InterruptedException e)
-                    {
-                        throw e;
-                    }
+                    ticketsShown.awaitUninterruptibly();
                 }
+                sweepDue = false;
+            } finally
+            {
+                lock.unlock();
+            }
 
-                nextPassengerCanShowTicket = false;
+            sweepTickets(Thread.currentThread().getName());
+        }
+    }
 
-                if (ticketBeingChecked == track.getSymbol())
-                {
-                    System.out.println(((Inspector) Thread.currentThread()).getName()
-                            + ": " + passengerBeingChecked.getName() + "'s ticket is valid for this train!\n");
-                } else
-                {
-                    System.out.println(((Inspector) Thread.currentThread()).getName()
-                            + ": This ticket is not valid! " + passengerBeingChecked.getName()
-                            + " will be fined!\n");
-                    passengerBeingChecked.updateWalletValue(50);
-                }
-                passengerBeingChecked = null;
-                ticketBeingChecked = '0';
+    /**
+     * Checks every ticket shown since the last sweep, applies the fines for
+     * the ones not valid for this train and reports how many there were. Used
+     * by the Inspector and straight away by the event-driven simulation.
+     *
+     * @param inspectorName name of the inspector checking the tickets
+     */
+    public void sweepTickets(String inspectorName)
+    {
+        assert inspectorName != null;
 
-                canShowTicket = true;
-                notifyAll();
-            } catch (InterruptedException e)
+        TicketInspectionEvent event = new TicketInspectionEvent();
+        event.begin();
+        List<ShownTicket> batch;
+        lock.lock();
+        try
+        {
+            if (shownTickets.isEmpty())
             {
+                return;
+            }
+            batch = shownTickets;
+            shownTickets = new ArrayList<>();
+        } finally
+        {
+            lock.unlock();
+        }
 
+        int fines = 0;
+        for (ShownTicket shown : batch)
+        {
+            if (shown.ticket != track.getSymbol())
+            {
+                shown.pawn.updateWalletValue(50);
+                fines++;
             }
         }
 
+        lock.lock();
+        try
+        {
+            ticketsChecked += batch.size();
+            finesApplied += fines;
+        } finally
+        {
+            lock.unlock();
+        }
+
+        EventLog.publish(EventType.TICKETS_CHECKED, inspectorName, track.getSymbol(), batch.size(), fines);
+        event.commit(track.getSymbol(), inspectorName, batch.size(), fines);
+    }
+
+    /**
+     * Returns the number of passengers on board.
+     *
+     * @return the number of passengers on the train
+     */
+    public int getNumberOfPassengers()
+    {
+        lock.lock();
+        try
+        {
+            return numPassengers;
+        } finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of tickets checked on this train.
+     *
+     * @return the number of tickets checked
+     */
+    public int getTicketsChecked()
+    {
+        lock.lock();
+        try
+        {
+            return ticketsChecked;
+        } finally
+        {
+            lock.unlock();
+        }
     }
 
-    ///////////////////////////////////////////////////////////////////////
-    // Conductor
     /**
-     * If there are passengers within the train, save the station reference in
-     * the shared variable and signal them to wake up. Sleep waiting for all of
-     * them to wake up and check the station. Upon being awaken by the last
-     * passenger to wake up and check, reset the variables.
+     * Returns the number of fines applied on this train.
      *
-     * @param s the Station reference to be saved in the shared variable
+     * @return the number of fines applied
      */
-    public synchronized void letPassengersOffTheTrain(Station s)
+    public int getFinesApplied()
     {
-        if (numPassengers == 0)
+        lock.lock();
+        try
+        {
+            return finesApplied;
+        } finally
         {
-            return;
+            lock.unlock();
         }
+    }
+
+    ///////////////////////////////////////////////////////////////////////
+    // Conductor
+    /**
+     * If there are passengers getting off at a station, signal only them to
+     * wake up and sleep waiting for all of them to leave. Passengers staying
+     * on board are never woken up.
+     *
+     * @param s the Station reached
+     */
+    public void letPassengersOffTheTrain(Station s)
+    {
+        assert s != null;
 
-        this.currStation = s;
-        this.numPassengersToAwake = numPassengers;
-        trainIsInStation = true;
-        notifyAll();
+        AlightingEvent event = new AlightingEvent();
+        event.begin();
+        int alighted;
+        int onBoard;
 
-        // Sleep waiting for passengers to wake up and check the current station
-        while (!lastPassengerToAwake)
+        lock.lock();
+        try
         {
-            try
-            {
-                wait();
-            } catch (InterruptedException e)
+            Stop stop = stops.remove(s);
+            if (stop == null)
             {
+                return;
+            }
+            alighted = stop.numPassengers;
+            onBoard = numPassengers - alighted;
 
+            numPassengersLeaving = stop.numPassengers;
+            stop.reached = true;
+            stop.reachedCondition.signalAll();
+
+            // Sleep waiting for passengers to wake up and leave
+            while (numPassengersLeaving > 0)
+            {
+                allOff.awaitUninterruptibly();
             }
+        } finally
+        {
+            lock.unlock();
         }
 
-        // All the passengers have checked the station and left if they should
-        this.currStation = null;
-        this.numPassengersToAwake = 0;
-        this.numAwakenPassengers = 0;
-        trainIsInStation = false;
-        lastPassengerToAwake = false;
+        event.commit(s, alighted, onBoard);
     }
 
     /**
-     * Load images and create the Gelems required by the train animation.
+     * Returns the cell a train is at when about to make a move of the cycle of
+     * a track, or the first move after it made from the middle of a cell
+     */
+    private static Position cellPosition(Track track, int moveCnt, int cellSize)
+    {
+        int idx = track.nextCellMove(moveCnt);
+        return new Position(track.cycleLine(idx) / cellSize, track.cycleColumn(idx) / cellSize);
+    }
+
+    /**
+     * Load images and create the Sprites required by the train animation.
      */
     private void loadImages()
     {
         // Create sprite
-        trainRightUp = new ImageGelem("trainRightUp.png", board, 100, 4, 4);
+        transitionSprites[Transitions.index(Move.RIGHT, Move.UP)] = renderer.image("trainRightUp.png", 4, 4);
         // Right
-        trainRight = new ImageGelem("trainRight.png", board, 100, N / 4, N);
+        transitionSprites[Transitions.index(Move.RIGHT, Move.RIGHT)] = renderer.image("trainRight.png", N / 4, N);
 
-        trainRightDown = new ImageGelem("trainRightDown.png", board, 100, 4, 4);
-        trainDownRight = new ImageGelem("trainDownRight.png", board, 100, 4, 4);
+        transitionSprites[Transitions.index(Move.RIGHT, Move.DOWN)] = renderer.image("trainRightDown.png", 4, 4);
+        transitionSprites[Transitions.index(Move.DOWN, Move.RIGHT)] = renderer.image("trainDownRight.png", 4, 4);
         // Down
-        trainDown = new ImageGelem("trainDown.png", board, 100, N, N / 4);
+        transitionSprites[Transitions.index(Move.DOWN, Move.DOWN)] = renderer.image("trainDown.png", N, N / 4);
 
-        trainDownLeft = new ImageGelem("trainDownLeft.png", board, 100, 4, 4);
-        trainLeftDown = new ImageGelem("trainLeftDown.png", board, 100, 4, 4);
+        transitionSprites[Transitions.index(Move.DOWN, Move.LEFT)] = renderer.image("trainDownLeft.png", 4, 4);
+        transitionSprites[Transitions.index(Move.LEFT, Move.DOWN)] = renderer.image("trainLeftDown.png", 4, 4);
         // Left
-        trainLeft = new ImageGelem("trainLeft.png", board, 100, N / 4, N);
+        transitionSprites[Transitions.index(Move.LEFT, Move.LEFT)] = renderer.image("trainLeft.png", N / 4, N);
 
-        trainLeftUp = new ImageGelem("trainLeftUp.png", board, 100, 4, 4);
-        trainUpLeft = new ImageGelem("trainUpLeft.png", board, 100, 4, 4);
+        transitionSprites[Transitions.index(Move.LEFT, Move.UP)] = renderer.image("trainLeftUp.png", 4, 4);
+        transitionSprites[Transitions.index(Move.UP, Move.LEFT)] = renderer.image("trainUpLeft.png", 4, 4);
         // Up
-        trainUp = new ImageGelem("trainUp.png", board, 100, N, N / 4);
+        transitionSprites[Transitions.index(Move.UP, Move.UP)] = renderer.image("trainUp.png", N, N / 4);
 
-        trainUpRight = new ImageGelem("trainUpRight.png", board, 100, 4, 4);
+        transitionSprites[Transitions.index(Move.UP, Move.RIGHT)] = renderer.image("trainUpRight.png", 4, 4);
     }
 
     /**
-     * Place the train on the track and draw the corresponding Gelem.
+     * Place the train on the track and draw the corresponding Sprite.
      */
     private void setupTrain()
     {
-
-        String move = trackMoves.get(moveCnt);
-
-        // First move of the track positions train
-        switch (move)
-        {
-            case "Right":
-                offsetL = 0;
-                offsetC = 0;
-                currTrain = trainRight;
-                break;
-            case "Left":
-                offsetL = 3;
-                offsetC = 0;
-                currTrain = trainLeft;
-                break;
-            case "Down":
-                offsetL = 0;
-                offsetC = 3;
-                currTrain = trainDown;
-                break;
-            case "Up":
-                offsetL = 0;
-                offsetC = 0;
-                currTrain = trainUp;
-                break;
-        }
+        // First move of the track positions train, as if it was going straight
+        int move = track.getMove(moveCnt);
+        int t = Transitions.index(move, move);
+        offsetL = Transitions.OFFSET_L[t];
+        offsetC = Transitions.OFFSET_C[t];
+        currTrain = transitionSprites[t];
 
         // Bring sprite to life
-        board.draw(currTrain, l + offsetL, c + offsetC, layer);
-
-        //System.out.println("Starting station: ");
-        //System.out.println(l + ", " + c);
-        //System.out.println("################");
-        GBoard.sleep(200);
-
+        renderer.draw(currTrain, l + offsetL, c + offsetC, layer);
     }
 
     /**
      * Moving function for the train. Takes into consideration the next two
-     * steps in oder to correctly animate the motion using the Image Gelems.
+     * steps in oder to correctly animate the motion using the image Sprites.
      */
     public void move()
     {
 
         // Step
-        int cInc = N / 2;
-        int lInc = N / 2;
+        int inc = N / 2;
 
-        Gelem oldTrain = currTrain;
+        Sprite oldTrain = currTrain;
         int oldL = l + offsetL;
         int oldC = c + offsetC;
 
-        String move, nextMove;
         //markPosition(l / N, c / N);
-        move = trackMoves.get(moveCnt % trackMoves.size());
-        nextMove = trackMoves.get((moveCnt + 1) % trackMoves.size());
+        int nextCnt = moveCnt + 1 == track.getMovesSize() ? 0 : moveCnt + 1;
+        int t = Transitions.index(track.getMove(moveCnt), track.getMove(nextCnt));
 
-        switch (move)
+        if (Transitions.VALID[t])
         {
-            case "Right":
-                if (nextMove.equals(move))
-                {
-                    c += cInc * 1;
-                    offsetL = 0;
-                    offsetC = 0;
-                    currTrain = trainRight;
-                } else if (nextMove.equals("Down"))
-                {   // outer turn
-                    l += lInc * -1;
-                    offsetL = 2;
-                    offsetC = 0;
-                    currTrain = trainRightDown;
-                } else if (nextMove.equals("Up"))
-                {   //inner turn
-                    l += lInc * -1;
-                    c += cInc * 2;
-                    offsetL = 0;
-                    offsetC = -2;
-                    currTrain = trainRightUp;
-                }
-                break;
-            case "Left":
-                if (nextMove.equals(move))
-                {
-                    c += cInc * -1;
-                    offsetL = 3;
-                    offsetC = 0;
-                    currTrain = trainLeft;
-                } else if (nextMove.equals("Down"))
-                {   // inner turn
-                    l += lInc * 1;
-                    c += cInc * -2;
-                    offsetL = 0;
-                    offsetC = 2;
-                    currTrain = trainLeftDown;
-                } else if (nextMove.equals("Up"))
-                {   // outer turn
-                    l += lInc * 1;
-                    offsetL = -2;
-                    offsetC = 0;
-                    currTrain = trainLeftUp;
-                }
-                break;
-            case "Down":
-                if (nextMove.equals(move))
-                {
-                    l += lInc * 1;
-                    offsetL = 0;
-                    offsetC = 3;
-                    currTrain = trainDown;
-                } else if (nextMove.equals("Right"))
-                {   // inner turn
-                    l += lInc * 2;
-                    c += cInc * 1;
-                    offsetL = -2;
-                    offsetC = 0;
-                    currTrain = trainDownRight;
-                } else if (nextMove.equals("Left"))
-                {   // outer turn
-                    c += cInc * 1;
-                    offsetL = 0;
-                    offsetC = -2;
-                    currTrain = trainDownLeft;
-                }
-                break;
-            case "Up":
-                if (nextMove.equals(move))
-                {
-                    l += lInc * -1;
-                    offsetL = 0;
-                    offsetC = 0;
-                    currTrain = trainUp;
-                } else if (nextMove.equals("Right"))
-                {   // outer turn
-                    c += cInc * -1;
-                    offsetL = 0;
-                    offsetC = 2;
-                    currTrain = trainUpRight;
-                } else if (nextMove.equals("Left"))
-                {   // inner turn
-                    l += lInc * -2;
-                    c += cInc * -1;
-                    offsetL = 2;
-                    offsetC = 0;
-                    currTrain = trainUpLeft;
-                }
-                break;
+            l += inc * Transitions.STEP_L[t];
+            c += inc * Transitions.STEP_C[t];
+            offsetL = Transitions.OFFSET_L[t];
+            offsetC = Transitions.OFFSET_C[t];
+            currTrain = transitionSprites[t];
         }
 
-        // Redraw the Gelem
-        board.erase(oldTrain, oldL, oldC, layer);
-        board.draw(currTrain, l + offsetL, c + offsetC, layer);
+        // Redraw the Sprite
+        renderer.erase(oldTrain, oldL, oldC, layer);
+        renderer.draw(currTrain, l + offsetL, c + offsetC, layer);
+
+        // Only leaving a station can call for a sweep, so the other steps
+        // don't need the lock
+        boolean leaving = track.getStationAt(moveCnt) != null;
 
         // increase the index for the list of moves
-        moveCnt++;
+        moveCnt = nextCnt;
+
+        if (leaving)
+        {
+            callInspector();
+        }
+    }
+
+    /**
+     * Wakes the Inspector up if any ticket was shown since the last sweep.
+     */
+    private void callInspector()
+    {
+        lock.lock();
+        try
+        {
+            if (!shownTickets.isEmpty())
+            {
+                sweepDue = true;
+                ticketsShown.signal();
+            }
+        } finally
+        {
+            lock.unlock();
+        }
     }
 
     /**
@@ -463,7 +505,7 @@ public class Train
      */
     public Station getCurrentStation()
     {
-        return track.getStation(l, c);
+        return track.getStationAt(moveCnt);
     }
 
     /**
@@ -475,4 +517,37 @@ public class Train
     {
         return track;
     }
+
+    /**
+     * A ticket shown by a passenger, waiting for the next sweep
+     */
+    private static class ShownTicket
+    {
+
+        final Pawn pawn;
+        final char ticket;
+
+        ShownTicket(Pawn pawn, char ticket)
+        {
+            this.pawn = pawn;
+            this.ticket = ticket;
+        }
+    }
+
+    /**
+     * The passengers on board getting off at a station, woken up together once
+     * the train reaches it
+     */
+    private static class Stop
+    {
+
+        final Condition reachedCondition;
+        int numPassengers = 0;
+        boolean reached = false;
+
+        Stop(Condition reachedCondition)
+        {
+            this.reachedCondition = reachedCondition;
+        }
+    }
 }
@@ -0,0 +1,79 @@
+package regions;
+
+/**
+ * General description: Transitions between two consecutive moves of a track
+ * cycle, indexed by index(move, nextMove). Lines and columns stepped, in units
+ * of half a cell, and offset of the train Sprite drawn.
+ *
+ * @author Tiago Madeira 76321
+ */
+final class Transitions
+{
+
+    static final int MOVES = Move.VALUES.length;
+    static final int COUNT = MOVES * MOVES;
+    static final int[] STEP_L = new int[COUNT];
+    static final int[] STEP_C = new int[COUNT];
+    static final int[] OFFSET_L = new int[COUNT];
+    static final int[] OFFSET_C = new int[COUNT];
+    static final boolean[] VALID = new boolean[COUNT];
+
+    static
+    {
+        add(Move.RIGHT, Move.RIGHT, 0, 1, 0, 0);
+        add(Move.RIGHT, Move.DOWN, -1, 0, 2, 0);    // outer turn
+        add(Move.RIGHT, Move.UP, -1, 2, 0, -2);     // inner turn
+        add(Move.LEFT, Move.LEFT, 0, -1, 3, 0);
+        add(Move.LEFT, Move.DOWN, 1, -2, 0, 2);     // inner turn
+        add(Move.LEFT, Move.UP, 1, 0, -2, 0);       // outer turn
+        add(Move.DOWN, Move.DOWN, 1, 0, 0, 3);
+        add(Move.DOWN, Move.RIGHT, 2, 1, -2, 0);    // inner turn
+        add(Move.DOWN, Move.LEFT, 0, 1, 0, -2);     // outer turn
+        add(Move.UP, Move.UP, -1, 0, 0, 0);
+        add(Move.UP, Move.RIGHT, 0, -1, 0, 2);      // outer turn
+        add(Move.UP, Move.LEFT, -2, -1, 2, 0);      // inner turn
+    }
+
+    private Transitions()
+    {
+    }
+
+    /**
+     * Returns the index of a transition between two moves.
+     *
+     * @param move     ordinal of the current Move
+     * @param nextMove ordinal of the next Move
+     *
+     * @return the index of the transition
+     */
+    static int index(int move, int nextMove)
+    {
+        return move * MOVES + nextMove;
+    }
+
+    /**
+     * Returns the index of a transition between two moves.
+     *
+     * @param move     the current Move
+     * @param nextMove the next Move
+     *
+     * @return the index of the transition
+     */
+    static int index(Move move, Move nextMove)
+    {
+        return index(move.ordinal(), nextMove.ordinal());
+    }
+
+    /**
+     * Records the steps and Sprite offset of a transition between two moves.
+     */
+    private static void add(Move move, Move nextMove, int stepL, int stepC, int offsetL, int offsetC)
+    {
+        int t = index(move, nextMove);
+        STEP_L[t] = stepL;
+        STEP_C[t] = stepC;
+        OFFSET_L[t] = offsetL;
+        OFFSET_C[t] = offsetC;
+        VALID[t] = true;
+    }
+}
@@ -0,0 +1,138 @@
+package regions;
+
+import grid.MapIndex;
+import java.util.Arrays;
+import pt.ua.gboard.basic.Position;
+
+/**
+ * General description: Direction of the first step of the shortest walk from
+ * every cell of the map to a target cell, found by a breadth-first search over
+ * the walkable cells. A byte per cell, the distances being thrown away with
+ * the search. Never changes once computed, so a single field is shared by
+ * every Pawn walking to the same target.
+ *
+ * Cells that aren't walkable (stations, for instance) can still be walked
+ * from or to, but never through.
+ *
+ * @author Tiago Madeira 76321
+ */
+public class WalkingField
+{
+
+    /**
+     * Line and column increments of each direction
+     */
+    private static final int[] STEP_L =
+    {
+        1, 0, -1, 0
+    };
+    private static final int[] STEP_C =
+    {
+        0, 1, 0, -1
+    };
+
+    /**
+     * Marks of the cells without a first step: those not reached by the
+     * search and the target itself
+     */
+    private static final byte UNREACHED = -1;
+    private static final byte TARGET = -2;
+
+    /**
+     * Internal data
+     */
+    private final int numberOfColumns;
+    // Direction of the first step toward the target, negative if there's none
+    private final byte[] direction;
+
+    /**
+     * Constructor
+     *
+     * @param index  the index of the symbols of the map, read without locking
+     *               so that fields may be computed at the same time
+     * @param target the Position within the map to walk to
+     */
+    WalkingField(MapIndex index, Position target)
+    {
+        assert index != null;
+        assert target != null;
+        assert target.line() >= 0 && target.line() < index.numberOfLines();
+        assert target.column() >= 0 && target.column() < index.numberOfColumns();
+
+        int lines = index.numberOfLines();
+        this.numberOfColumns = index.numberOfColumns();
+        this.direction = new byte[lines * numberOfColumns];
+        Arrays.fill(direction, UNREACHED);
+
+        // Search outward from the target; each cell steps back the way it was
+        // reached
+        int[] queue = new int[lines * numberOfColumns];
+        int head = 0;
+        int tail = 0;
+        int start = target.line() * numberOfColumns + target.column();
+        direction[start] = TARGET;
+        queue[tail++] = start;
+
+        while (head < tail)
+        {
+            int cell = queue[head++];
+            int l = cell / numberOfColumns;
+            int c = cell % numberOfColumns;
+
+            for (int d = 0; d < STEP_L.length; d++)
+            {
+                int nl = l + STEP_L[d];
+                int nc = c + STEP_C[d];
+                if (nl < 0 || nl >= lines || nc < 0 || nc >= numberOfColumns)
+                {
+                    continue;
+                }
+
+                int next = nl * numberOfColumns + nc;
+                if (direction[next] != UNREACHED)
+                {
+                    continue;
+                }
+
+                // Reached from the opposite direction
+                direction[next] = (byte) ((d + 2) % STEP_L.length);
+                if (MapIndex.isWalkable(index.symbol(next)))
+                {
+                    queue[tail++] = next;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the line increment of the first step from a cell toward the
+     * target.
+     *
+     * @param l line of the cell
+     * @param c column of the cell
+     *
+     * @return -1, 0 or 1; 0 for both the line and column when at the target or
+     *         if it can't be reached
+     */
+    public int stepLine(int l, int c)
+    {
+        int d = direction[l * numberOfColumns + c];
+        return d < 0 ? 0 : STEP_L[d];
+    }
+
+    /**
+     * Returns the column increment of the first step from a cell toward the
+     * target.
+     *
+     * @param l line of the cell
+     * @param c column of the cell
+     *
+     * @return -1, 0 or 1; 0 for both the line and column when at the target or
+     *         if it can't be reached
+     */
+    public int stepColumn(int l, int c)
+    {
+        int d = direction[l * numberOfColumns + c];
+        return d < 0 ? 0 : STEP_C[d];
+    }
+}
@@ -0,0 +1,117 @@
+package render;
+
+import java.awt.Color;
+import java.awt.Image;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.imageio.ImageIO;
+import pt.ua.gboard.GBoard;
+import pt.ua.gboard.Gelem;
+import pt.ua.gboard.basic.CircleGelem;
+import pt.ua.gboard.basic.ImageGelem;
+
+/**
+ * General description: Renderer which draws on a GBoard window.
+ *
+ * @author Tiago Madeira 76321
+ */
+public class GBoardRenderer implements Renderer
+{
+
+    /**
+     * Internal data
+     */
+    private GBoard board;
+    // Image of each file, read once however many sprites show it
+    private final Map<String, Image> images = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor
+     *
+     * @param board GBoard object
+     */
+    public GBoardRenderer(GBoard board)
+    {
+        assert board != null;
+        this.board = board;
+    }
+
+    @Override
+    public Sprite image(String file, int lines, int columns)
+    {
+        Image image = images.computeIfAbsent(file, GBoardRenderer::read);
+        if (image == null)
+        {
+            // Left for the Gelem to report
+            return new GelemSprite(new ImageGelem(file, board, 100, lines, columns));
+        }
+        return new GelemSprite(new ImageGelem(image, board, 100, lines, columns));
+    }
+
+    @Override
+    public Sprite circle(Color color, int lines, int columns)
+    {
+        return new GelemSprite(new CircleGelem(color, 100, lines, columns));
+    }
+
+    @Override
+    public void draw(Sprite sprite, int line, int column, int layer)
+    {
+        board.draw(gelem(sprite), line, column, layer);
+    }
+
+    @Override
+    public void erase(Sprite sprite, int line, int column, int layer)
+    {
+        board.erase(gelem(sprite), line, column, layer);
+    }
+
+    @Override
+    public void move(Sprite sprite, int line, int column, int newLine, int newColumn)
+    {
+        board.move(gelem(sprite), line, column, newLine, newColumn);
+    }
+
+    /**
+     * Reads an image file
+     *
+     * @return the Image or null if it can't be read
+     */
+    private static Image read(String file)
+    {
+        try
+        {
+            return ImageIO.read(new File(file));
+        } catch (IOException e)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the Gelem wrapped by a sprite created by this renderer
+     */
+    private Gelem gelem(Sprite sprite)
+    {
+        assert sprite instanceof GelemSprite;
+
+        return ((GelemSprite) sprite).gelem;
+    }
+
+    /**
+     * Sprite backed by a Gelem
+     */
+    private static class GelemSprite implements Sprite
+    {
+
+        private final Gelem gelem;
+
+        GelemSprite(Gelem gelem)
+        {
+            assert gelem != null;
+            this.gelem = gelem;
+        }
+    }
+}
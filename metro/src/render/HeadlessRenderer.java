@@ -0,0 +1,48 @@
+package render;
+
+import java.awt.Color;
+
+/**
+ * General description: Renderer which draws nothing. Used to run the
+ * simulation without a window, keeping all of its logic but none of the
+ * drawing work.
+ *
+ * @author Tiago Madeira 76321
+ */
+public class HeadlessRenderer implements Renderer
+{
+
+    /**
+     * The only sprite handed out, as there's nothing to tell apart
+     */
+    private static final Sprite NONE = new Sprite()
+    {
+    };
+
+    @Override
+    public Sprite image(String file, int lines, int columns)
+    {
+        return NONE;
+    }
+
+    @Override
+    public Sprite circle(Color color, int lines, int columns)
+    {
+        return NONE;
+    }
+
+    @Override
+    public void draw(Sprite sprite, int line, int column, int layer)
+    {
+    }
+
+    @Override
+    public void erase(Sprite sprite, int line, int column, int layer)
+    {
+    }
+
+    @Override
+    public void move(Sprite sprite, int line, int column, int newLine, int newColumn)
+    {
+    }
+}
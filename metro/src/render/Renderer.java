@@ -0,0 +1,67 @@
+package render;
+
+import java.awt.Color;
+
+/**
+ * General description: Definition of the drawing operations used by the
+ * regions and entities. Keeps them independent from the library which
+ * actually does the drawing (if any).
+ *
+ * @author Tiago Madeira 76321
+ */
+public interface Renderer
+{
+
+    /**
+     * Creates a sprite from an image file
+     *
+     * @param file    name of the image file
+     * @param lines   number of lines occupied by the sprite
+     * @param columns number of columns occupied by the sprite
+     *
+     * @return the Sprite created
+     */
+    Sprite image(String file, int lines, int columns);
+
+    /**
+     * Creates a circular sprite
+     *
+     * @param color   the colour of the circle
+     * @param lines   number of lines occupied by the sprite
+     * @param columns number of columns occupied by the sprite
+     *
+     * @return the Sprite created
+     */
+    Sprite circle(Color color, int lines, int columns);
+
+    /**
+     * Draws a sprite at a certain position
+     *
+     * @param sprite the Sprite to draw
+     * @param line   line in which to draw
+     * @param column column in which to draw
+     * @param layer  layer in which to draw
+     */
+    void draw(Sprite sprite, int line, int column, int layer);
+
+    /**
+     * Erases a sprite from a certain position
+     *
+     * @param sprite the Sprite to erase
+     * @param line   line from which to erase
+     * @param column column from which to erase
+     * @param layer  layer from which to erase
+     */
+    void erase(Sprite sprite, int line, int column, int layer);
+
+    /**
+     * Moves an already drawn sprite to a new position
+     *
+     * @param sprite    the Sprite to move
+     * @param line      current line of the sprite
+     * @param column    current column of the sprite
+     * @param newLine   line to move the sprite to
+     * @param newColumn column to move the sprite to
+     */
+    void move(Sprite sprite, int line, int column, int newLine, int newColumn);
+}
@@ -0,0 +1,12 @@
+package render;
+
+/**
+ * General description: Handle to a drawable element created by a Renderer.
+ * Entities keep these handles and pass them back to the Renderer which created
+ * them in order to draw, erase or move them.
+ *
+ * @author Tiago Madeira 76321
+ */
+public interface Sprite
+{
+}
@@ -0,0 +1,44 @@
+package sim;
+
+/**
+ * General description: An action scheduled to happen at a certain instant of
+ * the simulated clock. Events due at the same instant happen in the order they
+ * were scheduled.
+ *
+ * @author Tiago Madeira 76321
+ */
+final class Event implements Comparable<Event>
+{
+
+    /**
+     * Internal data
+     */
+    final long time;
+    final long seq;
+    final Runnable action;
+
+    /**
+     * Constructor
+     *
+     * @param time   instant in which the event happens (ms)
+     * @param seq    order in which the event was scheduled
+     * @param action what happens
+     */
+    Event(long time, long seq, Runnable action)
+    {
+        assert action != null;
+        this.time = time;
+        this.seq = seq;
+        this.action = action;
+    }
+
+    @Override
+    public int compareTo(Event other)
+    {
+        if (time != other.time)
+        {
+            return Long.compare(time, other.time);
+        }
+        return Long.compare(seq, other.seq);
+    }
+}
@@ -0,0 +1,155 @@
+package sim;
+
+import config.Pace;
+import entities.Pawn;
+import metrics.Latencies;
+import metrics.Phase;
+import regions.Journey;
+import regions.Station;
+
+/**
+ * General description: Event-driven version of the life cycle of a Pawn. Each
+ * stage schedules the next one on the Simulation instead of sleeping.
+ *
+ * @author Tiago Madeira 76321
+ */
+public class PassengerTrip
+{
+
+    /**
+     * Internal data
+     */
+    private final Simulation sim;
+    private final Platforms platforms;
+    private final Pawn pawn;
+    private final Runnable onArrival;
+    private Journey journey;
+    private int leg = 0;
+    // Simulated time the current phase of the trip started (ms)
+    private long phaseStart;
+
+    /**
+     * Constructor
+     *
+     * @param sim       the Simulation in which the trip happens
+     * @param platforms the passengers waiting at each station
+     * @param pawn      the Pawn making the trip
+     * @param onArrival action to run when the Pawn reaches its destination
+     */
+    public PassengerTrip(Simulation sim, Platforms platforms, Pawn pawn, Runnable onArrival)
+    {
+        assert sim != null;
+        assert platforms != null;
+        assert pawn != null;
+        assert onArrival != null;
+        this.sim = sim;
+        this.platforms = platforms;
+        this.pawn = pawn;
+        this.onArrival = onArrival;
+    }
+
+    /**
+     * Starts the trip right now.
+     */
+    public void start()
+    {
+        journey = pawn.appear();
+        phaseStart = sim.now();
+        walkToStation();
+    }
+
+    /**
+     * Walks one step toward the station where the current leg starts, or buys
+     * the ticket and waits for the train once there.
+     */
+    private void walkToStation()
+    {
+        Station getOnStation = journey.getBoardingStation(leg);
+        if (pawn.walkToStation(getOnStation))
+        {
+            sim.schedule(Pace.WALK_STEP_TIME, this::walkToStation);
+            return;
+        }
+
+        lap(Phase.WALK_TO_STATION, getOnStation);
+        getOnStation.sellTicketTo(pawn);
+        lap(Phase.BUY_TICKET, getOnStation);
+        platforms.waitForTrain(getOnStation, this);
+    }
+
+    /**
+     * Walks one step toward the destination, or ends the trip once there.
+     */
+    private void walkToDestination()
+    {
+        if (pawn.walkToDestination())
+        {
+            sim.schedule(Pace.WALK_STEP_TIME, this::walkToDestination);
+            return;
+        }
+
+        lap(Phase.WALK_TO_DESTINATION, journey.getAlightingStation(journey.getNumberOfLegs() - 1));
+        pawn.disappear();
+        onArrival.run();
+    }
+
+    /**
+     * Returns the Pawn making the trip.
+     *
+     * @return the Pawn
+     */
+    Pawn getPawn()
+    {
+        return pawn;
+    }
+
+    /**
+     * Goes into a train that stopped at the station.
+     */
+    void enterTrain()
+    {
+        lap(Phase.WAIT_FOR_TRAIN, journey.getBoardingStation(leg));
+        pawn.enterTrain();
+    }
+
+    /**
+     * Returns the station in which the Pawn gets off the current train.
+     *
+     * @return the Station
+     */
+    Station getOffStation()
+    {
+        return journey.getAlightingStation(leg);
+    }
+
+    /**
+     * Gets off the train at a station and starts walking, on the next step,
+     * to the next leg of the journey or to the destination after the last one.
+     *
+     * @param s the Station reached
+     */
+    void getOff(Station s)
+    {
+        lap(Phase.RIDE, journey.getBoardingStation(leg));
+        pawn.arriveAt(s);
+        pawn.leaveTrain();
+        leg++;
+        if (leg < journey.getNumberOfLegs())
+        {
+            sim.schedule(Pace.WALK_STEP_TIME, this::walkToStation);
+        } else
+        {
+            sim.schedule(Pace.WALK_STEP_TIME, this::walkToDestination);
+        }
+    }
+
+    /**
+     * Records how long a phase of the trip took at a station, in simulated
+     * time, and starts the next one
+     */
+    private void lap(Phase phase, Station s)
+    {
+        Latencies.record(phase, s, (sim.now() - phaseStart) * 1000);
+        phaseStart = sim.now();
+    }
+}
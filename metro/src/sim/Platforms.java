@@ -0,0 +1,62 @@
+package sim;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import regions.Station;
+
+/**
+ * General description: The passengers waiting for a train at each station in
+ * the event-driven simulation.
+ *
+ * @author Tiago Madeira 76321
+ */
+public class Platforms
+{
+
+    /**
+     * Internal data
+     */
+    private final Map<Station, ArrayDeque<PassengerTrip>> waiting = new HashMap<>();
+
+    /**
+     * Places a passenger on the platform of a station.
+     *
+     * @param s    the Station
+     * @param trip the trip of the passenger
+     */
+    void waitForTrain(Station s, PassengerTrip trip)
+    {
+        assert s != null;
+        assert trip != null;
+
+        waiting.computeIfAbsent(s, k -> new ArrayDeque<>()).add(trip);
+    }
+
+    /**
+     * Takes the passengers waiting the longest on the platform of a station,
+     * up to its boarding capacity. The others stay for the next train.
+     *
+     * @param s the Station
+     *
+     * @return the trips of the passengers, in order of arrival
+     */
+    ArrayDeque<PassengerTrip> board(Station s)
+    {
+        assert s != null;
+
+        ArrayDeque<PassengerTrip> trips = waiting.get(s);
+        if (trips == null || trips.size() <= s.getBoardingCapacity())
+        {
+            waiting.remove(s);
+            return trips != null ? trips : new ArrayDeque<>();
+        }
+
+        ArrayDeque<PassengerTrip> boarding = new ArrayDeque<>();
+        while (boarding.size() < s.getBoardingCapacity())
+        {
+            boarding.add(trips.poll());
+        }
+        return boarding;
+    }
+}
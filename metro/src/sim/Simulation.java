@@ -0,0 +1,86 @@
+package sim;
+
+import java.util.PriorityQueue;
+
+/**
+ * General description: Discrete-event simulation engine. Keeps a simulated
+ * clock and a queue of timestamped events, always running the earliest one
+ * next. Time only moves forward when an event happens, so the simulation runs
+ * as fast as its events can be processed rather than at wall-clock pace.
+ *
+ * Not thread safe: every event runs in the thread which called run().
+ *
+ * @author Tiago Madeira 76321
+ */
+public class Simulation
+{
+
+    /**
+     * Internal data
+     */
+    private final PriorityQueue<Event> events = new PriorityQueue<>();
+    private long now = 0;
+    private long seq = 0;
+    private long eventsProcessed = 0;
+    private boolean stopped = false;
+
+    /**
+     * Returns the current instant of the simulated clock.
+     *
+     * @return the simulated time (ms)
+     */
+    public long now()
+    {
+        return now;
+    }
+
+    /**
+     * Schedules an action to happen after a certain delay.
+     *
+     * @param delay  the simulated time from now until the action (ms)
+     * @param action what happens
+     */
+    public void schedule(long delay, Runnable action)
+    {
+        assert delay >= 0;
+        assert action != null;
+
+        events.add(new Event(now + delay, seq++, action));
+    }
+
+    /**
+     * Runs the events in order until there are none left, stop() is called or
+     * the simulated clock would go past a certain instant.
+     *
+     * @param until the last instant to be simulated (ms)
+     */
+    public void run(long until)
+    {
+        stopped = false;
+        while (!stopped && !events.isEmpty() && events.peek().time <= until)
+        {
+            Event e = events.poll();
+            now = e.time;
+            e.action.run();
+            eventsProcessed++;
+        }
+    }
+
+    /**
+     * Makes run() return after the event currently being processed.
+     */
+    public void stop()
+    {
+        stopped = true;
+    }
+
+    /**
+     * Returns the number of events processed so far.
+     *
+     * @return a long representing the number of events processed
+     */
+    public long eventsProcessed()
+    {
+        return eventsProcessed;
+    }
+}
@@ -0,0 +1,111 @@
+package sim;
+
+import config.Pace;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import metrics.Latencies;
+import metrics.Phase;
+import regions.Station;
+import regions.Train;
+
+/**
+ * General description: Event-driven version of the work of the Conductor and
+ * the Inspector of a Train. Each step and each stop schedules the next one on
+ * the Simulation instead of sleeping.
+ *
+ * @author Tiago Madeira 76321
+ */
+public class TrainService
+{
+
+    /**
+     * Internal data
+     */
+    private final Simulation sim;
+    private final Platforms platforms;
+    private final Train train;
+    private final String inspectorName;
+    // Passengers on board, by the station they get off at, in the order
+    // they got on
+    private final Map<Station, List<PassengerTrip>> onBoard = new HashMap<>();
+
+    /**
+     * Constructor
+     *
+     * @param sim           the Simulation in which the train runs
+     * @param platforms     the passengers waiting at each station
+     * @param train         the Train
+     * @param inspectorName name of the inspector working on the train
+     */
+    public TrainService(Simulation sim, Platforms platforms, Train train, String inspectorName)
+    {
+        assert sim != null;
+        assert platforms != null;
+        assert train != null;
+        assert inspectorName != null;
+        this.sim = sim;
+        this.platforms = platforms;
+        this.train = train;
+        this.inspectorName = inspectorName;
+    }
+
+    /**
+     * Starts the service right now.
+     */
+    public void start()
+    {
+        step();
+    }
+
+    /**
+     * Moves the train one step along the track.
+     */
+    private void step()
+    {
+        train.move();
+
+        // check the tickets shown at the station just left
+        train.sweepTickets(inspectorName);
+
+        sim.schedule(Pace.TRAIN_STEP_TIME, this::arrive);
+    }
+
+    /**
+     * Checks whether the step reached a station. If so, lets the passengers
+     * off and into the train and leaves after the dwell time; otherwise keeps
+     * moving.
+     */
+    private void arrive()
+    {
+        Station currStation = train.getCurrentStation();
+
+        if (currStation == null)
+        {
+            step();
+            return;
+        }
+
+        // let passengers leave the train
+        List<PassengerTrip> leaving = onBoard.remove(currStation);
+        if (leaving != null)
+        {
+            for (PassengerTrip trip : leaving)
+            {
+                trip.getOff(currStation);
+            }
+        }
+
+        // let passengers into the train
+        for (PassengerTrip trip : platforms.board(currStation))
+        {
+            trip.enterTrain();
+            train.showTicket(trip.getPawn());
+            onBoard.computeIfAbsent(trip.getOffStation(), k -> new ArrayList<>()).add(trip);
+        }
+
+        Latencies.record(Phase.DWELL, currStation, Pace.DWELL_TIME * 1000);
+        sim.schedule(Pace.DWELL_TIME, this::step);
+    }
+}
@@ -0,0 +1,87 @@
+package config;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * General description: Tests of the maps and networks made by MapGenerator.
+ *
+ * @author Tiago Madeira 76321
+ */
+public class MapGeneratorTest
+{
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void generatedMapsAreValid() throws IOException
+    {
+        for (long seed = 1; seed <= 5; seed++)
+        {
+            MapGenerator generator = new MapGenerator(60, 80, 6, 8, 60, seed);
+            Path file = dir.resolve("map" + seed + ".txt");
+            generator.write(file);
+
+            MapGenerator.check(file, generator.getNetwork());
+        }
+    }
+
+    @Test
+    public void linesHaveTheirStationsAndLength()
+    {
+        MapGenerator generator = new MapGenerator(40, 40, 3, 5, 30, 7);
+        String[] map = generator.getMap();
+
+        assertEquals(40, map.length);
+        assertEquals(3, generator.getNetwork().getLines().size());
+        for (Network.Line line : generator.getNetwork().getLines())
+        {
+            int track = 0;
+            int stations = 0;
+            for (String row : map)
+            {
+                assertEquals(40, row.length());
+                for (char symbol : row.toCharArray())
+                {
+                    track += symbol == line.getSymbol() ? 1 : 0;
+                    stations += symbol == line.getStationSymbol() ? 1 : 0;
+                }
+            }
+            assertEquals(5, stations);
+            assertEquals(30, track + stations);
+        }
+    }
+
+    @Test
+    public void sameSeedGivesTheSameMap()
+    {
+        assertArrayEquals(new MapGenerator(50, 50, 4, 6, 40, 3).getMap(),
+                new MapGenerator(50, 50, 4, 6, 40, 3).getMap());
+    }
+
+    @Test
+    public void linesThatDontFitAreRejected()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new MapGenerator(20, 20, 4, 5, 200, 1));
+        assertThrows(IllegalArgumentException.class, () -> new MapGenerator(40, 40, 1, 30, 20, 1));
+        assertThrows(IllegalArgumentException.class, () -> new MapGenerator(40, 40, 0, 5, 20, 1));
+    }
+
+    @Test
+    public void trackSymbolsSkipTheDestinationSymbol()
+    {
+        char[] symbols = MapGenerator.trackSymbols(40);
+
+        assertEquals("ABCDEFGHIJKLMNOPQRSTUVWYZ", new String(symbols, 0, 25));
+        for (char symbol : symbols)
+        {
+            assertTrue(Character.isUpperCase(symbol));
+            assertNotEquals(symbol, Character.toLowerCase(symbol));
+            assertNotEquals('X', symbol);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package config;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.awt.Color;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * General description: Tests of the network file parser and writer.
+ *
+ * @author Tiago Madeira 76321
+ */
+public class NetworkTest
+{
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void networkFileIsRead() throws IOException
+    {
+        Network network = Network.load(write("# two lines",
+                "line G g colour 0x5db347 trains 3",
+                "line R r        # default colour and trains",
+                "pawns 50",
+                "rate 100",
+                "capacity 4"));
+
+        List<Network.Line> lines = network.getLines();
+        assertEquals(2, lines.size());
+        assertEquals('G', lines.get(0).getSymbol());
+        assertEquals('g', lines.get(0).getStationSymbol());
+        assertEquals(new Color(0x5db347), lines.get(0).getColour());
+        assertEquals(3, lines.get(0).getTrains());
+        assertEquals(Network.defaultColour(1), lines.get(1).getColour());
+        assertEquals(Network.DEFAULT_TRAINS, lines.get(1).getTrains());
+        assertEquals(50, network.getPawns());
+        assertEquals(100, network.getRate());
+        assertEquals(2, network.getBooths());
+        assertEquals(4, network.getCapacity());
+        assertArrayEquals(new char[]
+        {
+            'G', 'g', 'R', 'r', 'X'
+        }, network.getRoadSymbols());
+    }
+
+    @Test
+    public void writtenNetworkIsReadBack() throws IOException
+    {
+        Network standard = Network.standard();
+        Path file = dir.resolve("network.txt");
+        standard.write(file, "standard network");
+        Network read = Network.load(file);
+
+        assertEquals(standard.getLines().size(), read.getLines().size());
+        for (int i = 0; i < standard.getLines().size(); i++)
+        {
+            Network.Line expected = standard.getLines().get(i);
+            Network.Line line = read.getLines().get(i);
+            assertEquals(expected.getSymbol(), line.getSymbol());
+            assertEquals(expected.getStationSymbol(), line.getStationSymbol());
+            assertEquals(expected.getColour().getRGB(), line.getColour().getRGB());
+            assertEquals(expected.getTrains(), line.getTrains());
+        }
+        assertEquals(standard.getPawns(), read.getPawns());
+        assertEquals(standard.getRate(), read.getRate());
+        assertEquals(standard.getBooths(), read.getBooths());
+        assertEquals(standard.getCapacity(), read.getCapacity());
+    }
+
+    @Test
+    public void invalidNetworkFilesAreRejected() throws IOException
+    {
+        assertInvalid(":2: invalid setting", "line G g", "speed 3");
+        assertInvalid(":1: a line needs a track and a different station symbol", "line G G");
+        assertInvalid(":1: a line needs a track and a different station symbol", "line G g trains");
+        assertInvalid(":1: a line needs at least one train", "line G g trains 0");
+        assertInvalid(":1: invalid line setting \"speed\"", "line G g speed 3");
+        assertInvalid(":2: invalid number", "line G g", "pawns lots");
+        assertInvalid("at least one line is required", "pawns 10");
+        assertInvalid("symbol 'g' used twice", "line G g", "line R g");
+        assertInvalid("symbol 'X' isn't for lines", "line X x");
+        assertInvalid("capacity less than one", "line G g", "capacity 0");
+    }
+
+    /**
+     * Writes a network file
+     */
+    private Path write(String... lines) throws IOException
+    {
+        Path file = Files.createTempFile(dir, "network", ".txt");
+        Files.write(file, List.of(lines), StandardCharsets.UTF_8);
+        return file;
+    }
+
+    /**
+     * Checks that a network file is rejected with a certain message
+     */
+    private void assertInvalid(String message, String... lines) throws IOException
+    {
+        Path file = write(lines);
+        IOException e = assertThrows(IOException.class, () -> Network.load(file));
+        assertTrue(e.getMessage().contains(message), e.getMessage());
+    }
+}
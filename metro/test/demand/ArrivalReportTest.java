@@ -0,0 +1,88 @@
+package demand;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+import pt.ua.gboard.basic.Position;
+
+/**
+ * General description: Tests of the report comparing the arrivals of Pawns
+ * with the demand requested.
+ *
+ * @author Tiago Madeira 76321
+ */
+public class ArrivalReportTest
+{
+
+    private static final Position[] SPAWNING =
+    {
+        new Position(1, 1)
+    };
+    private static final Position[] DESTINATIONS =
+    {
+        new Position(8, 8)
+    };
+
+    private final ArrivalReport report = new ArrivalReport();
+
+    @Test
+    public void zeroRateCurveReportsNoArrivals()
+    {
+        LoadGenerator generator = new LoadGenerator(1, DemandCurve.constant(0), true, 600000, Long.MAX_VALUE,
+                new Zones(10, 10, 1, 1, null, SPAWNING, DESTINATIONS));
+        Trip trip;
+        while ((trip = generator.next()) != null)
+        {
+            report.record(trip, trip.getSpawnTime());
+        }
+
+        assertEquals("Arrivals: none", print(generator).trim());
+    }
+
+    @Test
+    public void singleArrivalHasNoRate()
+    {
+        TripSource trips = source();
+        report.record(new Trip(0, SPAWNING[0], DESTINATIONS[0]), 30);
+
+        String text = print(trips);
+        assertTrue(text.startsWith("Arrivals: 1 pawn, too few for a rate, late by 30 ms"), text);
+        assertFalse(text.contains("per minute"), text);
+    }
+
+    @Test
+    public void ratesAreOverTheTimeTripsWereDue()
+    {
+        TripSource trips = source();
+        report.record(new Trip(0, SPAWNING[0], DESTINATIONS[0]), 0);
+        report.record(new Trip(30000, SPAWNING[0], DESTINATIONS[0]), 60000);
+
+        String text = print(trips);
+        assertTrue(text.contains("generated 4.0 per minute, achieved 2.0 per minute (2 pawns)"), text);
+        assertTrue(text.contains("late by 15000.0 ms mean, 30000 ms max"), text);
+    }
+
+    /**
+     * Returns a source of no trips which requested none
+     */
+    private static TripSource source()
+    {
+        return new LoadGenerator(1, DemandCurve.constant(0), false, 0, Long.MAX_VALUE, new Zones(10, 10, 1, 1,
+                null, SPAWNING, DESTINATIONS));
+    }
+
+    /**
+     * Returns what the report prints
+     */
+    private String print(TripSource trips)
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (PrintStream ps = new PrintStream(bytes, true, StandardCharsets.UTF_8))
+        {
+            report.print(ps, trips);
+        }
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,71 @@
+package demand;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * General description: Tests of the pieces of a DemandCurve.
+ *
+ * @author Tiago Madeira 76321
+ */
+public class DemandCurveTest
+{
+
+    // 60 per minute for a minute, none for a minute, then 120 per minute
+    private final DemandCurve curve = new DemandCurve(new long[]
+    {
+        0, 60000, 120000
+    }, new double[]
+    {
+        60, 0, 120
+    });
+
+    @Test
+    public void rateIsThatOfThePieceAtTheTime()
+    {
+        assertEquals(0.001, curve.rateAt(0), 1e-12);
+        assertEquals(0.001, curve.rateAt(59999), 1e-12);
+        assertEquals(0, curve.rateAt(60000), 1e-12);
+        assertEquals(0.002, curve.rateAt(120000), 1e-12);
+        assertEquals(0.002, curve.rateAt(Long.MAX_VALUE / 2), 1e-12);
+        assertEquals(0.002, curve.maxRate(), 1e-12);
+    }
+
+    @Test
+    public void nextChangeIsTheStartOfTheNextPiece()
+    {
+        assertEquals(60000, curve.nextChange(0));
+        assertEquals(120000, curve.nextChange(60000));
+        assertEquals(Long.MAX_VALUE, curve.nextChange(120000));
+    }
+
+    @Test
+    public void expectedIsTheIntegralOfTheCurve()
+    {
+        assertEquals(0, curve.expected(0), 1e-9);
+        assertEquals(30, curve.expected(30000), 1e-9);
+        assertEquals(60, curve.expected(90000), 1e-9);
+        assertEquals(180, curve.expected(180000), 1e-9);
+        assertEquals(60, DemandCurve.constant(6).expected(600000), 1e-9);
+    }
+
+    @Test
+    public void invalidCurvesAreRejected()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new DemandCurve(new long[]
+        {
+            1000
+        }, new double[]
+        {
+            60
+        }));
+        assertThrows(IllegalArgumentException.class, () -> new DemandCurve(new long[]
+        {
+            0, 5000, 5000
+        }, new double[]
+        {
+            60, 30, 10
+        }));
+        assertThrows(IllegalArgumentException.class, () -> DemandCurve.constant(-1));
+    }
+}
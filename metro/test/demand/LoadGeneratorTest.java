@@ -0,0 +1,214 @@
+package demand;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+import pt.ua.gboard.basic.Position;
+
+/**
+ * General description: Tests of the arrivals of a LoadGenerator and of the
+ * demand file parser.
+ *
+ * @author Tiago Madeira 76321
+ */
+public class LoadGeneratorTest
+{
+
+    @TempDir
+    Path dir;
+
+    // A 10x10 map with a cell to start at and one to go to in each quarter
+    private static final Position[] SPAWNING =
+    {
+        new Position(1, 1), new Position(1, 8), new Position(8, 1), new Position(8, 8)
+    };
+    private static final Position[] DESTINATIONS =
+    {
+        new Position(2, 2), new Position(2, 7), new Position(7, 2), new Position(7, 7)
+    };
+
+    @Test
+    public void constantArrivalsAreEvenlySpaced()
+    {
+        // 120 per minute: one every 500 ms, until 10 s
+        LoadGenerator generator = new LoadGenerator(1, DemandCurve.constant(120), false, 10000, Long.MAX_VALUE,
+                zones(1, null));
+
+        List<Trip> trips = drain(generator);
+        assertEquals(20, trips.size());
+        for (int i = 0; i < trips.size(); i++)
+        {
+            assertEquals(i * 500L, trips.get(i).getSpawnTime());
+        }
+    }
+
+    @Test
+    public void poissonArrivalsFollowTheCurve()
+    {
+        // 600 per minute for 10 minutes
+        LoadGenerator generator = new LoadGenerator(7, DemandCurve.constant(600), true, 600000, Long.MAX_VALUE,
+                zones(1, null));
+
+        List<Trip> trips = drain(generator);
+        assertEquals(6000, generator.requestedTrips(Long.MAX_VALUE), 1e-9);
+        // Within four standard deviations of the expected 6000
+        assertTrue(Math.abs(trips.size() - 6000) < 4 * Math.sqrt(6000), trips.size() + " trips");
+        for (int i = 1; i < trips.size(); i++)
+        {
+            assertTrue(trips.get(i).getSpawnTime() >= trips.get(i - 1).getSpawnTime());
+        }
+    }
+
+    @Test
+    public void tripsLimitTheArrivals()
+    {
+        LoadGenerator generator = new LoadGenerator(1, DemandCurve.constant(60), true, Long.MAX_VALUE, 25,
+                zones(1, null));
+
+        assertEquals(25, drain(generator).size());
+    }
+
+    @Test
+    @Timeout(value = 10, threadMode = Timeout.ThreadMode.SEPARATE_THREAD)
+    public void arrivalsEndWhenTheCurveEndsAtZero()
+    {
+        // Only the trips limit the run, and fewer are ever requested
+        DemandCurve curve = new DemandCurve(new long[]
+        {
+            0, 60000
+        }, new double[]
+        {
+            60, 0
+        });
+        for (boolean poisson : new boolean[]
+        {
+            true, false
+        })
+        {
+            List<Trip> trips = drain(new LoadGenerator(1, curve, poisson, Long.MAX_VALUE, 1000, zones(1, null)));
+
+            assertTrue(trips.size() < 100, trips.size() + " trips");
+            for (Trip trip : trips)
+            {
+                assertTrue(trip.getSpawnTime() < 60000);
+            }
+        }
+    }
+
+    @Test
+    public void sameSeedGivesTheSameTrips()
+    {
+        List<Trip> first = drain(new LoadGenerator(42, DemandCurve.constant(60), true, 600000, Long.MAX_VALUE,
+                zones(2, null)));
+        List<Trip> second = drain(new LoadGenerator(42, DemandCurve.constant(60), true, 600000, Long.MAX_VALUE,
+                zones(2, null)));
+
+        assertEquals(first.size(), second.size());
+        for (int i = 0; i < first.size(); i++)
+        {
+            assertEquals(first.get(i).getSpawnTime(), second.get(i).getSpawnTime());
+            assertSame(first.get(i).getStart(), second.get(i).getStart());
+            assertSame(first.get(i).getDestination(), second.get(i).getDestination());
+        }
+    }
+
+    @Test
+    public void tripsGoOnlyBetweenZonesWithWeight()
+    {
+        // Only from the top left quarter to the bottom right one
+        double[][] weights = new double[4][4];
+        weights[0][3] = 1;
+        List<Trip> trips = drain(new LoadGenerator(3, DemandCurve.constant(60), true, Long.MAX_VALUE, 100,
+                zones(2, weights)));
+
+        for (Trip trip : trips)
+        {
+            assertSame(SPAWNING[0], trip.getStart());
+            assertSame(DESTINATIONS[3], trip.getDestination());
+        }
+    }
+
+    @Test
+    public void demandFileIsRead() throws IOException
+    {
+        Path file = write("arrivals constant  # evenly spaced",
+                "rate 0 60",
+                "rate 3000 0",
+                "rate 6000 120",
+                "duration 8000");
+
+        List<Trip> trips = drain(LoadGenerator.load(file, 1, 10, 10, SPAWNING, DESTINATIONS));
+        // At 0, 1000 and 2000 ms, then every 500 ms from 6000 ms
+        long[] times =
+        {
+            0, 1000, 2000, 6000, 6500, 7000, 7500
+        };
+        assertEquals(times.length, trips.size());
+        for (int i = 0; i < times.length; i++)
+        {
+            assertEquals(times[i], trips.get(i).getSpawnTime());
+        }
+    }
+
+    @Test
+    public void invalidDemandFilesAreRejected() throws IOException
+    {
+        assertInvalid(":2: invalid setting", "rate 0 60", "speed 3", "trips 5");
+        assertInvalid(":1: unknown arrivals", "arrivals bursty", "rate 0 60", "trips 5");
+        assertInvalid(":2: invalid number", "rate 0 60", "trips many");
+        assertInvalid("a duration or a number of trips is required", "rate 0 60");
+        assertInvalid("must start at 0", "rate 100 60", "trips 5");
+        assertInvalid(":2: invalid zones", "rate 0 60", "zones 0 2", "trips 5");
+        assertInvalid("invalid od", "rate 0 60", "zones 2 2", "od 0 4 1", "trips 5");
+    }
+
+    /**
+     * Returns the zones of the test map, split n by n
+     */
+    private static Zones zones(int n, double[][] weights)
+    {
+        return new Zones(10, 10, n, n, weights, SPAWNING, DESTINATIONS);
+    }
+
+    /**
+     * Returns every trip of a generator
+     */
+    static List<Trip> drain(LoadGenerator generator)
+    {
+        List<Trip> trips = new ArrayList<>();
+        Trip trip;
+        while ((trip = generator.next()) != null)
+        {
+            trips.add(trip);
+        }
+        return trips;
+    }
+
+    /**
+     * Writes a demand file
+     */
+    private Path write(String... lines) throws IOException
+    {
+        Path file = Files.createTempFile(dir, "demand", ".txt");
+        Files.write(file, List.of(lines), StandardCharsets.UTF_8);
+        return file;
+    }
+
+    /**
+     * Checks that a demand file is rejected with a certain message
+     */
+    private void assertInvalid(String message, String... lines) throws IOException
+    {
+        Path file = write(lines);
+        IOException e = assertThrows(IOException.class, () -> LoadGenerator.load(file, 1, 10, 10, SPAWNING,
+                DESTINATIONS));
+        assertTrue(e.getMessage().contains(message), e.getMessage());
+    }
+}
@@ -0,0 +1,141 @@
+package demand;
+
+import static org.junit.jupiter.api.Assertions.*;
+import grid.MapIndex;
+import grid.TextGrid;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pt.ua.gboard.basic.Position;
+
+/**
+ * General description: Tests of the trip file writer and parser.
+ *
+ * @author Tiago Madeira 76321
+ */
+public class TripFileTest
+{
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void writtenTripsAreReadBack() throws IOException
+    {
+        Position[] spawning =
+        {
+            new Position(0, 0), new Position(4, 9)
+        };
+        Position[] destinations =
+        {
+            new Position(2, 3), new Position(7, 1), new Position(9, 9)
+        };
+        Path file = dir.resolve("trips.txt");
+
+        assertEquals(50, TripFile.write(file, new RandomTrips(5, 50, 200, spawning, destinations), "test trips"));
+
+        RandomTrips expected = new RandomTrips(5, 50, 200, spawning, destinations);
+        TripFile read = new TripFile(file);
+        try
+        {
+            Trip trip;
+            while ((trip = read.next()) != null)
+            {
+                Trip other = expected.next();
+                assertNotNull(other);
+                assertEquals(other.getSpawnTime(), trip.getSpawnTime());
+                assertEquals(other.getStart().line(), trip.getStart().line());
+                assertEquals(other.getStart().column(), trip.getStart().column());
+                assertEquals(other.getDestination().line(), trip.getDestination().line());
+                assertEquals(other.getDestination().column(), trip.getDestination().column());
+            }
+            assertNull(expected.next());
+        } finally
+        {
+            read.close();
+        }
+    }
+
+    @Test
+    public void commentsAndBlankLinesAreSkipped() throws IOException
+    {
+        Path file = write("# trips", "", "  100 1 2 3 4  ", "# more", "100 5 6 7 8");
+        TripFile read = new TripFile(file);
+        try
+        {
+            assertEquals(100, read.next().getSpawnTime());
+            assertEquals(5, read.next().getStart().line());
+            assertNull(read.next());
+        } finally
+        {
+            read.close();
+        }
+    }
+
+    @Test
+    public void invalidTripsAreRejectedWithTheirLine() throws IOException
+    {
+        assertInvalid(":2: invalid trip (expected 5 fields, found 4)", "0 1 1 2 2", "10 1 1 2");
+        assertInvalid(":3: invalid trip (trips out of order)", "0 1 1 2 2", "500 1 1 2 2", "400 1 1 2 2");
+        assertInvalid(":1: invalid trip", "soon 1 1 2 2");
+    }
+
+    @Test
+    public void tripsOffTheWalkableCellsOfTheMapAreRejected() throws IOException
+    {
+        MapIndex map = new MapIndex(new TextGrid(new String[]
+        {
+            "#####",
+            "# X #",
+            "#GgG#"
+        }));
+
+        assertInvalid(map, ":2: invalid trip (destination (2, 2) isn't a walkable cell of the map)", "0 1 1 1 3",
+                "10 1 2 2 2");
+        assertInvalid(map, ":1: invalid trip (start (0, 0) isn't a walkable cell of the map)", "0 0 0 1 1");
+        assertInvalid(map, ":1: invalid trip (destination (1, 5) isn't a walkable cell of the map)", "0 1 1 1 5");
+    }
+
+    /**
+     * Writes a trip file
+     */
+    private Path write(String... lines) throws IOException
+    {
+        Path file = Files.createTempFile(dir, "trips", ".txt");
+        Files.write(file, List.of(lines), StandardCharsets.UTF_8);
+        return file;
+    }
+
+    /**
+     * Checks that reading a trip file fails with a certain message
+     */
+    private void assertInvalid(String message, String... lines) throws IOException
+    {
+        assertInvalid(null, message, lines);
+    }
+
+    /**
+     * Checks that reading a trip file for a map fails with a certain message
+     */
+    private void assertInvalid(MapIndex map, String message, String... lines) throws IOException
+    {
+        TripFile read = new TripFile(write(lines), map);
+        try
+        {
+            IOException e = assertThrows(IOException.class, () ->
+            {
+                while (read.next() != null)
+                {
+                }
+            });
+            assertTrue(e.getMessage().contains(message), e.getMessage());
+        } finally
+        {
+            read.close();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package grid;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import pt.ua.gboard.basic.Position;
+
+/**
+ * General description: Tests of the lookups of a MapIndex.
+ *
+ * @author Tiago Madeira 76321
+ */
+public class MapIndexTest
+{
+
+    private final MapIndex index = new MapIndex(new TextGrid(new String[]
+    {
+        "#######",
+        "#GgGG #",
+        "#   G #",
+        "#X  gX#",
+        "#######"
+    }));
+
+    @Test
+    public void cellsArePackedLineByLine()
+    {
+        assertEquals(5, index.numberOfLines());
+        assertEquals(7, index.numberOfColumns());
+        assertArrayEquals(new int[]
+        {
+            8, 10, 11, 18
+        }, index.cells('G'));
+        assertEquals(0, index.cells('R').length);
+        assertEquals('g', index.symbol(9));
+        assertEquals(3, index.line(26));
+        assertEquals(5, index.column(26));
+    }
+
+    @Test
+    public void positionsAreThoseOfEachSymbolInTurn()
+    {
+        assertEquals(6, index.count('G', 'g'));
+        Position[] positions = index.positions('g', 'X');
+        int[][] expected =
+        {
+            {
+                1, 2
+            },
+            {
+                3, 4
+            },
+            {
+                3, 1
+            },
+            {
+                3, 5
+            }
+        };
+        assertEquals(expected.length, positions.length);
+        for (int i = 0; i < expected.length; i++)
+        {
+            assertEquals(expected[i][0], positions[i].line());
+            assertEquals(expected[i][1], positions[i].column());
+        }
+    }
+
+    @Test
+    public void endsAreTheCellsWithOneNeighbour()
+    {
+        // The line runs from (1,1) along and down to (3,4)
+        assertArrayEquals(new int[]
+        {
+            8, 25
+        }, index.ends('G', 'g'));
+        // Without its stations the line is in pieces
+        assertArrayEquals(new int[]
+        {
+            10, 18
+        }, index.ends('G'));
+    }
+
+    @Test
+    public void randomPositionIsAnyOfTheCells()
+    {
+        Random random = new Random(1);
+        boolean[] seen = new boolean[index.count('X', 'g')];
+        Position[] positions = index.positions('X', 'g');
+        for (int i = 0; i < 200; i++)
+        {
+            Position pos = index.randomPosition(random, 'X', 'g');
+            char symbol = index.symbol(pos.line() * index.numberOfColumns() + pos.column());
+            assertTrue(symbol == 'X' || symbol == 'g');
+            for (int p = 0; p < positions.length; p++)
+            {
+                if (positions[p].line() == pos.line() && positions[p].column() == pos.column())
+                {
+                    seen[p] = true;
+                }
+            }
+        }
+        for (boolean s : seen)
+        {
+            assertTrue(s);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package jfr;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pt.ua.gboard.basic.Position;
+import regions.Station;
+
+/**
+ * General description: Tests of the Flight Recorder events, recorded and read
+ * back from a recording file.
+ *
+ * @author Tiago Madeira 76321
+ */
+public class EventsTest
+{
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void stationEventsCarryTheStationAndTheirValues() throws IOException
+    {
+        Station station = new Station(new Position(3, 7), 'G');
+        List<RecordedEvent> events = record(() ->
+        {
+            TicketPurchaseEvent purchase = new TicketPurchaseEvent();
+            purchase.begin();
+            purchase.commit(station, 5);
+
+            BoardingEvent boarding = new BoardingEvent();
+            boarding.begin();
+            boarding.commit(station, 20, 4);
+        });
+
+        RecordedEvent purchase = only(events, "metro.TicketPurchase");
+        assertEquals(3, purchase.getInt("stationLine"));
+        assertEquals(7, purchase.getInt("stationColumn"));
+        assertEquals('G', purchase.getChar("track"));
+        assertEquals(5, purchase.getInt("queueLength"));
+
+        RecordedEvent boarding = only(events, "metro.Boarding");
+        assertEquals(20, boarding.getInt("boarded"));
+        assertEquals(4, boarding.getInt("leftOnPlatform"));
+    }
+
+    @Test
+    public void inspectionEventCarriesTheSweep() throws IOException
+    {
+        List<RecordedEvent> events = record(() ->
+        {
+            TicketInspectionEvent event = new TicketInspectionEvent();
+            event.begin();
+            event.commit('R', "Inspector_3", 12, 2);
+        });
+
+        RecordedEvent inspection = only(events, "metro.TicketInspection");
+        assertEquals('R', inspection.getChar("track"));
+        assertEquals("Inspector_3", inspection.getString("inspector"));
+        assertEquals(12, inspection.getInt("ticketsChecked"));
+        assertEquals(2, inspection.getInt("fines"));
+    }
+
+    @Test
+    public void eventsAreNotCommittedUnlessRecorded() throws IOException
+    {
+        Station station = new Station(new Position(1, 1), 'B');
+        // Committed while nothing records it
+        TicketPurchaseEvent event = new TicketPurchaseEvent();
+        event.begin();
+        event.commit(station, 1);
+
+        List<RecordedEvent> events = record(() ->
+        {
+        });
+        assertTrue(events.stream().noneMatch(e -> e.getEventType().getName().startsWith("metro.")));
+    }
+
+    /**
+     * Runs some code while recording every metro event and returns the events
+     * recorded
+     */
+    private List<RecordedEvent> record(Runnable code) throws IOException
+    {
+        Path file = dir.resolve("recording.jfr");
+        try (Recording recording = new Recording())
+        {
+            for (String name : new String[]
+            {
+                "metro.TicketPurchase", "metro.Boarding", "metro.TicketInspection"
+            })
+            {
+                recording.enable(name).withoutThreshold();
+            }
+            recording.start();
+            code.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file);
+    }
+
+    /**
+     * Returns the only event of a type
+     */
+    private static RecordedEvent only(List<RecordedEvent> events, String name)
+    {
+        List<RecordedEvent> found = events.stream().filter(e -> e.getEventType().getName().equals(name)).toList();
+        assertEquals(1, found.size(), name);
+        return found.get(0);
+    }
+}
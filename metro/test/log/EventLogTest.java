@@ -0,0 +1,177 @@
+package log;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * General description: Tests of the EventLog ring buffer, through a binary
+ * log file read back with BinarySink.
+ *
+ * @author Tiago Madeira 76321
+ */
+public class EventLogTest
+{
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    public void tearDown()
+    {
+        EventLog.off();
+    }
+
+    @Test
+    public void eventsAreWrittenInOrderPastAFullLap() throws IOException
+    {
+        Path file = dir.resolve("events.bin");
+        // More events than slots in the ring buffer
+        int events = 200000;
+        EventLog.toBinaryFile(file);
+        for (int i = 0; i < events; i++)
+        {
+            EventLog.publish(EventType.TICKET_BOUGHT, "Pawn_" + (i % 7), 'G', i, 0);
+        }
+        EventLog.close();
+
+        String[] lines = read(file);
+        assertEquals(events, lines.length);
+        for (int i = 0; i < events; i += 9973)
+        {
+            assertTrue(lines[i].endsWith("Pawn_" + (i % 7) + ": Bought ticket for track G! My new balance is " + i
+                    + "€"), lines[i]);
+        }
+    }
+
+    @Test
+    public void noEventOfConcurrentProducersIsLost() throws IOException, InterruptedException
+    {
+        Path file = dir.resolve("events.bin");
+        int producers = 4;
+        int events = 50000;
+        EventLog.toBinaryFile(file);
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++)
+        {
+            String name = "Inspector_" + p;
+            threads[p] = new Thread(() ->
+            {
+                for (int i = 0; i < events; i++)
+                {
+                    EventLog.publish(EventType.TICKETS_CHECKED, name, 'R', i, 0);
+                }
+            });
+            threads[p].start();
+        }
+        for (Thread thread : threads)
+        {
+            thread.join();
+        }
+        EventLog.close();
+
+        String[] lines = read(file);
+        assertEquals(producers * events, lines.length);
+        for (int p = 0; p < producers; p++)
+        {
+            // Each producer's events keep their order
+            int next = 0;
+            for (String line : lines)
+            {
+                if (line.contains("Inspector_" + p + ": Checked " + next + " tickets"))
+                {
+                    next++;
+                }
+            }
+            assertEquals(events, next);
+        }
+    }
+
+    @Test
+    public void eventsKeepTheirNamesPastTheTableOfNames() throws IOException
+    {
+        Path file = dir.resolve("events.bin");
+        // Many more names than entries in the table, each one coming back
+        int names = 20000;
+        EventLog.toBinaryFile(file);
+        for (int i = 0; i < 2 * names; i++)
+        {
+            EventLog.publish(EventType.ARRIVED, "Pawn_" + (i % names), ' ', 0, 0);
+        }
+        EventLog.close();
+
+        String[] lines = read(file);
+        assertEquals(2 * names, lines.length);
+        for (int i = 0; i < lines.length; i++)
+        {
+            assertTrue(lines[i].contains("] Pawn_" + (i % names) + ":"), lines[i]);
+        }
+    }
+
+    @Test
+    public void closingWaitsForEveryEventAlreadyClaimed() throws IOException, InterruptedException
+    {
+        Path file = dir.resolve("events.bin");
+        int producers = 4;
+        EventLog.toBinaryFile(file);
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++)
+        {
+            String name = "Inspector_" + p;
+            threads[p] = new Thread(() ->
+            {
+                for (int i = 0; i < 1000000; i++)
+                {
+                    EventLog.publish(EventType.TICKETS_CHECKED, name, 'R', i, 0);
+                }
+            });
+            threads[p].start();
+        }
+        // Closed while they're still publishing
+        Thread.sleep(20);
+        EventLog.close();
+        for (Thread thread : threads)
+        {
+            thread.join();
+        }
+
+        // Whatever each producer got in before closing is there, with no gaps
+        String[] lines = read(file);
+        int[] next = new int[producers];
+        for (String line : lines)
+        {
+            int p = line.charAt(line.indexOf("Inspector_") + "Inspector_".length()) - '0';
+            assertTrue(line.contains(": Checked " + next[p] + " tickets"), line);
+            next[p]++;
+        }
+    }
+
+    @Test
+    public void noWriterRunsWhileTheLogIsOff()
+    {
+        EventLog.off();
+        EventLog.publish(EventType.ARRIVED, "Pawn_0", ' ', 0, 0);
+
+        assertTrue(Thread.getAllStackTraces().keySet().stream().noneMatch(t -> t.getName().equals("EventLog")));
+    }
+
+    /**
+     * Returns the lines BinarySink prints for a binary log file
+     */
+    private static String[] read(Path file) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (PrintStream ps = new PrintStream(bytes, true, StandardCharsets.UTF_8))
+        {
+            BinarySink.print(file, ps);
+        }
+        String text = bytes.toString(StandardCharsets.UTF_8);
+        return text.isEmpty() ? new String[0] : text.split("\n");
+    }
+}
@@ -0,0 +1,84 @@
+package metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * General description: Tests of the Histogram buckets and percentiles.
+ *
+ * @author Tiago Madeira 76321
+ */
+public class HistogramTest
+{
+
+    @Test
+    public void emptyHistogramHasNoValues()
+    {
+        Histogram.Snapshot snapshot = new Histogram().snapshot();
+
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getMax());
+        assertEquals(0, snapshot.getValueAtPercentile(50));
+    }
+
+    @Test
+    public void smallValuesAreExact()
+    {
+        Histogram histogram = new Histogram();
+        for (int v = 1; v <= 100; v++)
+        {
+            histogram.record(v);
+        }
+        Histogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(100, snapshot.getCount());
+        assertEquals(100, snapshot.getMax());
+        assertEquals(50.5, snapshot.getMean(), 1e-9);
+        assertEquals(1, snapshot.getValueAtPercentile(0));
+        assertEquals(50, snapshot.getValueAtPercentile(50));
+        assertEquals(99, snapshot.getValueAtPercentile(99));
+        assertEquals(100, snapshot.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void largeValuesAreWithinTheBucketPrecision()
+    {
+        long[] values =
+        {
+            128, 1000, 123456, 987654321L, 1L << 39
+        };
+        for (long value : values)
+        {
+            Histogram histogram = new Histogram();
+            histogram.record(value);
+            histogram.record(value + 1);
+            long p50 = histogram.snapshot().getValueAtPercentile(50);
+
+            // 64 buckets per power of two: never off by more than 1/64
+            assertTrue(p50 >= value, value + " reported as " + p50);
+            assertTrue(p50 - value <= value / 64, value + " reported as " + p50);
+        }
+    }
+
+    @Test
+    public void valuesTooLargeAreCapped()
+    {
+        Histogram histogram = new Histogram();
+        histogram.record(Long.MAX_VALUE / 2);
+
+        assertEquals((1L << 40) - 1, histogram.snapshot().getMax());
+    }
+
+    @Test
+    public void snapshotDoesNotChangeWithLaterValues()
+    {
+        Histogram histogram = new Histogram();
+        histogram.record(10);
+        Histogram.Snapshot snapshot = histogram.snapshot();
+        histogram.record(20);
+
+        assertEquals(1, snapshot.getCount());
+        assertEquals(10, snapshot.getMax());
+        assertEquals(2, histogram.snapshot().getCount());
+    }
+}
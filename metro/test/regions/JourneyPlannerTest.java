@@ -0,0 +1,84 @@
+package regions;
+
+import static org.junit.jupiter.api.Assertions.*;
+import grid.MapIndex;
+import grid.TextGrid;
+import org.junit.jupiter.api.Test;
+import pt.ua.gboard.basic.Position;
+
+/**
+ * General description: Tests of the journeys planned across a network of two
+ * lines with a transfer between them.
+ *
+ * @author Tiago Madeira 76321
+ */
+public class JourneyPlannerTest
+{
+
+    // Line G runs along the top and line R down the right, their last
+    // stations next to each other
+    private final TextGrid grid = new TextGrid(new String[]
+    {
+        "########################",
+        "#                      #",
+        "# gGGGgGGGGGgGGGGGGGg  #",
+        "#                   r  #",
+        "#                   R  #",
+        "#                   R  #",
+        "#                   R  #",
+        "#                   R  #",
+        "#                   r  #",
+        "#                   R  #",
+        "#                   R  #",
+        "#                   R  #",
+        "#                   R  #",
+        "#                   R  #",
+        "#                   r  #",
+        "#                   R  #",
+        "#                   R  #",
+        "#                   R  #",
+        "#                   R  #",
+        "#                   R  #",
+        "#                   R  #",
+        "#                   r  #",
+        "#                      #",
+        "########################"
+    });
+    private final MapIndex index = new MapIndex(grid);
+    private final MetroMap map = new MetroMap(grid, index, new Track[]
+    {
+        new Track(grid, index, 'G', 'g', 4, 0, 20), new Track(grid, index, 'R', 'r', 4, 0, 20)
+    }, null);
+
+    @Test
+    public void journeyTransfersBetweenLines()
+    {
+        Journey journey = map.planJourney(new Position(1, 2), new Position(22, 20));
+
+        assertEquals(2, journey.getNumberOfLegs());
+        assertAt(2, 2, journey.getBoardingStation(0));
+        assertAt(2, 20, journey.getAlightingStation(0));
+        assertAt(3, 20, journey.getBoardingStation(1));
+        assertAt(21, 20, journey.getAlightingStation(1));
+        assertTrue(journey.getEstimatedTime() > 0);
+    }
+
+    @Test
+    public void journeyTakesASingleLineWhenItIsEnough()
+    {
+        Journey journey = map.planJourney(new Position(1, 2), new Position(1, 12));
+
+        assertEquals(1, journey.getNumberOfLegs());
+        assertAt(2, 2, journey.getBoardingStation(0));
+        assertAt(2, 12, journey.getAlightingStation(0));
+    }
+
+    /**
+     * Checks where a station is
+     */
+    private static void assertAt(int line, int column, Station station)
+    {
+        assertEquals(line, station.getLocation().line(), "line of " + station);
+        assertEquals(column, station.getLocation().column(), "column of " + station);
+    }
+}
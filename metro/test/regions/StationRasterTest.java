@@ -0,0 +1,95 @@
+package regions;
+
+import static org.junit.jupiter.api.Assertions.*;
+import grid.MapIndex;
+import grid.TextGrid;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pt.ua.gboard.basic.Position;
+
+/**
+ * General description: Tests of the raster of nearest stations, against the
+ * spatial index of the stations it stands for.
+ *
+ * @author Tiago Madeira 76321
+ */
+public class StationRasterTest
+{
+
+    @TempDir
+    Path dir;
+
+    private TextGrid grid;
+    private Track[] tracks;
+    private Station[] stations;
+    private StationIndex allStations;
+
+    @BeforeEach
+    public void loadMap() throws IOException
+    {
+        grid = TextGrid.load("map0.txt");
+        MapIndex index = new MapIndex(grid);
+        tracks = new Track[]
+        {
+            new Track(grid, index, 'G', 'g', 4, 0, 20), new Track(grid, index, 'R', 'r', 4, 0, 20),
+            new Track(grid, index, 'P', 'p', 4, 0, 20), new Track(grid, index, 'B', 'b', 4, 0, 20)
+        };
+        List<Station> list = new ArrayList<>();
+        for (Track track : tracks)
+        {
+            list.addAll(track.getStations());
+        }
+        stations = list.toArray(new Station[0]);
+        allStations = new StationIndex(list, grid.numberOfLines(), grid.numberOfColumns());
+    }
+
+    @Test
+    public void everyWalkableCellHasTheStationTheIndexFinds()
+    {
+        StationRaster raster = StationRaster.compute(grid, tracks, stations);
+
+        for (int l = 0; l < grid.numberOfLines(); l++)
+        {
+            for (int c = 0; c < grid.numberOfColumns(); c++)
+            {
+                int id = raster.nearest(l, c);
+                if (MapIndex.isWalkable(grid.roadSymbol(l, c)))
+                {
+                    assertSame(allStations.nearest(new Position(l, c)), stations[id], "cell " + l + ", " + c);
+                } else
+                {
+                    assertEquals(-1, id);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void savedRasterIsReadBackForTheSameMapOnly() throws IOException
+    {
+        StationRaster raster = StationRaster.compute(grid, tracks, stations);
+        Path file = dir.resolve("raster.bin");
+        raster.save(file);
+
+        StationRaster loaded = StationRaster.load(file, grid, tracks);
+        assertNotNull(loaded);
+        for (int l = 0; l < grid.numberOfLines(); l++)
+        {
+            for (int c = 0; c < grid.numberOfColumns(); c++)
+            {
+                assertEquals(raster.nearest(l, c), loaded.nearest(l, c));
+            }
+        }
+
+        // Without one of the tracks
+        assertNull(StationRaster.load(file, grid, new Track[]
+        {
+            tracks[0], tracks[1], tracks[2]
+        }));
+    }
+}
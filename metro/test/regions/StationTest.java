@@ -0,0 +1,121 @@
+package regions;
+
+import static org.junit.jupiter.api.Assertions.*;
+import entities.Pawn;
+import entities.Salesman;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.Test;
+import pt.ua.gboard.basic.Position;
+
+/**
+ * General description: Tests of the handshakes of a Station with the Pawns
+ * and the Conductors, each one run by threads of its own.
+ *
+ * @author Tiago Madeira 76321
+ */
+public class StationTest
+{
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(20);
+
+    private final World world = new World(2);
+
+    @Test
+    public void everyPawnInTheQueueIsSoldATicketByOneOfTheBooths()
+    {
+        Station station = new Station(new Position(5, 25), 'G');
+        for (int b = 0; b < 3; b++)
+        {
+            Salesman salesman = new Salesman("Salesman_" + b, station);
+            salesman.setDaemon(true);
+            salesman.start();
+        }
+        List<Pawn> pawns = new ArrayList<>();
+        for (int i = 0; i < 30; i++)
+        {
+            pawns.add(world.newPawn("Pawn_" + i));
+        }
+        int balance = pawns.get(0).getWalletValue();
+
+        assertTimeoutPreemptively(TIMEOUT, () ->
+        {
+            List<Thread> buyers = new ArrayList<>();
+            for (Pawn pawn : pawns)
+            {
+                buyers.add(World.start(() -> station.buyTicket(pawn)));
+            }
+            for (Thread buyer : buyers)
+            {
+                buyer.join();
+            }
+        });
+
+        assertEquals(30, station.getTicketsSold());
+        assertEquals(0, station.getQueueLength());
+        for (Pawn pawn : pawns)
+        {
+            assertEquals('G', pawn.seeTicket());
+            assertEquals(balance - 10, pawn.getWalletValue());
+        }
+    }
+
+    @Test
+    public void boardingIsLimitedByTheCapacity()
+    {
+        Station station = new Station(new Position(5, 25), 'G', 2);
+        Train train = world.newTrain();
+        List<Train> boarded = wait(station, 5);
+
+        assertTimeoutPreemptively(TIMEOUT, () -> station.letPassengersIntoTrain(train));
+
+        World.await(() -> boarded.size() == 2);
+        assertSame(train, boarded.get(0));
+        assertSame(train, boarded.get(1));
+        assertEquals(3, station.getPlatformLength());
+    }
+
+    @Test
+    public void trainsStoppedAtOnceEachWaitForTheirOwnPassengers()
+    {
+        Train first = world.newTrain();
+        Train second = world.newTrain();
+        // Enough rounds for the two Conductors to interleave every which way
+        for (int round = 0; round < 200; round++)
+        {
+            Station station = new Station(new Position(5, 25), 'G', 2);
+            List<Train> boarded = wait(station, 4);
+
+            assertTimeoutPreemptively(TIMEOUT, () ->
+            {
+                Thread conductor = World.start(() -> station.letPassengersIntoTrain(first));
+                station.letPassengersIntoTrain(second);
+                conductor.join();
+            }, "round " + round);
+
+            World.await(() -> boarded.size() == 4);
+            assertEquals(2, boarded.stream().filter(t -> t == first).count());
+            assertEquals(2, boarded.stream().filter(t -> t == second).count());
+            assertEquals(0, station.getPlatformLength());
+        }
+    }
+
+    /**
+     * Puts passengers on the platform of a station, each one waiting for a
+     * train on a thread of its own, and waits until they all are
+     *
+     * @return the trains the passengers get into, as they do
+     */
+    private static List<Train> wait(Station station, int passengers)
+    {
+        List<Train> boarded = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < passengers; i++)
+        {
+            World.start(() -> boarded.add(station.waitForTrain()));
+        }
+        World.await(() -> station.getPlatformLength() == passengers);
+        return boarded;
+    }
+}
@@ -0,0 +1,55 @@
+package regions;
+
+import static org.junit.jupiter.api.Assertions.*;
+import grid.MapIndex;
+import grid.TextGrid;
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+
+/**
+ * General description: Tests of the tracks determined from a map, between
+ * the terminals found on it.
+ *
+ * @author Tiago Madeira 76321
+ */
+public class TrackTest
+{
+
+    @Test
+    public void trackRunsBetweenTheTerminalsOfTheMap() throws IOException
+    {
+        TextGrid grid = TextGrid.load("map0.txt");
+        Track track = new Track(grid, new MapIndex(grid), 'G', 'g', 4, 0, 20);
+
+        // There and back again, stopping at the terminals once each way
+        assertEquals(0, track.getMovesSize() % 2);
+        Station first = track.getStopSequence().get(0);
+        assertEquals(5, first.getLocation().line());
+        assertEquals(25, first.getLocation().column());
+        Station last = track.getStopSequence().get(track.getStopSequence().size() / 2);
+        assertEquals(33, last.getLocation().line());
+        assertEquals(28, last.getLocation().column());
+        for (Station station : track.getStations())
+        {
+            assertTrue(track.getStopSequence().contains(station));
+        }
+    }
+
+    @Test
+    public void lineWithoutTwoTerminalsIsRejected()
+    {
+        // A loop has no terminals
+        TextGrid grid = new TextGrid(new String[]
+        {
+            "#####",
+            "#GgG#",
+            "#G G#",
+            "#GgG#",
+            "#####"
+        });
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> new Track(grid,
+                new MapIndex(grid), 'G', 'g', 4, 0, 20));
+        assertTrue(e.getMessage().contains("must have two terminals, 0 found"), e.getMessage());
+    }
+}
@@ -0,0 +1,115 @@
+package regions;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.time.Duration;
+import java.util.List;
+import entities.Pawn;
+import org.junit.jupiter.api.Test;
+
+/**
+ * General description: Tests of the handshakes of a Train with its
+ * passengers, each one run by a thread of its own.
+ *
+ * @author Tiago Madeira 76321
+ */
+public class TrainTest
+{
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(20);
+
+    private final World world = new World(20);
+
+    @Test
+    public void onlyThePassengersGettingOffAreWokenUp()
+    {
+        Train train = world.newTrain();
+        List<Station> stations = world.getTrack().getStations();
+        Station first = stations.get(0);
+        Station second = stations.get(1);
+        Thread[] leavingFirst =
+        {
+            World.start(() -> train.waitForStop(first)), World.start(() -> train.waitForStop(first))
+        };
+        Thread leavingSecond = World.start(() -> train.waitForStop(second));
+        for (Thread passenger : leavingFirst)
+        {
+            World.awaitAsleep(passenger);
+        }
+        World.awaitAsleep(leavingSecond);
+
+        assertTimeoutPreemptively(TIMEOUT, () ->
+        {
+            train.letPassengersOffTheTrain(first);
+            for (Thread passenger : leavingFirst)
+            {
+                passenger.join();
+            }
+        });
+        assertEquals(Thread.State.WAITING, leavingSecond.getState());
+
+        assertTimeoutPreemptively(TIMEOUT, () ->
+        {
+            train.letPassengersOffTheTrain(second);
+            leavingSecond.join();
+        });
+    }
+
+    @Test
+    public void stopWithNobodyGettingOffDoesNotWait()
+    {
+        Train train = world.newTrain();
+
+        assertTimeoutPreemptively(TIMEOUT, () -> train.letPassengersOffTheTrain(world.getTrack().getStations()
+                .get(0)));
+    }
+
+    @Test
+    public void sweepFinesEveryTicketNotValidForTheTrain()
+    {
+        Train train = world.newTrain();
+        Pawn valid = world.newPawn("valid");
+        valid.saveTicket('G');
+        Pawn wrong = world.newPawn("wrong");
+        wrong.saveTicket('R');
+        Pawn none = world.newPawn("none");
+        for (Pawn pawn : new Pawn[]
+        {
+            valid, wrong, none
+        })
+        {
+            train.showTicket(pawn);
+        }
+
+        train.sweepTickets("Inspector");
+
+        assertEquals(3, train.getTicketsChecked());
+        assertEquals(2, train.getFinesApplied());
+        assertEquals(100, valid.getWalletValue());
+        assertEquals(150, wrong.getWalletValue());
+        assertEquals(150, none.getWalletValue());
+        // Shown tickets are used up
+        assertEquals('0', valid.seeTicket());
+        assertEquals('0', wrong.seeTicket());
+
+        // Nothing new to check
+        train.sweepTickets("Inspector");
+        assertEquals(3, train.getTicketsChecked());
+    }
+
+    @Test
+    public void inspectorSweepsWhenTheTrainLeavesAStation()
+    {
+        Train train = world.newTrain(world.getTrack().getStopMoveIndices()[0]);
+        assertNotNull(train.getCurrentStation());
+        Thread inspector = World.start(train::checkTickets);
+        World.awaitAsleep(inspector);
+        Pawn pawn = world.newPawn("pawn");
+        pawn.saveTicket('G');
+        train.showTicket(pawn);
+
+        train.move();
+
+        assertTimeoutPreemptively(TIMEOUT, () -> World.await(() -> train.getTicketsChecked() == 1));
+        assertEquals(0, train.getFinesApplied());
+    }
+}
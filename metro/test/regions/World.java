@@ -0,0 +1,150 @@
+package regions;
+
+import entities.Pawn;
+import grid.MapIndex;
+import grid.TextGrid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.BooleanSupplier;
+import log.EventLog;
+import render.HeadlessRenderer;
+
+/**
+ * General description: The world the tests of the monitors run in: map0.txt,
+ * its G line without booths and the MetroMap Pawns are created with. Nothing
+ * is drawn and the events of the simulation aren't logged.
+ *
+ * @author Tiago Madeira 76321
+ */
+class World
+{
+
+    /**
+     * Cell size of the tests
+     */
+    static final int N = 4;
+
+    /**
+     * Internal data
+     */
+    private final TextGrid grid;
+    private final Track track;
+    private final MetroMap metroMap;
+    private int trains = 0;
+
+    /**
+     * Constructor
+     *
+     * @param capacity the most passengers that get into a train each time one
+     *                 stops at a station
+     */
+    World(int capacity)
+    {
+        EventLog.off();
+        try
+        {
+            grid = TextGrid.load("map0.txt");
+        } catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        MapIndex index = new MapIndex(grid);
+        track = new Track(grid, index, 'G', 'g', N, 0, capacity);
+        metroMap = new MetroMap(grid, index, new Track[]
+        {
+            track
+        }, null);
+    }
+
+    /**
+     * Returns the track of the world
+     *
+     * @return the G Track
+     */
+    Track getTrack()
+    {
+        return track;
+    }
+
+    /**
+     * Creates a train on the track, with no Conductor.
+     *
+     * @return the new Train
+     */
+    Train newTrain()
+    {
+        trains++;
+        return newTrain(trains * track.getMovesSize() / 8);
+    }
+
+    /**
+     * Creates a train on the track, with no Conductor, where it makes a move
+     * of the cycle of the track.
+     *
+     * @param moveCnt the index of the move
+     *
+     * @return the new Train
+     */
+    Train newTrain(int moveCnt)
+    {
+        return new Train(grid, new HeadlessRenderer(), track, moveCnt, N, 2);
+    }
+
+    /**
+     * Creates a Pawn, not yet on its way.
+     *
+     * @param name Pawn name
+     *
+     * @return the new Pawn
+     */
+    Pawn newPawn(String name)
+    {
+        return new Pawn(name, new HeadlessRenderer(), metroMap, grid, N, 1);
+    }
+
+    /**
+     * Starts a daemon thread, so that a test which fails leaves nothing
+     * behind.
+     *
+     * @param code what the thread runs
+     *
+     * @return the Thread started
+     */
+    static Thread start(Runnable code)
+    {
+        Thread thread = new Thread(code);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Waits until a thread is asleep, waiting to be signalled.
+     *
+     * @param thread the Thread to wait for
+     */
+    static void awaitAsleep(Thread thread)
+    {
+        await(() -> thread.getState() == Thread.State.WAITING);
+    }
+
+    /**
+     * Waits until a condition holds, checking it every millisecond.
+     *
+     * @param condition the condition to wait for
+     */
+    static void await(BooleanSupplier condition)
+    {
+        while (!condition.getAsBoolean())
+        {
+            try
+            {
+                Thread.sleep(1);
+            } catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package sim;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * General description: Tests of the order in which the discrete-event
+ * simulation runs its events.
+ *
+ * @author Tiago Madeira 76321
+ */
+public class SimulationTest
+{
+
+    private final Simulation sim = new Simulation();
+    private final List<String> ran = new ArrayList<>();
+
+    @Test
+    public void eventsRunInTimeOrder()
+    {
+        sim.schedule(300, () -> ran.add("c"));
+        sim.schedule(100, () -> ran.add("a"));
+        sim.schedule(200, () -> ran.add("b"));
+
+        sim.run(Long.MAX_VALUE);
+
+        assertEquals(List.of("a", "b", "c"), ran);
+        assertEquals(300, sim.now());
+        assertEquals(3, sim.eventsProcessed());
+    }
+
+    @Test
+    public void eventsAtTheSameTimeRunInTheOrderTheyWereScheduled()
+    {
+        for (int i = 0; i < 100; i++)
+        {
+            String name = Integer.toString(i);
+            sim.schedule(50, () -> ran.add(name));
+        }
+        // Scheduled while running, after the ones already waiting
+        sim.schedule(0, () -> sim.schedule(50, () -> ran.add("late")));
+
+        sim.run(Long.MAX_VALUE);
+
+        assertEquals(101, ran.size());
+        for (int i = 0; i < 100; i++)
+        {
+            assertEquals(Integer.toString(i), ran.get(i));
+        }
+        assertEquals("late", ran.get(100));
+    }
+
+    @Test
+    public void runStopsAtTheLastInstant()
+    {
+        sim.schedule(100, () -> ran.add("a"));
+        sim.schedule(200, () -> ran.add("b"));
+
+        sim.run(150);
+        assertEquals(List.of("a"), ran);
+
+        sim.run(200);
+        assertEquals(List.of("a", "b"), ran);
+    }
+}